@@ -0,0 +1,107 @@
+package io.eldermael.java.libs;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// Range, top-K and percentile over 10M records: sorted amount index against sorting a stream per query
+// ./gradlew jmh -PjmhIncludes=AmountIndexBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class AmountIndexBenchmark {
+
+  private static final Comparator<Record> BY_AMOUNT = Comparator.comparing(Record::getAmount);
+
+  @Param({"10000000"})
+  int size;
+
+  List<Record> records;
+  AmountIndex index;
+
+  @Setup
+  public void setUp() {
+    var random = new Random(42);
+    var codes = List.of("SSS", "SSA", "SDB", "SCD");
+    records = IntStream.range(0, size)
+        .mapToObj(i -> Record.builder()
+            .name("R")
+            .code(codes.get(random.nextInt(codes.size())))
+            .amount((double) random.nextInt(10_000_000) / 100)
+            .build())
+        .toList();
+    index = AmountIndex.build(records);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public AmountIndex buildIndex() {
+    return AmountIndex.build(records);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public List<Record> sortStream() {
+    return records.parallelStream().sorted(BY_AMOUNT).toList();
+  }
+
+  @Benchmark
+  public int rangeIndex() {
+    return index.range(1_000.0, 1_010.0).size();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public long rangeStream() {
+    return records.stream()
+        .filter(record -> record.getAmount() >= 1_000.0 && record.getAmount() <= 1_010.0)
+        .sorted(BY_AMOUNT)
+        .count();
+  }
+
+  @Benchmark
+  public List<Record> topKIndex() {
+    return List.copyOf(index.topK(100));
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public List<Record> topKStream() {
+    return records.stream().sorted(BY_AMOUNT.reversed()).limit(100).toList();
+  }
+
+  @Benchmark
+  public double percentileIndex() {
+    return index.percentile(99);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public double percentileStream() {
+    var sorted = records.stream().mapToDouble(Record::getAmount).sorted().toArray();
+    return sorted[(int) Math.ceil(0.99 * sorted.length) - 1];
+  }
+
+}
@@ -0,0 +1,95 @@
+package io.eldermael.java.libs;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Each operation reads the whole directory, files/s = fileCount / score
+// ./gradlew jmh -PjmhIncludes=AsyncBatchFileReaderBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AsyncBatchFileReaderBenchmark {
+
+  @Param({"100000"})
+  int fileCount;
+
+  @Param({"4", "64"})
+  int threads;
+
+  Path directory;
+  List<Path> files;
+  ExecutorService executor;
+
+  @Setup
+  public void createFiles() throws IOException {
+    directory = Files.createTempDirectory("batch-files");
+    files = new ArrayList<>(fileCount);
+    for (int i = 0; i < fileCount; i++) {
+      files.add(Files.writeString(directory.resolve("batch-" + i + ".txt"), "10\n20\n30\n"));
+    }
+    executor = Executors.newFixedThreadPool(threads);
+  }
+
+  @TearDown
+  public void deleteFiles() throws IOException {
+    executor.shutdownNow();
+    try (Stream<Path> paths = Files.walk(directory)) {
+      paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+    }
+  }
+
+  @Benchmark
+  public int asyncFileChannel() {
+    var reader = new AsyncBatchFileReader(executor, 256);
+    var results = reader.readLines(files);
+    return results.values().stream().mapToInt(lines -> lines.join().size()).sum();
+  }
+
+  @Benchmark
+  public int blockingReaderPerFile() {
+    var results = files.stream()
+        .map(file -> CompletableFuture.supplyAsync(() -> readBlocking(file), executor))
+        .toList();
+    return results.stream().mapToInt(lines -> lines.join().size()).sum();
+  }
+
+  private List<String> readBlocking(Path file) {
+    try (var input = new FileInputStream(file.toFile());
+         var reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+      return reader.lines().toList();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+}
@@ -0,0 +1,68 @@
+package io.eldermael.java.libs;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// ./gradlew jmh -PjmhIncludes=BatchLineParserBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchLineParserBenchmark {
+
+  @Param({"100000"})
+  int lines;
+
+  @Param({"0.1"})
+  double garbageRatio;
+
+  byte[] content;
+  String text;
+
+  @Setup
+  public void setUp() {
+    var random = new Random(42);
+    var builder = new StringBuilder();
+    for (int i = 0; i < lines; i++) {
+      builder.append(random.nextDouble() < garbageRatio ? "x" + i : Integer.toString(i)).append('\n');
+    }
+    text = builder.toString();
+    content = text.getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Benchmark
+  public List<Integer> parseIntCatchingExceptions() {
+    var values = new ArrayList<Integer>();
+    for (var line : text.split("\n")) {
+      try {
+        values.add(Integer.parseInt(line));
+      } catch (NumberFormatException e) {
+        // skipped
+      }
+    }
+    return values;
+  }
+
+  @Benchmark
+  public BatchLineParser.ParseReport batchLineParser() {
+    return BatchLineParser.skipAndReport().parse("garbage.txt", content);
+  }
+
+}
@@ -0,0 +1,85 @@
+package io.eldermael.java.libs;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.DoubleSummaryStatistics;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// Per-code aggregates: 8 writers inserting and retracting under contention with one lock
+// stripe or the default 64, and dashboard queries against recomputing over all records
+// ./gradlew jmh -PjmhIncludes=CodeAggregatesBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodeAggregatesBenchmark {
+
+  @Param({"1", "64"})
+  int stripes;
+
+  @Param({"100000", "1000000"})
+  int records;
+
+  @Param({"16"})
+  int codes;
+
+  List<Record> dataset;
+  Record[] updates;
+  CodeAggregates aggregates;
+
+  @Setup
+  public void setUp() {
+    var random = new Random(42);
+    dataset = IntStream.range(0, records)
+        .mapToObj(i -> record("C" + random.nextInt(codes), random.nextInt(100_000) / 100.0))
+        .toList();
+    updates = IntStream.range(0, 1024)
+        .mapToObj(i -> record("C" + random.nextInt(codes), random.nextInt(100_000) / 100.0))
+        .toArray(Record[]::new);
+
+    aggregates = new CodeAggregates(stripes);
+    dataset.forEach(aggregates::insert);
+  }
+
+  @Benchmark
+  @Threads(8)
+  public void insertAndRetract() {
+    var record = updates[ThreadLocalRandom.current().nextInt(updates.length)];
+    aggregates.insert(record);
+    aggregates.retract(record);
+  }
+
+  @Benchmark
+  public Map<String, CodeAggregates.Aggregate> snapshot() {
+    return aggregates.snapshot();
+  }
+
+  @Benchmark
+  public Map<String, DoubleSummaryStatistics> recompute() {
+    return dataset.stream().collect(Collectors.groupingBy(Record::getCode, Collectors.summarizingDouble(Record::getAmount)));
+  }
+
+  private static Record record(String code, double amount) {
+    return Record.builder().name("R").code(code).amount(amount).build();
+  }
+
+}
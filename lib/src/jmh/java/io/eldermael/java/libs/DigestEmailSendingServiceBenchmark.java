@@ -0,0 +1,124 @@
+package io.eldermael.java.libs;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.vavr.control.Either;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Burst of distinct alerts spread over recipient groups, each SMTP call costs a round-trip;
+// the "smtpCalls" counter is the number of calls summed over the measured bursts
+// ./gradlew jmh -PjmhIncludes=DigestEmailSendingServiceBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DigestEmailSendingServiceBenchmark {
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class SmtpCalls {
+
+    public long smtpCalls;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      smtpCalls = 0;
+    }
+
+  }
+
+  @Param({"10000"})
+  int burst;
+
+  @Param({"20"})
+  int groups;
+
+  @Param({"100"})
+  int maxAlerts;
+
+  @Param({"200"})
+  long roundTripMicros;
+
+  final AtomicLong calls = new AtomicLong();
+
+  ListeningExecutorService executor;
+  HashedWheelTimer timer;
+  EmailSender smtp;
+
+  @Setup
+  public void start() {
+    executor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(16));
+    timer = new HashedWheelTimer(Duration.ofMillis(1), 512);
+    smtp = new EmailSender() {
+      @Override
+      protected Either<String, ProcessResult> deliver(String message) {
+        calls.incrementAndGet();
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(roundTripMicros));
+        return Either.right(ProcessResult.SUCCESS);
+      }
+    };
+  }
+
+  @TearDown
+  public void stop() {
+    timer.close();
+    executor.shutdownNow();
+  }
+
+  @Benchmark
+  public Object emailPerAlert(SmtpCalls counter) throws Exception {
+    long before = calls.get();
+    var results = new ArrayList<ListenableFuture<?>>(burst);
+    for (int i = 0; i < burst; i++) {
+      var alert = alert(i);
+      results.add(executor.submit(() -> smtp.trySendAlertEmail(alert)));
+    }
+    var done = Futures.allAsList(results).get();
+    counter.smtpCalls += calls.get() - before;
+    return done;
+  }
+
+  @Benchmark
+  public Object digest(SmtpCalls counter) throws Exception {
+    long before = calls.get();
+    var service = new DigestEmailSendingService(
+        executor, smtp, message -> ProcessResult.ERROR, timer,
+        alert -> alert.substring(0, alert.indexOf(':')), Duration.ofMillis(20), maxAlerts);
+    var results = new ArrayList<ListenableFuture<ProcessResult>>(burst);
+    for (int i = 0; i < burst; i++) {
+      results.add(service.sendEmail(alert(i)));
+    }
+    var done = Futures.allAsList(results).get();
+    counter.smtpCalls += calls.get() - before;
+    return done;
+  }
+
+  private String alert(int i) {
+    return "group-" + (i % groups) + ": alert " + i;
+  }
+
+}
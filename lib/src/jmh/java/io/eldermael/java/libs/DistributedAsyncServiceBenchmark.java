@@ -0,0 +1,75 @@
+package io.eldermael.java.libs;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Business processes per second as worker JVMs go from 1 to 4; each worker is a
+// child process spinning "workMicros" per request, so scaling needs spare cores
+// ./gradlew jmh -PjmhIncludes=DistributedAsyncServiceBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DistributedAsyncServiceBenchmark {
+
+  private static final int BURST = 2_000;
+
+  @Param({"1", "2", "4"})
+  int workers;
+
+  @Param({"200"})
+  long workMicros;
+
+  final List<BusinessProcessWorker.LocalProcess> processes = new ArrayList<>();
+  DistributedAsyncService service;
+  BusinessModel[] models;
+
+  @Setup
+  public void launchWorkers() throws Exception {
+    for (int i = 0; i < workers; i++) {
+      processes.add(BusinessProcessWorker.launch(workMicros));
+    }
+    service = new DistributedAsyncService(processes.stream().map(BusinessProcessWorker.LocalProcess::address).toList());
+    models = new BusinessModel[BURST];
+    for (int i = 0; i < BURST; i++) {
+      models[i] = new BusinessModel();
+      models[i].setData("model-" + i);
+    }
+  }
+
+  @TearDown
+  public void stopWorkers() {
+    service.close();
+    processes.forEach(BusinessProcessWorker.LocalProcess::close);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BURST)
+  public List<String> submitBurst() throws Exception {
+    var results = new ArrayList<ListenableFuture<String>>(BURST);
+    for (var model : models) {
+      results.add(service.submitBusinessProcess(model));
+    }
+    return Futures.allAsList(results).get();
+  }
+
+}
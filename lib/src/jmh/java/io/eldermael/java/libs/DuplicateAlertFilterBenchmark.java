@@ -0,0 +1,82 @@
+package io.eldermael.java.libs;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Lookup cost once 10M distinct alerts have been seen; setup prints the memory held
+// ./gradlew jmh -PjmhIncludes=DuplicateAlertFilterBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class DuplicateAlertFilterBenchmark {
+
+  private static final int PROBES = 1 << 16;
+
+  @Param({"10000000"})
+  int distinct;
+
+  @Param({"0.01", "0.001"})
+  double falsePositiveRate;
+
+  DuplicateAlertFilter filter;
+  Set<String> exact;
+  String[] seen;
+  int next;
+  long fresh;
+
+  @Setup
+  public void fill() {
+    filter = new DuplicateAlertFilter(Duration.ofDays(1), distinct, falsePositiveRate);
+    exact = ConcurrentHashMap.newKeySet(distinct);
+    for (int i = 0; i < distinct; i++) {
+      filter.isDuplicate("alert-" + i);
+      exact.add("alert-" + i);
+    }
+
+    seen = new String[PROBES];
+    for (int i = 0; i < PROBES; i++) {
+      seen[i] = "alert-" + (i * 149L % distinct);
+    }
+
+    var runtime = Runtime.getRuntime();
+    runtime.gc();
+    System.out.printf(
+        "%nfilter holds %,d bytes; heap with filter and exact set %,d bytes%n",
+        filter.memoryBytes(),
+        runtime.totalMemory() - runtime.freeMemory());
+  }
+
+  @Benchmark
+  public boolean filterRepeat() {
+    return filter.isDuplicate(seen[next++ & (PROBES - 1)]);
+  }
+
+  // includes building the new message, every call is a first sighting
+  @Benchmark
+  public boolean filterFirstSighting() {
+    return filter.isDuplicate("other-" + fresh++);
+  }
+
+  @Benchmark
+  public boolean exactSetRepeat() {
+    return !exact.add(seen[next++ & (PROBES - 1)]);
+  }
+
+}
@@ -0,0 +1,82 @@
+package io.eldermael.java.libs;
+
+import io.vavr.control.Either;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Time to clear the whole backlog, drain rate = backlog / score
+// ./gradlew jmh -PjmhIncludes=EmailRetryDrainerBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EmailRetryDrainerBenchmark {
+
+  @Param({"1000000"})
+  int backlog;
+
+  @Param({"0.0", "0.01"})
+  double failureRate;
+
+  ExecutorService senders;
+  InMemoryEmailQueue queue;
+  EmailRetryDrainer drainer;
+
+  @Setup(Level.Invocation)
+  public void fillQueue() {
+    senders = Executors.newFixedThreadPool(16);
+    queue = new InMemoryEmailQueue();
+    for (int i = 0; i < backlog; i++) {
+      queue.persistEmailForLater("Alert #" + i);
+    }
+
+    // Local stand-in that fails a share of sends at random
+    var standIn = new EmailSender() {
+      @Override
+      protected Either<String, ProcessResult> deliver(String message) {
+        return ThreadLocalRandom.current().nextDouble() < failureRate
+            ? Either.left("Throttled")
+            : Either.right(ProcessResult.SUCCESS);
+      }
+    };
+
+    drainer = new EmailRetryDrainer(
+        queue, standIn, senders, 1024, 16, Duration.ZERO, Duration.ZERO, System::nanoTime);
+  }
+
+  @TearDown(Level.Invocation)
+  public void shutdown() {
+    drainer.close();
+    senders.shutdownNow();
+  }
+
+  @Benchmark
+  public int clearBacklog() {
+    int rounds = 0;
+    while (queue.pendingCount() > 0) {
+      drainer.drainOnce();
+      rounds++;
+    }
+    return rounds;
+  }
+
+}
@@ -0,0 +1,62 @@
+package io.eldermael.java.libs;
+
+import com.google.common.base.Throwables;
+import io.vavr.control.Either;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Every send fails, as during an outage
+// ./gradlew jmh -PjmhIncludes=EmailSenderBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmailSenderBenchmark {
+
+  final EmailSender withStackTrace = new EmailSender();
+  final EmailSender stackless = EmailSender.withStacklessFailures();
+  final EmailSender preallocated = EmailSender.withPreallocatedFailures();
+
+  @Benchmark
+  public ProcessResult throwingWithStackTrace() {
+    return sendOrFallback(withStackTrace);
+  }
+
+  @Benchmark
+  public ProcessResult throwingStackless() {
+    return sendOrFallback(stackless);
+  }
+
+  @Benchmark
+  public ProcessResult throwingPreallocated() {
+    return sendOrFallback(preallocated);
+  }
+
+  @Benchmark
+  public ProcessResult nonThrowing() {
+    Either<String, ProcessResult> result = withStackTrace.trySendAlertEmail("Oopsie!");
+    return result.getOrElse(ProcessResult.ERROR);
+  }
+
+  // Same fallback check as the concurrency examples
+  private ProcessResult sendOrFallback(EmailSender sender) {
+    try {
+      sender.sendAlertEmail("Oopsie!");
+      return ProcessResult.SUCCESS;
+    } catch (RuntimeException e) {
+      return Throwables.getRootCause(e) instanceof MailException ? ProcessResult.ERROR : ProcessResult.SUCCESS;
+    }
+  }
+
+}
@@ -0,0 +1,143 @@
+package io.eldermael.java.libs;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Requests fan out to sub-processes that spin in 10us chunks, and 20% of them fail
+// part-way. The "chunks" rate divided by the request rate is the CPU spent per request:
+// without a scope, siblings of a failed sub-process run to the end
+// ./gradlew jmh -PjmhIncludes=FanOutScopeBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FanOutScopeBenchmark {
+
+  private static final long CHUNK_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class Work {
+
+    public long chunks;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      chunks = 0;
+    }
+
+  }
+
+  @Param({"8"})
+  int subProcesses;
+
+  @Param({"50"})
+  int chunksPerSubProcess;
+
+  @Param({"0.2"})
+  double failureRate;
+
+  final AtomicLong chunksDone = new AtomicLong();
+  ListeningExecutorService executor;
+
+  @Setup
+  public void start() {
+    executor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(4));
+  }
+
+  @TearDown
+  public void stop() {
+    executor.shutdownNow();
+  }
+
+  @Benchmark
+  public Object allAsList(Work work) throws InterruptedException {
+    long before = chunksDone.get();
+    var forked = new ArrayList<ListenableFuture<String>>();
+    for (int i = 0; i < subProcesses; i++) {
+      forked.add(executor.submit(this::subProcess));
+    }
+    var result = await(Futures.allAsList(forked));
+    // siblings of a failure keep running; let them finish so the backlog cannot grow
+    awaitQuietly(Futures.successfulAsList(forked));
+    work.chunks += chunksDone.get() - before;
+    return result;
+  }
+
+  @Benchmark
+  public Object fanOutScope(Work work) throws InterruptedException {
+    long before = chunksDone.get();
+    Object result;
+    try (var scope = FanOutScope.<String>joinAll()) {
+      for (int i = 0; i < subProcesses; i++) {
+        scope.fork(() -> executor.submit(this::subProcess));
+      }
+      result = await(scope.join());
+    }
+    // cancelled sub-processes stop at their next chunk, whatever they still do is
+    // counted by the next request
+    work.chunks += chunksDone.get() - before;
+    return result;
+  }
+
+  private String subProcess() {
+    var random = ThreadLocalRandom.current();
+    int failAt = random.nextDouble() < failureRate ? random.nextInt(chunksPerSubProcess) : -1;
+    for (int chunk = 0; chunk < chunksPerSubProcess; chunk++) {
+      if (Thread.currentThread().isInterrupted()) {
+        return "cancelled";
+      }
+      if (chunk == failAt) {
+        throw new IllegalStateException("Sub-process failed at chunk " + chunk);
+      }
+      long until = System.nanoTime() + CHUNK_NANOS;
+      while (System.nanoTime() - until < 0) {
+        Thread.onSpinWait();
+      }
+      chunksDone.incrementAndGet();
+    }
+    return "done";
+  }
+
+  private static Object await(ListenableFuture<?> future) throws InterruptedException {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      return e.getCause();
+    }
+  }
+
+  private static void awaitQuietly(ListenableFuture<?> future) throws InterruptedException {
+    try {
+      future.get();
+    } catch (ExecutionException e) {
+      // only waiting for the work to settle
+    }
+  }
+
+}
@@ -0,0 +1,101 @@
+package io.eldermael.java.libs;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+// Allocation per conversion is reported with the GC profiler (-prof gc),
+// executor hops per conversion by the "hops" counter
+// ./gradlew jmh -PjmhIncludes=FutureAdaptersBenchmark
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FutureAdaptersBenchmark {
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Hops {
+
+    public long hops;
+
+    // Runs inline so only the hand-offs are measured, not thread scheduling
+    final Executor countingExecutor = task -> {
+      hops++;
+      task.run();
+    };
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      hops = 0;
+    }
+
+  }
+
+  // Bridge from HowItLookedLikeWithCompletableFuture.guavaFutureExample
+  @Benchmark
+  public Object settableFutureWithListener(Hops hops) {
+    SettableFuture<Integer> source = SettableFuture.create();
+    SettableFuture<Integer> target = SettableFuture.create();
+    source.addListener(() -> {
+      try {
+        target.set(source.get());
+      } catch (InterruptedException | ExecutionException e) {
+        target.setException(e);
+      }
+    }, hops.countingExecutor);
+    source.set(0);
+    return target;
+  }
+
+  @Benchmark
+  public Object completableFutureFromListenableFuture(Hops hops) {
+    SettableFuture<Integer> source = SettableFuture.create();
+    var target = FutureAdapters.toCompletableFuture(source);
+    source.set(0);
+    return target;
+  }
+
+  @Benchmark
+  public Object listenableFutureFromCompletableFuture(Hops hops) {
+    var source = new CompletableFuture<Integer>();
+    ListenableFuture<Integer> target = FutureAdapters.toListenableFuture(source);
+    source.complete(0);
+    return target;
+  }
+
+  @Benchmark
+  public Object vavrFutureFromCompletableFuture(Hops hops) {
+    var source = new CompletableFuture<Integer>();
+    var target = FutureAdapters.toVavrFuture(source);
+    source.complete(0);
+    return target;
+  }
+
+  @Benchmark
+  public Object vavrFromCompletableFutureBuiltIn(Hops hops) {
+    var source = new CompletableFuture<Integer>();
+    var target = io.vavr.concurrent.Future.fromCompletableFuture(hops.countingExecutor, source);
+    source.complete(0);
+    return target;
+  }
+
+}
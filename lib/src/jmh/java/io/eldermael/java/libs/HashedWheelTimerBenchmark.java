@@ -0,0 +1,66 @@
+package io.eldermael.java.libs;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// Put 1M futures under a deadline, then complete them all so every timeout is cancelled
+// ./gradlew jmh -PjmhIncludes=HashedWheelTimerBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class HashedWheelTimerBenchmark {
+
+  @Param({"1000000"})
+  int pending;
+
+  HashedWheelTimer timer;
+
+  @Setup
+  public void startTimer() {
+    timer = new HashedWheelTimer();
+  }
+
+  @TearDown
+  public void stopTimer() {
+    timer.close();
+  }
+
+  @Benchmark
+  public int hashedWheelTimer() {
+    var futures = new ArrayList<CompletableFuture<ProcessResult>>(pending);
+    for (int i = 0; i < pending; i++) {
+      futures.add(timer.orTimeout(new CompletableFuture<>(), Duration.ofMinutes(1)));
+    }
+    futures.forEach(future -> future.complete(ProcessResult.SUCCESS));
+    return futures.size();
+  }
+
+  @Benchmark
+  public int completableFutureOrTimeout() {
+    var futures = new ArrayList<CompletableFuture<ProcessResult>>(pending);
+    for (int i = 0; i < pending; i++) {
+      futures.add(new CompletableFuture<ProcessResult>().orTimeout(1, TimeUnit.MINUTES));
+    }
+    futures.forEach(future -> future.complete(ProcessResult.SUCCESS));
+    return futures.size();
+  }
+
+}
@@ -0,0 +1,80 @@
+package io.eldermael.java.libs;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Tasks are trivial on purpose so the per-task bookkeeping is what gets measured
+// ./gradlew jmh -PjmhIncludes=InstrumentedExecutorServiceBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InstrumentedExecutorServiceBenchmark {
+
+  @Param({"direct", "fixed"})
+  String pool;
+
+  ListeningExecutorService plain;
+  ListeningExecutorService instrumented;
+
+  @Setup
+  public void setUp() {
+    plain = create();
+    instrumented = new InstrumentedExecutorService(create());
+  }
+
+  @TearDown
+  public void tearDown() {
+    plain.shutdownNow();
+    instrumented.shutdownNow();
+  }
+
+  @Benchmark
+  public int undecorated() throws ExecutionException, InterruptedException {
+    return submitBatch(plain);
+  }
+
+  @Benchmark
+  public int decorated() throws ExecutionException, InterruptedException {
+    return submitBatch(instrumented);
+  }
+
+  private int submitBatch(ListeningExecutorService executor) throws ExecutionException, InterruptedException {
+    var futures = new ArrayList<ListenableFuture<Integer>>(100);
+    for (int i = 0; i < 100; i++) {
+      futures.add(executor.submit(MockProcesses::successfulProcess));
+    }
+    int sum = 0;
+    for (var future : futures) {
+      sum += future.get();
+    }
+    return sum;
+  }
+
+  private ListeningExecutorService create() {
+    return pool.equals("direct")
+        ? MoreExecutors.newDirectExecutorService()
+        : MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(3));
+  }
+
+}
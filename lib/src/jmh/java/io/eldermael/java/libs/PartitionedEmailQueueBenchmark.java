@@ -0,0 +1,111 @@
+package io.eldermael.java.libs;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// persistEmailForLater throughput as producer threads go from 1 to 64, against the
+// single-lock InMemoryEmailQueue; partitions are drained by no-op consumers
+// ./gradlew jmh -PjmhIncludes=PartitionedEmailQueueBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PartitionedEmailQueueBenchmark {
+
+  private static final String[] MESSAGES = new String[1024];
+
+  static {
+    for (int i = 0; i < MESSAGES.length; i++) {
+      MESSAGES[i] = "user" + i + ": disk full";
+    }
+  }
+
+  @Param({"16"})
+  int partitions;
+
+  PartitionedEmailQueue partitioned;
+  InMemoryEmailQueue single;
+
+  @Setup(Level.Iteration)
+  public void create() {
+    partitioned = new PartitionedEmailQueue(partitions, message -> message.substring(0, message.indexOf(':')), message -> {
+    });
+    partitioned.start();
+    single = new InMemoryEmailQueue();
+  }
+
+  @TearDown(Level.Iteration)
+  public void close() {
+    partitioned.close();
+  }
+
+  @Benchmark
+  @Threads(1)
+  public ProcessResult partitioned01() {
+    return partitioned.persistEmailForLater(message());
+  }
+
+  @Benchmark
+  @Threads(4)
+  public ProcessResult partitioned04() {
+    return partitioned.persistEmailForLater(message());
+  }
+
+  @Benchmark
+  @Threads(16)
+  public ProcessResult partitioned16() {
+    return partitioned.persistEmailForLater(message());
+  }
+
+  @Benchmark
+  @Threads(64)
+  public ProcessResult partitioned64() {
+    return partitioned.persistEmailForLater(message());
+  }
+
+  @Benchmark
+  @Threads(1)
+  public ProcessResult singleLock01() {
+    return single.persistEmailForLater(message());
+  }
+
+  @Benchmark
+  @Threads(4)
+  public ProcessResult singleLock04() {
+    return single.persistEmailForLater(message());
+  }
+
+  @Benchmark
+  @Threads(16)
+  public ProcessResult singleLock16() {
+    return single.persistEmailForLater(message());
+  }
+
+  @Benchmark
+  @Threads(64)
+  public ProcessResult singleLock64() {
+    return single.persistEmailForLater(message());
+  }
+
+  private static String message() {
+    return MESSAGES[ThreadLocalRandom.current().nextInt(MESSAGES.length)];
+  }
+
+}
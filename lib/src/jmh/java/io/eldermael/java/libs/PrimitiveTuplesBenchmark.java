@@ -0,0 +1,80 @@
+package io.eldermael.java.libs;
+
+import io.vavr.Tuple;
+import io.vavr.Tuple2;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// ./gradlew jmh -PjmhIncludes=PrimitiveTuplesBenchmark
+// Run with the GC profiler (-prof gc) to compare bytes allocated per operation
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrimitiveTuplesBenchmark {
+
+  @Param({"100000"})
+  int size;
+
+  String[] codes;
+  double[] amounts;
+  List<Tuple2<String, Double>> boxed;
+  ObjDoubleTupleList<String> flat;
+
+  @Setup
+  public void setUp() {
+    codes = IntStream.range(0, size).mapToObj(i -> "C" + (i % 100)).toArray(String[]::new);
+    amounts = IntStream.range(0, size).mapToDouble(i -> i * 0.5).toArray();
+    boxed = buildBoxed();
+    flat = buildFlat();
+  }
+
+  @Benchmark
+  public List<Tuple2<String, Double>> buildBoxed() {
+    var list = new ArrayList<Tuple2<String, Double>>();
+    for (int i = 0; i < size; i++) {
+      list.add(Tuple.of(codes[i], amounts[i]));
+    }
+    return list;
+  }
+
+  @Benchmark
+  public ObjDoubleTupleList<String> buildFlat() {
+    var list = new ObjDoubleTupleList<String>();
+    for (int i = 0; i < size; i++) {
+      list.add(codes[i], amounts[i]);
+    }
+    return list;
+  }
+
+  @Benchmark
+  public double sumBoxed() {
+    double sum = 0;
+    for (var tuple : boxed) {
+      sum += tuple._2;
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public double sumFlat() {
+    return flat.sumOfSeconds();
+  }
+
+}
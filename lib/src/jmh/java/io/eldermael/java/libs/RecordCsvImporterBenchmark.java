@@ -0,0 +1,111 @@
+package io.eldermael.java.libs;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Import a CSV export of Records: byte-level parallel importer against BufferedReader plus
+// split, printing the heap each approach retains for the imported list
+// ./gradlew jmh -PjmhIncludes=RecordCsvImporterBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class RecordCsvImporterBenchmark {
+
+  @Param({"10000000"})
+  int rows;
+
+  Path file;
+
+  @Setup
+  public void writeFile() throws IOException {
+    var random = new Random(42);
+    var names = List.of("XLD", "SLD", "ALD", "ZLD", "BLD", "CLD", "DLD", "ELD");
+    var codes = List.of("SSS", "SSA", "SDB", "SCD");
+    file = Files.createTempFile("records", ".csv");
+    try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+      for (int i = 0; i < rows; i++) {
+        var name = names.get(random.nextInt(names.size()));
+        writer.write(name + "," + codes.get(random.nextInt(codes.size())) + ","
+            + random.nextInt(100_000) / 100.0 + ",Amount for " + name + "\n");
+      }
+    }
+
+    System.out.printf("%nretained heap: importer %d MB, BufferedReader plus split %d MB%n",
+        retainedBytes(this::importOrdered) >> 20,
+        retainedBytes(this::bufferedReaderSplit) >> 20);
+  }
+
+  @TearDown
+  public void deleteFile() throws IOException {
+    Files.deleteIfExists(file);
+  }
+
+  @Benchmark
+  public List<Record> importOrdered() {
+    return RecordCsvImporter.create().importAll(file);
+  }
+
+  @Benchmark
+  public long importUnorderedToSink() {
+    var imported = new AtomicLong();
+    RecordCsvImporter.create().importTo(file, chunk -> imported.addAndGet(chunk.size()), false);
+    return imported.get();
+  }
+
+  @Benchmark
+  public List<Record> bufferedReaderSplit() {
+    var records = new ArrayList<Record>();
+    try (var reader = Files.newBufferedReader(file)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        var fields = line.split(",");
+        records.add(Record.builder()
+            .name(fields[0])
+            .code(fields[1])
+            .amount(fields[2].isEmpty() ? null : Double.parseDouble(fields[2]))
+            .description(fields[3])
+            .build());
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return records;
+  }
+
+  private static long retainedBytes(Supplier<List<Record>> load) {
+    var memory = ManagementFactory.getMemoryMXBean();
+    System.gc();
+    long before = memory.getHeapMemoryUsage().getUsed();
+    var records = load.get();
+    System.gc();
+    long retained = memory.getHeapMemoryUsage().getUsed() - before;
+    return records.isEmpty() ? 0 : retained;
+  }
+
+}
@@ -0,0 +1,94 @@
+package io.eldermael.java.libs;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// Inner join of two Record feeds on code: hash join in memory, grace hash join spilling
+// to disk with an eighth of the memory it needs, and a groupingBy map of lists
+// ./gradlew jmh -PjmhIncludes=RecordJoinBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class RecordJoinBenchmark {
+
+  @Param({"10000000"})
+  int size;
+
+  List<Record> left;
+  List<Record> right;
+  RecordJoin inMemory;
+  RecordJoin spilling;
+  Path spillDirectory;
+
+  @Setup
+  public void setUp() throws IOException {
+    left = records(size, new Random(1));
+    right = records(size, new Random(2));
+    spillDirectory = Files.createTempDirectory("join-bench");
+    inMemory = RecordJoin.on(Record::getCode);
+    spilling = inMemory.spillingOver(size * RecordJoin.ESTIMATED_BYTES_PER_BUILD_ROW / 8, spillDirectory);
+
+    System.out.printf(
+        "%nhash table for %d build rows: %d MB, %d spill partitions%n",
+        size,
+        RecordJoin.tableBytes(size) >> 20,
+        spilling.partitionsFor(size));
+  }
+
+  @TearDown
+  public void removeSpillDirectory() throws IOException {
+    Files.deleteIfExists(spillDirectory);
+  }
+
+  @Benchmark
+  public long hashJoin() {
+    return inMemory.count(left, right, RecordJoin.Type.INNER);
+  }
+
+  @Benchmark
+  public long graceHashJoin() {
+    return spilling.count(left, right, RecordJoin.Type.INNER);
+  }
+
+  @Benchmark
+  public long groupingBy() {
+    var byCode = right.stream().collect(Collectors.groupingBy(Record::getCode));
+    return left.parallelStream()
+        .mapToLong(record -> byCode.getOrDefault(record.getCode(), List.of()).size())
+        .sum();
+  }
+
+  // Roughly one match per row: codes drawn from as many values as there are rows
+  private static List<Record> records(int size, Random random) {
+    return IntStream.range(0, size)
+        .mapToObj(i -> Record.builder()
+            .name("R" + i)
+            .code("C" + random.nextInt(size))
+            .amount(1.0)
+            .build())
+        .toList();
+  }
+
+}
@@ -0,0 +1,85 @@
+package io.eldermael.java.libs;
+
+import org.hamcrest.Matcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+import static ch.lambdaj.Lambda.filter;
+import static ch.lambdaj.Lambda.having;
+import static ch.lambdaj.Lambda.on;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
+
+// ./gradlew jmh -PjmhIncludes=RecordQueryBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-opens=java.base/java.lang=ALL-UNNAMED")
+public class RecordQueryBenchmark {
+
+  @Param({"10000"})
+  int size;
+
+  List<Record> records;
+  Predicate<Record> handwritten;
+  Predicate<Record> compiled;
+  Matcher<Record> lambdaJ;
+
+  @Setup
+  public void setUp() {
+    var random = new Random(42);
+    var codes = List.of("SSS", "SSA", "SDB", "SCD");
+    records = IntStream.range(0, size)
+        .mapToObj(i -> Record.builder()
+            .name("N" + i)
+            .code(codes.get(random.nextInt(codes.size())))
+            .amount(random.nextDouble() * 200)
+            .build())
+        .toList();
+
+    handwritten = r -> r.getCode().contains("SS") && r.getAmount() > 100;
+    compiled = RecordQuery.compile("code contains SS and amount > 100");
+    lambdaJ = allOf(
+        having(on(Record.class).getCode(), containsString("SS")),
+        having(on(Record.class).getAmount(), greaterThan(100.0)));
+  }
+
+  @Benchmark
+  public List<Record> handwrittenLambda() {
+    return records.stream().filter(handwritten).toList();
+  }
+
+  @Benchmark
+  public List<Record> compiledQuery() {
+    return records.stream().filter(compiled).toList();
+  }
+
+  @Benchmark
+  public List<Record> compiledQueryCacheLookup() {
+    return RecordQuery.filter("code contains SS and amount > 100", records);
+  }
+
+  @Benchmark
+  public List<Record> lambdaJHaving() {
+    return filter(lambdaJ, records);
+  }
+
+}
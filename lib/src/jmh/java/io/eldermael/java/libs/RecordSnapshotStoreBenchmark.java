@@ -0,0 +1,74 @@
+package io.eldermael.java.libs;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// ./gradlew jmh -PjmhIncludes=RecordSnapshotStoreBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecordSnapshotStoreBenchmark {
+
+  @Param({"1000000"})
+  int size;
+
+  @Param({"1", "100"})
+  int batch;
+
+  List<Record> initial;
+  List<Record> updates;
+  RecordSnapshotStore store;
+  CopyOnWriteArrayList<Record> copyOnWrite;
+
+  @Setup(Level.Trial)
+  public void createData() {
+    initial = IntStream.range(0, size)
+        .mapToObj(i -> Record.builder().code("C" + (i % 1000)).amount((double) i).build())
+        .toList();
+    updates = IntStream.range(0, batch)
+        .mapToObj(i -> Record.builder().code("U").amount((double) i).build())
+        .toList();
+  }
+
+  // Both sides start every iteration from the same 1M records
+  @Setup(Level.Iteration)
+  public void reset() {
+    store = new RecordSnapshotStore();
+    store.appendAll(initial);
+    copyOnWrite = new CopyOnWriteArrayList<>(initial);
+  }
+
+  @Benchmark
+  public RecordSnapshotStore.Snapshot snapshotStoreUpdate() {
+    return store.appendAll(updates);
+  }
+
+  @Benchmark
+  public boolean copyOnWriteArrayListUpdate() {
+    return copyOnWrite.addAll(updates);
+  }
+
+  @Benchmark
+  public int snapshotStoreRead() {
+    return store.snapshot().size();
+  }
+
+}
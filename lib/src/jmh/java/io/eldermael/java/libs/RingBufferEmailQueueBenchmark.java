@@ -0,0 +1,105 @@
+package io.eldermael.java.libs;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+// Three producers persist while one consumer drains; sample mode reports the
+// latency percentiles of each persist and drain, throughput mode the rates.
+// Bounded queues count rejected persists too, so compare with the drain rate
+// ./gradlew jmh -PjmhIncludes=RingBufferEmailQueueBenchmark
+@State(Scope.Group)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RingBufferEmailQueueBenchmark {
+
+  private static final String MESSAGE = "disk full on db-1";
+
+  @Param({"4096"})
+  int capacity;
+
+  RingBufferEmailQueue ring;
+  ArrayBlockingQueue<String> arrayBlocking;
+  Queue<String> concurrentLinked;
+
+  @Setup(Level.Iteration)
+  public void create() {
+    ring = new RingBufferEmailQueue(capacity, RingBufferEmailQueue.WaitStrategy.BUSY_SPIN);
+    arrayBlocking = new ArrayBlockingQueue<>(capacity);
+    concurrentLinked = new ConcurrentLinkedQueue<>();
+  }
+
+  @Benchmark
+  @Group("ringBuffer")
+  @GroupThreads(3)
+  public ProcessResult ringBufferPersist() {
+    return ring.persistEmailForLater(MESSAGE);
+  }
+
+  @Benchmark
+  @Group("ringBuffer")
+  @GroupThreads(1)
+  public int ringBufferDrain(Blackhole blackhole) {
+    return ring.drain(blackhole::consume, 64);
+  }
+
+  @Benchmark
+  @Group("arrayBlockingQueue")
+  @GroupThreads(3)
+  public boolean arrayBlockingQueuePersist() {
+    return arrayBlocking.offer(MESSAGE);
+  }
+
+  @Benchmark
+  @Group("arrayBlockingQueue")
+  @GroupThreads(1)
+  public int arrayBlockingQueueDrain(Blackhole blackhole) {
+    return drain(arrayBlocking, blackhole);
+  }
+
+  // Unbounded, so it never rejects but grows when the consumer falls behind
+  @Benchmark
+  @Group("concurrentLinkedQueue")
+  @GroupThreads(3)
+  public boolean concurrentLinkedQueuePersist() {
+    return concurrentLinked.offer(MESSAGE);
+  }
+
+  @Benchmark
+  @Group("concurrentLinkedQueue")
+  @GroupThreads(1)
+  public int concurrentLinkedQueueDrain(Blackhole blackhole) {
+    return drain(concurrentLinked, blackhole);
+  }
+
+  private static int drain(Queue<String> queue, Blackhole blackhole) {
+    int drained = 0;
+    String message;
+    while (drained < 64 && (message = queue.poll()) != null) {
+      blackhole.consume(message);
+      drained++;
+    }
+    return drained;
+  }
+
+}
@@ -0,0 +1,115 @@
+package io.eldermael.java.libs;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Time to first result: launch a JVM running Main until it has printed and exited.
+// "appCds" uses an archive dumped in setup, like ./gradlew cdsArchive does
+// ./gradlew jmh -PjmhIncludes=StartupBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 20)
+@Fork(1)
+public class StartupBenchmark {
+
+  private static final String QUERY = "code contains SS and amount > 100";
+
+  @Param({"plain", "appCds", "appCdsC1"})
+  String jvm;
+
+  List<String> command;
+
+  @Setup
+  public void prepare() throws IOException, InterruptedException {
+    var work = Files.createTempDirectory("startup");
+    var classpath = jarClasspath(work);
+    var java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    var archive = work.resolve("main.jsa").toString();
+
+    if (!jvm.equals("plain")) {
+      run(List.of(java, "-XX:ArchiveClassesAtExit=" + archive, "-cp", classpath,
+          Main.class.getName(), "--warm-up=200", "query", QUERY));
+    }
+
+    command = new ArrayList<>(List.of(java));
+    switch (jvm) {
+      case "appCds" -> command.add("-XX:SharedArchiveFile=" + archive);
+      case "appCdsC1" -> command.addAll(List.of("-XX:SharedArchiveFile=" + archive, "-XX:TieredStopAtLevel=1"));
+      default -> {
+      }
+    }
+    command.addAll(List.of("-cp", classpath, Main.class.getName(), "query", QUERY));
+  }
+
+  @Benchmark
+  public int timeToFirstResult() throws IOException, InterruptedException {
+    return run(command);
+  }
+
+  private static int run(List<String> command) throws IOException, InterruptedException {
+    var process = new ProcessBuilder(command)
+        .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+        .redirectError(ProcessBuilder.Redirect.INHERIT)
+        .start();
+    int exit = process.waitFor();
+    if (exit != Main.OK) {
+      throw new IllegalStateException("Main exited with " + exit);
+    }
+    return exit;
+  }
+
+  // CDS only archives classes loaded from jars, so class directories are packed first
+  private static String jarClasspath(Path work) throws IOException {
+    var entries = new ArrayList<String>();
+    for (var entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+      var path = Path.of(entry);
+      if (Files.isDirectory(path)) {
+        var jar = work.resolve("classes-" + entries.size() + ".jar");
+        pack(path, jar);
+        entries.add(jar.toString());
+      } else {
+        entries.add(entry);
+      }
+    }
+    return String.join(File.pathSeparator, entries);
+  }
+
+  private static void pack(Path directory, Path jar) throws IOException {
+    List<Path> files;
+    try (Stream<Path> walk = Files.walk(directory)) {
+      files = walk.filter(Files::isRegularFile).collect(Collectors.toList());
+    }
+    try (OutputStream out = Files.newOutputStream(jar); var jarOut = new JarOutputStream(out)) {
+      for (var file : files) {
+        jarOut.putNextEntry(new JarEntry(directory.relativize(file).toString().replace(File.separatorChar, '/')));
+        Files.copy(file, jarOut);
+        jarOut.closeEntry();
+      }
+    }
+  }
+
+}
@@ -0,0 +1,57 @@
+package io.eldermael.java.libs;
+
+import com.google.common.util.concurrent.RateLimiter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static io.eldermael.java.libs.TokenBucketRateLimiter.Quota.perMinute;
+import static io.eldermael.java.libs.TokenBucketRateLimiter.Quota.perSecond;
+
+// tryAcquire from 32 threads: "permitsPerSecond" low means most calls are refused,
+// high means most succeed and every call updates the shared state
+// ./gradlew jmh -PjmhIncludes=TokenBucketRateLimiterBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(32)
+@Fork(1)
+public class TokenBucketRateLimiterBenchmark {
+
+  @Param({"1000", "1000000000"})
+  long permitsPerSecond;
+
+  TokenBucketRateLimiter tokenBuckets;
+  RateLimiter guava;
+
+  @Setup
+  public void create() {
+    tokenBuckets = new TokenBucketRateLimiter(perSecond(permitsPerSecond), perMinute(permitsPerSecond * 60));
+    guava = RateLimiter.create(permitsPerSecond);
+  }
+
+  @Benchmark
+  public boolean tokenBuckets() {
+    return tokenBuckets.tryAcquire();
+  }
+
+  // Only enforces the per-second quota, under a lock
+  @Benchmark
+  public boolean guavaRateLimiter() {
+    return guava.tryAcquire();
+  }
+
+}
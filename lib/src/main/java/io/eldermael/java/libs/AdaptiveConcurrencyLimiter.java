@@ -0,0 +1,127 @@
+package io.eldermael.java.libs;
+
+import com.google.common.base.Preconditions;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit that follows the measured round-trip time, in the style of TCP Vegas.
+ * <p>
+ * The lowest RTT seen approximates the unloaded latency. Each sample estimates how
+ * many calls are queueing at the server as {@code limit * (1 - minRtt / rtt)}: with
+ * fewer than {@code alpha} queued calls the limit grows by one, with more than
+ * {@code beta} it shrinks by one, and a failed call cuts it by 10%. The minimum RTT
+ * is re-probed once a minute so the limit can follow a server whose baseline
+ * latency changes.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+  private static final long PROBE_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition released = lock.newCondition();
+
+  private double limit;
+  private int inFlight;
+  private long minRttNanos;
+  private long minRttProbedAt;
+
+  public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+    Preconditions.checkArgument(
+        0 < minLimit && minLimit <= initialLimit && initialLimit <= maxLimit,
+        "Expected 0 < min (%s) <= initial (%s) <= max (%s)",
+        minLimit,
+        initialLimit,
+        maxLimit);
+    this.limit = initialLimit;
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+  }
+
+  /**
+   * Takes a slot, waiting at most {@code maxWait} for one to be released.
+   */
+  public boolean tryAcquire(Duration maxWait) throws InterruptedException {
+    long remaining = maxWait.toNanos();
+    lock.lock();
+    try {
+      while (inFlight >= (int) limit) {
+        if (remaining <= 0) {
+          return false;
+        }
+        remaining = released.awaitNanos(remaining);
+      }
+      inFlight++;
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Frees a slot taken with {@link #tryAcquire} and feeds the call's outcome into the limit.
+   */
+  public void release(long rttNanos, boolean failed) {
+    lock.lock();
+    try {
+      int inFlightAtCompletion = inFlight;
+      inFlight--;
+      sample(rttNanos, inFlightAtCompletion, failed);
+      released.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int limit() {
+    lock.lock();
+    try {
+      return (int) limit;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int inFlight() {
+    lock.lock();
+    try {
+      return inFlight;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void sample(long rttNanos, int inFlightAtCompletion, boolean failed) {
+    if (failed) {
+      limit = Math.max(minLimit, limit * 0.9);
+      return;
+    }
+
+    long now = System.nanoTime();
+    if (minRttNanos == 0 || rttNanos < minRttNanos || now - minRttProbedAt > PROBE_INTERVAL_NANOS) {
+      minRttNanos = Math.max(1, rttNanos);
+      minRttProbedAt = now;
+    }
+
+    // Callers are not using the current limit, no evidence to grow it
+    if (inFlightAtCompletion * 2 < limit) {
+      return;
+    }
+
+    double queued = limit * (1 - (double) minRttNanos / Math.max(rttNanos, minRttNanos));
+    double alpha = Math.max(1, 3 * Math.log10(limit));
+    double beta = Math.max(2, 6 * Math.log10(limit));
+
+    if (queued < alpha) {
+      limit = Math.min(maxLimit, limit + 1);
+    } else if (queued > beta) {
+      limit = Math.max(minLimit, limit - 1);
+    }
+  }
+
+}
@@ -0,0 +1,46 @@
+package io.eldermael.java.libs;
+
+import java.time.Duration;
+
+/**
+ * Sends alerts through {@link EmailSender} under an {@link AdaptiveConcurrencyLimiter}.
+ * <p>
+ * When no slot frees up within {@code maxWait}, or the send fails, the message is
+ * persisted to the {@link EmailQueue} instead, as in the fallback examples.
+ */
+public class AdaptiveEmailSender {
+
+  private final EmailSender sender;
+  private final EmailQueue fallback;
+  private final AdaptiveConcurrencyLimiter limiter;
+  private final Duration maxWait;
+
+  public AdaptiveEmailSender(EmailSender sender, EmailQueue fallback, AdaptiveConcurrencyLimiter limiter, Duration maxWait) {
+    this.sender = sender;
+    this.fallback = EmailQueue.recordingEvents(fallback);
+    this.limiter = limiter;
+    this.maxWait = maxWait;
+  }
+
+  public ProcessResult sendAlertEmail(String message) {
+    try {
+      if (!limiter.tryAcquire(maxWait)) {
+        return fallback.persistEmailForLater(message);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return fallback.persistEmailForLater(message);
+    }
+
+    long start = System.nanoTime();
+    boolean failed = true;
+    try {
+      failed = sender.trySendAlertEmail(message).isLeft();
+    } finally {
+      limiter.release(System.nanoTime() - start, failed);
+    }
+
+    return failed ? fallback.persistEmailForLater(message) : ProcessResult.SUCCESS;
+  }
+
+}
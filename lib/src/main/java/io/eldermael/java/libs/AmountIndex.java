@@ -0,0 +1,242 @@
+package io.eldermael.java.libs;
+
+import com.google.common.base.Preconditions;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.IntStream;
+
+/**
+ * Sorted secondary index on {@link Record#getAmount()}.
+ * <p>
+ * Amounts are kept in ascending order in a {@code double[]} next to an
+ * {@code int[]} of row numbers, built once with a parallel merge sort. Range
+ * bounds are found by binary search and top-K and percentiles by position, so each
+ * query is O(log n) and returns a view that reads the records as it is iterated.
+ * Records without an amount, or with NaN, are left out of the index. The index is
+ * a snapshot: records added to the list later are not seen.
+ */
+public final class AmountIndex {
+
+  private static final int SEQUENTIAL_THRESHOLD = 1 << 13;
+  private static final int INSERTION_THRESHOLD = 32;
+
+  private final Record[] records;
+  private final double[] keys;
+  private final int[] rows;
+
+  private AmountIndex(Record[] records, double[] keys, int[] rows) {
+    this.records = records;
+    this.keys = keys;
+    this.rows = rows;
+  }
+
+  public static AmountIndex build(List<Record> records) {
+    var snapshot = records.toArray(Record[]::new);
+    var indexed = IntStream.range(0, snapshot.length)
+        .parallel()
+        .filter(row -> snapshot[row].getAmount() != null && !snapshot[row].getAmount().isNaN())
+        .toArray();
+
+    var keys = new double[indexed.length];
+    IntStream.range(0, indexed.length)
+        .parallel()
+        .forEach(i -> keys[i] = snapshot[indexed[i]].getAmount());
+
+    ForkJoinPool.commonPool().invoke(new Sort(
+        keys, indexed, new double[keys.length], new int[indexed.length], 0, keys.length));
+    return new AmountIndex(snapshot, keys, indexed);
+  }
+
+  /**
+   * Indexed records, i.e. those with an amount.
+   */
+  public int size() {
+    return keys.length;
+  }
+
+  /**
+   * Records with {@code from <= amount <= to}, in ascending amount order.
+   */
+  public List<Record> range(double from, double to) {
+    int start = lowerBound(from);
+    int end = Math.max(start, upperBound(to));
+    return new View(start, end, false);
+  }
+
+  public int countInRange(double from, double to) {
+    return Math.max(0, upperBound(to) - lowerBound(from));
+  }
+
+  /**
+   * The {@code k} records with the highest amounts, highest first.
+   */
+  public List<Record> topK(int k) {
+    Preconditions.checkArgument(k >= 0, "K must not be negative, you passed: %s", k);
+    return new View(Math.max(0, keys.length - k), keys.length, true);
+  }
+
+  /**
+   * The {@code k} records with the lowest amounts, lowest first.
+   */
+  public List<Record> bottomK(int k) {
+    Preconditions.checkArgument(k >= 0, "K must not be negative, you passed: %s", k);
+    return new View(0, Math.min(k, keys.length), false);
+  }
+
+  /**
+   * Nearest-rank percentile of the amounts, {@code percentile} between 0 and 100.
+   */
+  public double percentile(double percentile) {
+    Preconditions.checkArgument(
+        0 <= percentile && percentile <= 100,
+        "Percentile must be between 0 and 100, you passed: %s",
+        percentile);
+    Preconditions.checkState(keys.length > 0, "No amounts are indexed");
+    int rank = (int) Math.ceil(percentile / 100 * keys.length);
+    return keys[Math.max(0, rank - 1)];
+  }
+
+  // first position with keys[i] >= amount
+  private int lowerBound(double amount) {
+    int low = 0;
+    int high = keys.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (keys[middle] < amount) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  // first position with keys[i] > amount
+  private int upperBound(double amount) {
+    int low = 0;
+    int high = keys.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (keys[middle] <= amount) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private final class View extends AbstractList<Record> implements RandomAccess {
+
+    private final int start;
+    private final int end;
+    private final boolean descending;
+
+    View(int start, int end, boolean descending) {
+      this.start = start;
+      this.end = end;
+      this.descending = descending;
+    }
+
+    @Override
+    public Record get(int index) {
+      Preconditions.checkElementIndex(index, size());
+      return records[rows[descending ? end - 1 - index : start + index]];
+    }
+
+    @Override
+    public int size() {
+      return end - start;
+    }
+
+  }
+
+  /**
+   * Stable merge sort of keys carrying their rows along, forking halves above the
+   * sequential threshold.
+   */
+  private static final class Sort extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final double[] keys;
+    private final int[] rows;
+    private final double[] keyBuffer;
+    private final int[] rowBuffer;
+    private final int from;
+    private final int to;
+
+    Sort(double[] keys, int[] rows, double[] keyBuffer, int[] rowBuffer, int from, int to) {
+      this.keys = keys;
+      this.rows = rows;
+      this.keyBuffer = keyBuffer;
+      this.rowBuffer = rowBuffer;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= SEQUENTIAL_THRESHOLD) {
+        sort(from, to);
+        return;
+      }
+      int middle = (from + to) >>> 1;
+      invokeAll(
+          new Sort(keys, rows, keyBuffer, rowBuffer, from, middle),
+          new Sort(keys, rows, keyBuffer, rowBuffer, middle, to));
+      merge(from, middle, to);
+    }
+
+    private void sort(int low, int high) {
+      if (high - low <= INSERTION_THRESHOLD) {
+        insertionSort(low, high);
+        return;
+      }
+      int middle = (low + high) >>> 1;
+      sort(low, middle);
+      sort(middle, high);
+      merge(low, middle, high);
+    }
+
+    private void insertionSort(int low, int high) {
+      for (int i = low + 1; i < high; i++) {
+        double key = keys[i];
+        int row = rows[i];
+        int j = i - 1;
+        while (j >= low && keys[j] > key) {
+          keys[j + 1] = keys[j];
+          rows[j + 1] = rows[j];
+          j--;
+        }
+        keys[j + 1] = key;
+        rows[j + 1] = row;
+      }
+    }
+
+    private void merge(int low, int middle, int high) {
+      if (keys[middle - 1] <= keys[middle]) {
+        return;
+      }
+      System.arraycopy(keys, low, keyBuffer, low, high - low);
+      System.arraycopy(rows, low, rowBuffer, low, high - low);
+      int left = low;
+      int right = middle;
+      for (int i = low; i < high; i++) {
+        if (right >= high || (left < middle && keyBuffer[left] <= keyBuffer[right])) {
+          keys[i] = keyBuffer[left];
+          rows[i] = rowBuffer[left++];
+        } else {
+          keys[i] = keyBuffer[right];
+          rows[i] = rowBuffer[right++];
+        }
+      }
+    }
+
+  }
+
+}
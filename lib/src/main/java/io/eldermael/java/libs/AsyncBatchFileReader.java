@@ -0,0 +1,211 @@
+package io.eldermael.java.libs;
+
+import com.google.common.base.Preconditions;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reads many small batch files through {@link AsynchronousFileChannel} without
+ * dedicating a thread to each one.
+ * <p>
+ * At most {@code maxOutstandingReads} files are open at any time, the rest wait in
+ * a queue and start as earlier reads finish. Cancelling a read closes its channel,
+ * and its slot is only given to the next file once the channel is closed. The
+ * channel is closed on every path, like {@code Try.withResources}: a failure while
+ * closing fails the future, or is added as suppressed when the read had already
+ * failed.
+ */
+public class AsyncBatchFileReader {
+
+  private static final Set<StandardOpenOption> READ = Set.of(StandardOpenOption.READ);
+
+  private final ExecutorService executor;
+  private final int maxOutstandingReads;
+  private final Queue<PendingRead> pending = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger outstanding = new AtomicInteger();
+  private final AtomicInteger drainRequests = new AtomicInteger();
+
+  public AsyncBatchFileReader(ExecutorService executor, int maxOutstandingReads) {
+    Preconditions.checkArgument(
+        maxOutstandingReads > 0,
+        "Outstanding reads must be positive, you passed: %s",
+        maxOutstandingReads);
+    this.executor = executor;
+    this.maxOutstandingReads = maxOutstandingReads;
+  }
+
+  public CompletableFuture<List<String>> readLines(Path file) {
+    var bytes = readBytes(file);
+    var lines = bytes.thenApply(content -> new String(content, StandardCharsets.UTF_8).lines().toList());
+    // a derived future does not cancel its source, so pass it on to free the slot
+    lines.whenComplete((content, error) -> {
+      if (lines.isCancelled()) {
+        bytes.cancel(true);
+      }
+    });
+    return lines;
+  }
+
+  public Map<Path, CompletableFuture<List<String>>> readLines(Collection<Path> files) {
+    var results = new LinkedHashMap<Path, CompletableFuture<List<String>>>();
+    files.forEach(file -> results.put(file, readLines(file)));
+    return results;
+  }
+
+  public CompletableFuture<byte[]> readBytes(Path file) {
+    var read = new PendingRead(file, new CompletableFuture<>());
+    pending.add(read);
+    drain();
+    return read.result();
+  }
+
+  public int outstandingReads() {
+    return outstanding.get();
+  }
+
+  // Reads that complete on the calling thread release their slot from inside
+  // start(), so only one thread runs the loop and the others just ask it to go again
+  private void drain() {
+    if (drainRequests.getAndIncrement() != 0) {
+      return;
+    }
+    int requests = 1;
+    do {
+      startPendingReads();
+      requests = drainRequests.addAndGet(-requests);
+    } while (requests != 0);
+  }
+
+  private void startPendingReads() {
+    while (!pending.isEmpty()) {
+      int current = outstanding.get();
+      if (current >= maxOutstandingReads) {
+        return;
+      }
+      if (!outstanding.compareAndSet(current, current + 1)) {
+        continue;
+      }
+
+      var next = pending.poll();
+      if (next == null) {
+        outstanding.decrementAndGet();
+        continue;
+      }
+      start(next);
+    }
+  }
+
+  private void release() {
+    outstanding.decrementAndGet();
+    drain();
+  }
+
+  private void start(PendingRead read) {
+    if (read.result().isDone()) {
+      // Cancelled while queued
+      release();
+      return;
+    }
+
+    AsynchronousFileChannel channel;
+    try {
+      channel = AsynchronousFileChannel.open(read.file(), READ, executor);
+    } catch (IOException | RuntimeException e) {
+      read.result().completeExceptionally(e);
+      release();
+      return;
+    }
+
+    var bytes = new CompletableFuture<byte[]>();
+    // Closing the channel makes an outstanding read fail, which then releases the slot
+    read.result().whenComplete((content, error) -> {
+      if (read.result().isCancelled()) {
+        closeQuietly(channel);
+      }
+    });
+    try {
+      long size = channel.size();
+      Preconditions.checkState(size <= Integer.MAX_VALUE - 8, "Batch file '%s' is too large", read.file());
+      var buffer = ByteBuffer.allocate((int) size);
+      channel.read(buffer, 0, buffer, new FillBuffer(channel, bytes));
+    } catch (IOException | RuntimeException e) {
+      bytes.completeExceptionally(e);
+    }
+
+    bytes.whenComplete((content, error) -> {
+      try {
+        channel.close();
+      } catch (IOException closeError) {
+        if (error == null) {
+          read.result().completeExceptionally(closeError);
+          release();
+          return;
+        }
+        error.addSuppressed(closeError);
+      }
+
+      if (error == null) {
+        read.result().complete(content);
+      } else {
+        read.result().completeExceptionally(error);
+      }
+      // Only now is the file really closed
+      release();
+    });
+  }
+
+  private static void closeQuietly(AsynchronousFileChannel channel) {
+    try {
+      channel.close();
+    } catch (IOException ignored) {
+      // reported when the read completes
+    }
+  }
+
+  private record PendingRead(Path file, CompletableFuture<byte[]> result) {
+  }
+
+  private record FillBuffer(AsynchronousFileChannel channel, CompletableFuture<byte[]> bytes)
+      implements CompletionHandler<Integer, ByteBuffer> {
+
+    @Override
+    public void completed(Integer read, ByteBuffer buffer) {
+      if (read < 0 || !buffer.hasRemaining()) {
+        buffer.flip();
+        bytes.complete(buffer.limit() == buffer.capacity()
+            ? buffer.array()
+            : Arrays.copyOf(buffer.array(), buffer.limit()));
+        return;
+      }
+      try {
+        channel.read(buffer, buffer.position(), buffer, this);
+      } catch (RuntimeException e) {
+        bytes.completeExceptionally(e);
+      }
+    }
+
+    @Override
+    public void failed(Throwable error, ByteBuffer buffer) {
+      bytes.completeExceptionally(error);
+    }
+
+  }
+
+}
@@ -1,7 +1,9 @@
 package io.eldermael.java.libs;
 
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
 import lombok.AllArgsConstructor;
 
 @AllArgsConstructor
@@ -9,7 +11,29 @@ public class AsyncEmailSendingService {
 
   private final ListeningExecutorService executor;
 
+  /**
+   * Sends through {@link #dispatch(String)}, recording a JDK Flight Recorder event
+   * that lasts until the returned future completes.
+   */
   public ListenableFuture<ProcessResult> sendEmail(String email) {
+    var event = new FlightRecorderEvents.SendEmail();
+    if (!event.isEnabled()) {
+      return dispatch(email);
+    }
+    event.begin();
+    var result = dispatch(email);
+    result.addListener(() -> {
+      if (event.shouldCommit()) {
+        event.service = getClass();
+        event.outcome = (FlightRecorderEvents.succeeded(result) ? Futures.getUnchecked(result) : ProcessResult.ERROR).name();
+        event.messageSize = email == null ? 0 : email.length();
+        event.commit();
+      }
+    }, MoreExecutors.directExecutor());
+    return result;
+  }
+
+  protected ListenableFuture<ProcessResult> dispatch(String email) {
     return executor.submit(() -> ProcessResult.SUCCESS);
   }
 
@@ -1,9 +1,34 @@
 package io.eldermael.java.libs;
 
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 
 public interface AsyncService {
 
   ListenableFuture<String> submitBusinessProcess(BusinessModel model);
 
+  /**
+   * Wraps {@code service} so every submission is recorded as a JDK Flight Recorder
+   * event lasting until its future completes.
+   */
+  static AsyncService recordingEvents(AsyncService service) {
+    return model -> {
+      var event = new FlightRecorderEvents.SubmitBusinessProcess();
+      if (!event.isEnabled()) {
+        return service.submitBusinessProcess(model);
+      }
+      event.begin();
+      var result = service.submitBusinessProcess(model);
+      result.addListener(() -> {
+        if (event.shouldCommit()) {
+          event.service = service.getClass();
+          event.outcome = (FlightRecorderEvents.succeeded(result) ? ProcessResult.SUCCESS : ProcessResult.ERROR).name();
+          event.dataSize = model.getData() == null ? 0 : model.getData().length();
+          event.commit();
+        }
+      }, MoreExecutors.directExecutor());
+      return result;
+    };
+  }
+
 }
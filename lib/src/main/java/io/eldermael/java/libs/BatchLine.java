@@ -0,0 +1,9 @@
+package io.eldermael.java.libs;
+
+import java.nio.file.Path;
+
+/**
+ * A complete line read from a batch file, with the byte offset where it starts.
+ */
+public record BatchLine(Path file, long offset, String text) {
+}
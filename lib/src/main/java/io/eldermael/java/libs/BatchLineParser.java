@@ -0,0 +1,194 @@
+package io.eldermael.java.libs;
+
+import com.google.common.base.Preconditions;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Parses batch files of one integer per line without throwing on bad input.
+ * <p>
+ * {@code Integer.parseInt} reports every corrupt line with a
+ * {@link NumberFormatException} and its stack trace. This parser works directly on
+ * the bytes and records each bad line as a {@link LineError} with its line number,
+ * byte offset and {@link Reason}. What happens next depends on the {@link Policy}:
+ * stop at the first error, skip and report every error, or skip until more than
+ * {@code maxErrors} lines failed.
+ */
+public final class BatchLineParser {
+
+  public enum Policy {
+    FAIL_FAST,
+    SKIP_AND_REPORT,
+    ERROR_THRESHOLD
+  }
+
+  public enum Reason {
+    EMPTY_LINE,
+    NOT_A_NUMBER,
+    OVERFLOW,
+    NO_LINES,
+    TOO_MANY_ERRORS
+  }
+
+  public record LineError(int lineNumber, long byteOffset, Reason reason) {
+  }
+
+  public record ParseReport(String source, int[] values, List<LineError> errors, boolean aborted) {
+
+    public boolean hasErrors() {
+      return !errors.isEmpty();
+    }
+
+    public ProcessResult toProcessResult() {
+      return aborted ? ProcessResult.ERROR : ProcessResult.SUCCESS;
+    }
+
+    /**
+     * Same contract as {@code Preconditions.checkState(lines.size() > 0, ...)} in the
+     * examples, for callers that still want an exception at the edge.
+     */
+    public int[] valuesOrThrow() {
+      Preconditions.checkState(!aborted, "Batch file '%s' could not be parsed: %s", source, errors);
+      return values;
+    }
+
+  }
+
+  // Parse failures are encoded above the int range so the hot path never allocates
+  private static final long EMPTY_LINE = Long.MAX_VALUE;
+  private static final long NOT_A_NUMBER = Long.MAX_VALUE - 1;
+  private static final long OVERFLOW = Long.MAX_VALUE - 2;
+
+  private final Policy policy;
+  private final int maxErrors;
+  private final boolean requireLines;
+
+  private BatchLineParser(Policy policy, int maxErrors, boolean requireLines) {
+    this.policy = policy;
+    this.maxErrors = maxErrors;
+    this.requireLines = requireLines;
+  }
+
+  public static BatchLineParser failFast() {
+    return new BatchLineParser(Policy.FAIL_FAST, 0, false);
+  }
+
+  public static BatchLineParser skipAndReport() {
+    return new BatchLineParser(Policy.SKIP_AND_REPORT, Integer.MAX_VALUE, false);
+  }
+
+  public static BatchLineParser withErrorThreshold(int maxErrors) {
+    Preconditions.checkArgument(maxErrors >= 0, "Cannot work with negative numbers, you passed: %s", maxErrors);
+    return new BatchLineParser(Policy.ERROR_THRESHOLD, maxErrors, false);
+  }
+
+  /**
+   * Treats a file without lines as an error, like the "has no lines" precondition.
+   */
+  public BatchLineParser requiringLines() {
+    return new BatchLineParser(policy, maxErrors, true);
+  }
+
+  public Policy policy() {
+    return policy;
+  }
+
+  public ParseReport parse(Path file) {
+    try {
+      return parse(file.getFileName().toString(), Files.readAllBytes(file));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Error opening file '" + file + "'", e);
+    }
+  }
+
+  public ParseReport parse(String source, byte[] content) {
+    var values = new int[Math.max(16, content.length / 4)];
+    var errors = new ArrayList<LineError>();
+    int count = 0;
+    int lineNumber = 0;
+    int lineStart = 0;
+
+    while (lineStart < content.length) {
+      int lineEnd = lineStart;
+      while (lineEnd < content.length && content[lineEnd] != '\n') {
+        lineEnd++;
+      }
+      lineNumber++;
+
+      long parsed = parseInt(content, lineStart, trimCarriageReturn(content, lineStart, lineEnd));
+      if (parsed > Integer.MAX_VALUE) {
+        errors.add(new LineError(lineNumber, lineStart, reasonOf(parsed)));
+        if (errors.size() > maxErrors) {
+          if (policy == Policy.ERROR_THRESHOLD) {
+            errors.add(new LineError(lineNumber, lineStart, Reason.TOO_MANY_ERRORS));
+          }
+          return new ParseReport(source, Arrays.copyOf(values, count), errors, true);
+        }
+      } else {
+        if (count == values.length) {
+          values = Arrays.copyOf(values, count + (count >> 1));
+        }
+        values[count++] = (int) parsed;
+      }
+
+      lineStart = lineEnd + 1;
+    }
+
+    if (requireLines && lineNumber == 0) {
+      errors.add(new LineError(0, 0, Reason.NO_LINES));
+      return new ParseReport(source, new int[0], errors, true);
+    }
+
+    return new ParseReport(source, Arrays.copyOf(values, count), errors, false);
+  }
+
+  private static long parseInt(byte[] content, int from, int to) {
+    if (from == to) {
+      return EMPTY_LINE;
+    }
+
+    boolean negative = content[from] == '-';
+    int position = negative || content[from] == '+' ? from + 1 : from;
+    if (position == to) {
+      return NOT_A_NUMBER;
+    }
+
+    long value = 0;
+    for (; position < to; position++) {
+      int digit = content[position] - '0';
+      if (digit < 0 || digit > 9) {
+        return NOT_A_NUMBER;
+      }
+      value = value * 10 + digit;
+      if (value > (long) Integer.MAX_VALUE + 1) {
+        return OVERFLOW;
+      }
+    }
+
+    if (negative) {
+      return -value;
+    }
+    return value > Integer.MAX_VALUE ? OVERFLOW : value;
+  }
+
+  private static Reason reasonOf(long parsed) {
+    if (parsed == EMPTY_LINE) {
+      return Reason.EMPTY_LINE;
+    }
+    if (parsed == OVERFLOW) {
+      return Reason.OVERFLOW;
+    }
+    return Reason.NOT_A_NUMBER;
+  }
+
+  private static int trimCarriageReturn(byte[] content, int from, int to) {
+    return to > from && content[to - 1] == '\r' ? to - 1 : to;
+  }
+
+}
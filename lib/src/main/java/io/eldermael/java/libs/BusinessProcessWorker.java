@@ -0,0 +1,289 @@
+package io.eldermael.java.libs;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Runs business processes for a {@link DistributedAsyncService} over local TCP.
+ * <p>
+ * Each connection is read by its own thread while requests are processed on a pool
+ * sized to the machine, so a pipelined connection keeps every core busy and answers
+ * in completion order. When the client stops sending, the connection stays open
+ * until every request it sent has been answered; requests that arrive while the
+ * worker is closing are answered with an error. {@link #main(String...)} runs a
+ * worker as a child process; see {@link #launch(long)}.
+ */
+@Slf4j
+public class BusinessProcessWorker implements AutoCloseable {
+
+  static final String READY = "READY ";
+
+  private final ServerSocket server;
+  private final Function<BusinessModel, String> process;
+  private final ExecutorService processors = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+  private final Thread acceptor;
+  private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+
+  private BusinessProcessWorker(ServerSocket server, Function<BusinessModel, String> process) {
+    this.server = server;
+    this.process = process;
+    this.acceptor = new Thread(this::accept, "worker-acceptor-" + server.getLocalPort());
+    this.acceptor.setDaemon(true);
+  }
+
+  public static BusinessProcessWorker start(int port, Function<BusinessModel, String> process) throws IOException {
+    var server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+    var worker = new BusinessProcessWorker(server, process);
+    worker.acceptor.start();
+    return worker;
+  }
+
+  /**
+   * Default process: spins for {@code workMicros} to stand in for real work, then
+   * answers {@code <data>:<result>}.
+   */
+  public static Function<BusinessModel, String> simulatedProcess(long workMicros) {
+    long workNanos = TimeUnit.MICROSECONDS.toNanos(workMicros);
+    return model -> {
+      long until = System.nanoTime() + workNanos;
+      while (System.nanoTime() - until < 0) {
+        Thread.onSpinWait();
+      }
+      return model.getData() + ":" + ProcessResult.fromExitCode(MockProcesses.successfulProcess());
+    };
+  }
+
+  public InetSocketAddress address() {
+    return (InetSocketAddress) server.getLocalSocketAddress();
+  }
+
+  @Override
+  public void close() {
+    try {
+      server.close();
+    } catch (IOException e) {
+      log.debug("Error closing worker socket", e);
+    }
+    for (var connection : connections) {
+      try {
+        connection.close();
+      } catch (IOException e) {
+        log.debug("Error closing connection", e);
+      }
+    }
+    processors.shutdownNow();
+  }
+
+  /**
+   * Usage: {@code BusinessProcessWorker [port] [workMicros]}. Prints
+   * {@code READY <port>} once listening and exits when stdin is closed, so a worker
+   * never outlives the process that launched it.
+   */
+  public static void main(String... args) throws IOException {
+    int port = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+    long workMicros = args.length > 1 ? Long.parseLong(args[1]) : 0;
+
+    try (var worker = start(port, simulatedProcess(workMicros))) {
+      System.out.println(READY + worker.address().getPort());
+      System.out.flush();
+      while (System.in.read() != -1) {
+        // wait for the parent to go away
+      }
+    }
+  }
+
+  /**
+   * Starts a worker JVM with this JVM's classpath and waits until it listens.
+   */
+  public static LocalProcess launch(long workMicros) throws IOException {
+    var java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    var process = new ProcessBuilder(
+        java,
+        "-cp", System.getProperty("java.class.path"),
+        BusinessProcessWorker.class.getName(),
+        "0",
+        Long.toString(workMicros))
+        .redirectError(ProcessBuilder.Redirect.INHERIT)
+        .start();
+
+    var output = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+    String ready;
+    // logging set-up may print before the worker does
+    while ((ready = output.readLine()) != null && !ready.startsWith(READY)) {
+      log.debug("[worker] {}", ready);
+    }
+    if (ready == null) {
+      process.destroyForcibly();
+      throw new IOException("Worker exited before it was ready");
+    }
+    int port = Integer.parseInt(ready.substring(READY.length()).strip());
+
+    // keep the pipe from filling up with whatever the worker logs
+    var drain = new Thread(() -> output.lines().forEach(line -> log.debug("[worker {}] {}", port, line)));
+    drain.setDaemon(true);
+    drain.start();
+
+    return new LocalProcess(process, new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+  }
+
+  public record LocalProcess(Process process, InetSocketAddress address) implements AutoCloseable {
+
+    @Override
+    public void close() {
+      try {
+        process.getOutputStream().close();
+        if (!process.waitFor(5, TimeUnit.SECONDS)) {
+          process.destroyForcibly();
+        }
+      } catch (IOException e) {
+        process.destroyForcibly();
+      } catch (InterruptedException e) {
+        process.destroyForcibly();
+        Thread.currentThread().interrupt();
+      }
+    }
+
+  }
+
+  private void accept() {
+    while (!server.isClosed()) {
+      try {
+        var socket = server.accept();
+        socket.setTcpNoDelay(true);
+        var reader = new Thread(() -> serve(socket), "worker-connection-" + socket.getPort());
+        reader.setDaemon(true);
+        reader.start();
+      } catch (SocketException e) {
+        // closed
+      } catch (IOException e) {
+        log.warn("Worker could not accept a connection", e);
+      }
+    }
+  }
+
+  private void serve(Socket socket) {
+    connections.add(socket);
+    var inFlight = new InFlight();
+    try (socket) {
+      // close() may have gone through the connections before this one was added
+      if (server.isClosed()) {
+        return;
+      }
+      var in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+      var out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+      WorkerProtocol.Request request;
+      while ((request = WorkerProtocol.readRequest(in)) != null) {
+        var received = request;
+        inFlight.started();
+        try {
+          processors.execute(() -> {
+            try {
+              respond(out, received);
+            } finally {
+              inFlight.finished();
+            }
+          });
+        } catch (RejectedExecutionException e) {
+          inFlight.finished();
+          answer(out, received.id(), false, "Worker is shutting down");
+        }
+      }
+      awaitResponses(inFlight);
+    } catch (IOException e) {
+      log.debug("Connection {} closed", socket.getRemoteSocketAddress(), e);
+    } finally {
+      connections.remove(socket);
+    }
+  }
+
+  // Tasks dropped by close() never finish, so stop waiting once the pool is gone
+  private void awaitResponses(InFlight inFlight) {
+    try {
+      while (!processors.isTerminated()) {
+        if (inFlight.awaitNone(100)) {
+          return;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void respond(DataOutputStream out, WorkerProtocol.Request request) {
+    var model = new BusinessModel();
+    model.setData(request.data());
+
+    boolean ok;
+    String body;
+    try {
+      body = process.apply(model);
+      ok = true;
+    } catch (Throwable e) {
+      // an Error must still be answered or the client waits forever
+      body = String.valueOf(e.getMessage());
+      ok = false;
+    }
+
+    answer(out, request.id(), ok, body);
+  }
+
+  private static void answer(DataOutputStream out, long id, boolean ok, String body) {
+    synchronized (out) {
+      try {
+        try {
+          WorkerProtocol.writeResponse(out, id, ok, body);
+        } catch (IllegalArgumentException e) {
+          WorkerProtocol.writeResponse(out, id, false, e.getMessage());
+        }
+        out.flush();
+      } catch (IOException e) {
+        log.debug("Could not answer request {}, client is gone", id, e);
+      }
+    }
+  }
+
+  private static final class InFlight {
+
+    private int requests;
+
+    synchronized void started() {
+      requests++;
+    }
+
+    synchronized void finished() {
+      if (--requests == 0) {
+        notifyAll();
+      }
+    }
+
+    synchronized boolean awaitNone(long millis) throws InterruptedException {
+      if (requests > 0) {
+        wait(millis);
+      }
+      return requests == 0;
+    }
+
+  }
+
+}
@@ -0,0 +1,184 @@
+package io.eldermael.java.libs;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.Striped;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Sum, count, min and max of {@link Record#getAmount()} per code, maintained as
+ * records are inserted, updated and retracted instead of recomputed per query.
+ * <p>
+ * Writers of the same code serialize on one of a fixed number of striped locks.
+ * Each code keeps its amounts in a sorted histogram so min and max survive
+ * retractions, and publishes an immutable {@link Aggregate} through a volatile
+ * field after every change. Readers only read those fields, so {@link #get} costs
+ * the same however many records were added and neither it nor {@link #snapshot}
+ * ever waits for a writer. A snapshot is consistent per code, not across codes.
+ * Records without an amount are ignored.
+ */
+public final class CodeAggregates {
+
+  public static final int DEFAULT_STRIPES = 64;
+
+  public record Aggregate(long count, double sum, double min, double max) {
+
+    public static final Aggregate EMPTY = new Aggregate(0, 0, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY);
+
+    public double average() {
+      return count == 0 ? Double.NaN : sum / count;
+    }
+
+    public Aggregate merge(Aggregate other) {
+      if (other.count == 0) {
+        return this;
+      }
+      if (count == 0) {
+        return other;
+      }
+      return new Aggregate(count + other.count, sum + other.sum, Math.min(min, other.min), Math.max(max, other.max));
+    }
+
+  }
+
+  private final Striped<Lock> locks;
+  private final Map<String, CodeState> codes = new ConcurrentHashMap<>();
+
+  public CodeAggregates() {
+    this(DEFAULT_STRIPES);
+  }
+
+  public CodeAggregates(int stripes) {
+    Preconditions.checkArgument(stripes > 0, "Stripes must be positive, you passed: %s", stripes);
+    this.locks = Striped.lock(stripes);
+  }
+
+  public void insert(Record record) {
+    if (record.getAmount() == null) {
+      return;
+    }
+    var lock = locks.get(codeOf(record));
+    lock.lock();
+    try {
+      stateOf(record.getCode()).add(record.getAmount());
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Removes a previously inserted record.
+   *
+   * @throws IllegalArgumentException if no record with that code and amount is left
+   */
+  public void retract(Record record) {
+    if (record.getAmount() == null) {
+      return;
+    }
+    var lock = locks.get(codeOf(record));
+    lock.lock();
+    try {
+      remove(record.getCode(), record.getAmount());
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Retracts {@code previous} and inserts {@code current} holding the locks of both
+   * codes, so other writers never see one without the other.
+   */
+  public void update(Record previous, Record current) {
+    var stripes = locks.bulkGet(List.of(codeOf(previous), codeOf(current)));
+    stripes.forEach(Lock::lock);
+    try {
+      if (previous.getAmount() != null) {
+        remove(previous.getCode(), previous.getAmount());
+      }
+      if (current.getAmount() != null) {
+        stateOf(current.getCode()).add(current.getAmount());
+      }
+    } finally {
+      stripes.forEach(Lock::unlock);
+    }
+  }
+
+  public Aggregate get(String code) {
+    var state = codes.get(code);
+    return state == null ? Aggregate.EMPTY : state.published;
+  }
+
+  /**
+   * Current aggregate of every code with at least one record.
+   */
+  public Map<String, Aggregate> snapshot() {
+    var snapshot = ImmutableMap.<String, Aggregate>builder();
+    codes.forEach((code, state) -> {
+      var aggregate = state.published;
+      if (aggregate.count() > 0) {
+        snapshot.put(code, aggregate);
+      }
+    });
+    return snapshot.build();
+  }
+
+  private static String codeOf(Record record) {
+    Preconditions.checkArgument(record.getCode() != null, "Record has no code: %s", record);
+    return record.getCode();
+  }
+
+  private CodeState stateOf(String code) {
+    return codes.computeIfAbsent(code, ignored -> new CodeState());
+  }
+
+  // Never creates a state, so failed retractions leave no empty code behind
+  private void remove(String code, double amount) {
+    var state = codes.get(code);
+    Preconditions.checkArgument(state != null, "No record with amount %s to retract for code '%s'", amount, code);
+    state.remove(code, amount);
+  }
+
+  /**
+   * Mutable fields are guarded by the code's stripe, {@code published} is what
+   * readers see.
+   */
+  private static final class CodeState {
+
+    private final TreeMap<Double, int[]> amounts = new TreeMap<>();
+    private long count;
+    private double sum;
+    private volatile Aggregate published = Aggregate.EMPTY;
+
+    void add(double amount) {
+      amounts.computeIfAbsent(amount, ignored -> new int[1])[0]++;
+      count++;
+      sum += amount;
+      publish();
+    }
+
+    void remove(String code, double amount) {
+      var occurrences = amounts.get(amount);
+      Preconditions.checkArgument(occurrences != null, "No record with amount %s to retract for code '%s'", amount, code);
+      if (--occurrences[0] == 0) {
+        amounts.remove(amount);
+      }
+      count--;
+      // Start again from zero so retractions do not leave rounding residue behind
+      sum = count == 0 ? 0 : sum - amount;
+      publish();
+    }
+
+    private void publish() {
+      published = count == 0
+          ? Aggregate.EMPTY
+          : new Aggregate(count, sum, amounts.firstKey(), amounts.lastKey());
+    }
+
+  }
+
+}
@@ -0,0 +1,29 @@
+package io.eldermael.java.libs;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * {@link AsyncEmailSendingService} that drops repeats of the same alert within the
+ * window of its {@link DuplicateAlertFilter}. Suppressed copies complete immediately
+ * with {@link ProcessResult#SUCCESS} and are counted by the filter.
+ */
+public class DeduplicatingEmailSendingService extends AsyncEmailSendingService {
+
+  private final DuplicateAlertFilter filter;
+
+  public DeduplicatingEmailSendingService(ListeningExecutorService executor, DuplicateAlertFilter filter) {
+    super(executor);
+    this.filter = filter;
+  }
+
+  @Override
+  protected ListenableFuture<ProcessResult> dispatch(String email) {
+    if (filter.isDuplicate(email)) {
+      return Futures.immediateFuture(ProcessResult.SUCCESS);
+    }
+    return super.dispatch(email);
+  }
+
+}
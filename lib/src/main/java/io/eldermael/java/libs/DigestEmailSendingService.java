@@ -0,0 +1,179 @@
+package io.eldermael.java.libs;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.SettableFuture;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * {@link AsyncEmailSendingService} that combines alerts for the same recipient group
+ * into one digest email.
+ * <p>
+ * A digest is opened by the first alert of a group and sent with a single
+ * {@link EmailSender} call once it holds {@code maxAlerts} alerts or {@code maxDelay}
+ * has passed, whichever comes first, so no alert waits longer than {@code maxDelay}
+ * plus one timer tick. When the send fails the whole digest is persisted to the
+ * {@link EmailQueue} as one message, as it is when the executor rejects the send.
+ * Every alert's future completes with the outcome of its digest; cancelling one of
+ * them does not cancel the digest.
+ */
+@Slf4j
+public class DigestEmailSendingService extends AsyncEmailSendingService {
+
+  private final ListeningExecutorService executor;
+  private final EmailSender sender;
+  private final EmailQueue fallback;
+  private final HashedWheelTimer timer;
+  private final Function<String, String> recipientGroup;
+  private final Duration maxDelay;
+  private final int maxAlerts;
+
+  private final Map<String, Digest> open = new HashMap<>();
+  private final LongAdder alerts = new LongAdder();
+  private final LongAdder digests = new LongAdder();
+
+  public DigestEmailSendingService(ListeningExecutorService executor,
+                                   EmailSender sender,
+                                   EmailQueue fallback,
+                                   HashedWheelTimer timer,
+                                   Function<String, String> recipientGroup,
+                                   Duration maxDelay,
+                                   int maxAlerts) {
+    super(executor);
+    Preconditions.checkArgument(maxAlerts > 0, "Max alerts per digest must be positive, you passed: %s", maxAlerts);
+    Preconditions.checkArgument(
+        !maxDelay.isNegative() && !maxDelay.isZero(),
+        "Max delay must be positive, you passed: %s",
+        maxDelay);
+    this.executor = executor;
+    this.sender = sender;
+    this.fallback = EmailQueue.recordingEvents(fallback);
+    this.timer = timer;
+    this.recipientGroup = recipientGroup;
+    this.maxDelay = maxDelay;
+    this.maxAlerts = maxAlerts;
+  }
+
+  @Override
+  protected ListenableFuture<ProcessResult> dispatch(String email) {
+    alerts.increment();
+    var group = recipientGroup.apply(email);
+
+    Digest full = null;
+    Digest digest;
+    synchronized (open) {
+      digest = open.get(group);
+      if (digest == null) {
+        var created = new Digest(group);
+        created.timeout = timer.newTimeout(() -> flush(created), maxDelay.toNanos(), TimeUnit.NANOSECONDS);
+        open.put(group, created);
+        digest = created;
+      }
+      digest.alerts.add(email);
+      if (digest.alerts.size() >= maxAlerts) {
+        open.remove(group);
+        digest.timeout.cancel();
+        full = digest;
+      }
+    }
+
+    if (full != null) {
+      submit(full);
+    }
+    return Futures.nonCancellationPropagating(digest.result);
+  }
+
+  /**
+   * Sends every open digest now, e.g. before shutting down.
+   */
+  public void flushAll() {
+    List<Digest> pending;
+    synchronized (open) {
+      pending = new ArrayList<>(open.values());
+      open.clear();
+    }
+    pending.forEach(digest -> {
+      digest.timeout.cancel();
+      submit(digest);
+    });
+  }
+
+  public long alertCount() {
+    return alerts.sum();
+  }
+
+  public long digestCount() {
+    return digests.sum();
+  }
+
+  static String digestMessage(String group, List<String> alerts) {
+    if (alerts.size() == 1) {
+      return alerts.get(0);
+    }
+    var body = new StringBuilder()
+        .append(alerts.size())
+        .append(" alerts for ")
+        .append(group)
+        .append('\n');
+    alerts.forEach(alert -> body.append("\n- ").append(alert));
+    return body.toString();
+  }
+
+  // Runs on the timer thread, so the send itself is handed to the executor
+  private void flush(Digest digest) {
+    synchronized (open) {
+      if (!open.remove(digest.group, digest)) {
+        return;
+      }
+    }
+    submit(digest);
+  }
+
+  private void submit(Digest digest) {
+    try {
+      digest.result.setFuture(executor.submit(() -> deliver(digest)));
+    } catch (RejectedExecutionException e) {
+      log.warn("Executor rejected the digest for '{}', persisting {} alerts", digest.group, digest.alerts.size(), e);
+      try {
+        digest.result.set(fallback.persistEmailForLater(digestMessage(digest.group, digest.alerts)));
+      } catch (RuntimeException persistError) {
+        persistError.addSuppressed(e);
+        digest.result.setException(persistError);
+      }
+    }
+  }
+
+  private ProcessResult deliver(Digest digest) {
+    digests.increment();
+    var message = digestMessage(digest.group, digest.alerts);
+    return sender.trySendAlertEmail(message).isLeft()
+        ? fallback.persistEmailForLater(message)
+        : ProcessResult.SUCCESS;
+  }
+
+  private static final class Digest {
+
+    final String group;
+    final List<String> alerts = new ArrayList<>();
+    final SettableFuture<ProcessResult> result = SettableFuture.create();
+    HashedWheelTimer.Timeout timeout;
+
+    Digest(String group) {
+      this.group = group;
+    }
+
+  }
+
+}
@@ -0,0 +1,257 @@
+package io.eldermael.java.libs;
+
+import com.google.common.base.Preconditions;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link AsyncService} that runs business processes on {@link BusinessProcessWorker}s
+ * in other JVMs.
+ * <p>
+ * Models are routed by consistent hashing of {@code data}, so the same data always
+ * lands on the same worker while it is alive. Each worker has one connection that
+ * pipelines requests: they are written as they come, and a reader thread matches the
+ * responses by id. When a connection breaks, the worker leaves the hash ring and its
+ * unanswered requests are sent again to the workers that now own their data.
+ * <p>
+ * Delivery is therefore at-least-once: a request the dead worker had already
+ * started, or even finished without its answer arriving, runs a second time on
+ * another worker. Business processes submitted here must be idempotent.
+ */
+@Slf4j
+public class DistributedAsyncService implements AsyncService, AutoCloseable {
+
+  private static final int VIRTUAL_NODES = 128;
+  private static final HashFunction HASH = Hashing.murmur3_128();
+
+  private final List<Connection> connections = new ArrayList<>();
+  private final AtomicLong ids = new AtomicLong();
+
+  private volatile NavigableMap<Long, Connection> ring;
+  private volatile boolean closed;
+
+  public DistributedAsyncService(List<InetSocketAddress> workers) throws IOException {
+    Preconditions.checkArgument(!workers.isEmpty(), "At least one worker is needed");
+    try {
+      for (var worker : workers) {
+        connections.add(new Connection(worker));
+      }
+    } catch (IOException e) {
+      connections.forEach(Connection::close);
+      throw e;
+    }
+    this.ring = ring(connections);
+    connections.forEach(Connection::startReading);
+  }
+
+  public static class RemoteProcessException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public RemoteProcessException(String message) {
+      super(message);
+    }
+
+  }
+
+  @Override
+  public ListenableFuture<String> submitBusinessProcess(BusinessModel model) {
+    var request = new InFlight(ids.incrementAndGet(), model.getData(), SettableFuture.create());
+    dispatch(request);
+    return request.result();
+  }
+
+  public int liveWorkers() {
+    return (int) ring.values().stream().distinct().count();
+  }
+
+  /**
+   * Worker that currently owns {@code data}, or {@code null} when none is alive.
+   */
+  public InetSocketAddress workerFor(String data) {
+    var connection = route(data);
+    return connection == null ? null : connection.address;
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    connections.forEach(Connection::close);
+  }
+
+  private void dispatch(InFlight request) {
+    while (true) {
+      if (closed) {
+        request.result().setException(new IllegalStateException("Service is closed"));
+        return;
+      }
+      var connection = route(request.data());
+      if (connection == null) {
+        request.result().setException(new IllegalStateException("No live workers"));
+        return;
+      }
+      if (connection.send(request)) {
+        return;
+      }
+    }
+  }
+
+  private Connection route(String data) {
+    var current = ring;
+    if (current.isEmpty()) {
+      return null;
+    }
+    var owner = current.ceilingEntry(hash(data));
+    return owner == null ? current.firstEntry().getValue() : owner.getValue();
+  }
+
+  private void workerDied(Connection dead, List<InFlight> orphans) {
+    synchronized (this) {
+      var survivors = new ArrayList<>(ring.values());
+      survivors.removeIf(connection -> connection == dead);
+      ring = ring(survivors);
+    }
+    if (!closed) {
+      log.warn("Worker {} is gone, rerouting {} requests", dead.address, orphans.size());
+    }
+    orphans.forEach(this::dispatch);
+  }
+
+  private static NavigableMap<Long, Connection> ring(List<Connection> live) {
+    var ring = new TreeMap<Long, Connection>();
+    for (var connection : live) {
+      for (int i = 0; i < VIRTUAL_NODES; i++) {
+        ring.put(hash(connection.address + "#" + i), connection);
+      }
+    }
+    return Collections.unmodifiableNavigableMap(ring);
+  }
+
+  private static long hash(String data) {
+    return HASH.hashString(data == null ? "" : data, StandardCharsets.UTF_8).asLong();
+  }
+
+  private record InFlight(long id, String data, SettableFuture<String> result) {
+  }
+
+  private final class Connection {
+
+    final InetSocketAddress address;
+    final Socket socket;
+    final DataOutputStream out;
+    final DataInputStream in;
+    final Map<Long, InFlight> pending = new ConcurrentHashMap<>();
+    final Thread reader;
+    boolean alive = true;
+
+    Connection(InetSocketAddress address) throws IOException {
+      this.address = address;
+      this.socket = new Socket(address.getAddress(), address.getPort());
+      socket.setTcpNoDelay(true);
+      this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+      this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+      this.reader = new Thread(this::read, "worker-client-" + address.getPort());
+      reader.setDaemon(true);
+    }
+
+    void startReading() {
+      reader.start();
+    }
+
+    /**
+     * False when the connection is dead and the request must be routed elsewhere.
+     */
+    boolean send(InFlight request) {
+      pending.put(request.id(), request);
+      synchronized (out) {
+        if (alive) {
+          try {
+            WorkerProtocol.writeRequest(out, request.id(), request.data());
+            out.flush();
+            return true;
+          } catch (IllegalArgumentException e) {
+            // refused before writing, the connection is still fine
+            if (pending.remove(request.id()) != null) {
+              request.result().setException(e);
+            }
+            return true;
+          } catch (IOException e) {
+            log.debug("Could not write to worker {}", address, e);
+          }
+        }
+      }
+      fail();
+      // whoever removes the request from pending owns rerouting it
+      return pending.remove(request.id()) == null;
+    }
+
+    void close() {
+      try {
+        socket.close();
+      } catch (IOException e) {
+        log.debug("Error closing connection to {}", address, e);
+      }
+    }
+
+    private void read() {
+      try {
+        while (true) {
+          var response = WorkerProtocol.readResponse(in);
+          var request = pending.remove(response.id());
+          if (request == null) {
+            continue;
+          }
+          if (response.ok()) {
+            request.result().set(response.body());
+          } else {
+            request.result().setException(new RemoteProcessException(response.body()));
+          }
+        }
+      } catch (IOException e) {
+        log.debug("Connection to worker {} closed", address, e);
+      }
+      fail();
+    }
+
+    private void fail() {
+      synchronized (out) {
+        if (!alive) {
+          return;
+        }
+        alive = false;
+      }
+      close();
+
+      var orphans = new ArrayList<InFlight>();
+      for (var id : pending.keySet()) {
+        var request = pending.remove(id);
+        if (request != null) {
+          orphans.add(request);
+        }
+      }
+      workerDied(this, orphans);
+    }
+
+  }
+
+}
@@ -0,0 +1,22 @@
+package io.eldermael.java.libs;
+
+import java.util.List;
+
+/**
+ * An {@link EmailQueue} whose messages can be taken out again for re-sending.
+ * <p>
+ * Polled messages stay in flight until they are either acknowledged or rescheduled.
+ */
+public interface DrainableEmailQueue extends EmailQueue {
+
+  List<QueuedEmail> pollDue(int maxMessages, long nowNanos);
+
+  void acknowledge(QueuedEmail email);
+
+  void reschedule(QueuedEmail email, long dueAtNanos);
+
+  int pendingCount();
+
+  int inFlightCount();
+
+}
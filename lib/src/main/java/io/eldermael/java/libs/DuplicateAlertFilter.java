@@ -0,0 +1,228 @@
+package io.eldermael.java.libs;
+
+import com.google.common.base.Preconditions;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers alert messages seen within a sliding time window in constant memory.
+ * <p>
+ * The window is split into {@code generations} Bloom filters; only the newest one
+ * takes inserts and the oldest one is dropped as time moves on. A message counts as
+ * a duplicate when any live generation might contain it, so a repeat is caught for
+ * at least {@code window * (generations - 1) / generations} and at most
+ * {@code window}. False positives suppress a distinct alert with probability
+ * {@code falsePositiveRate} per generation; there are no false negatives.
+ * <p>
+ * Each message is hashed once and the same bit positions are probed in every
+ * generation. All bits of a message fall in one 64-byte block, so a lookup touches
+ * at most two cache lines per generation, the arrays not being cache-line aligned.
+ * Packing bits into blocks raises the false positive rate of a given size, so the
+ * filter is grown until the blocked rate meets {@code falsePositiveRate}. Expired
+ * generations are cleared and reused; after construction the only allocations are
+ * Guava's hasher and hash code for each message.
+ */
+public class DuplicateAlertFilter {
+
+  private static final HashFunction HASH = Hashing.murmur3_128();
+  private static final int BLOCK_WORDS = 8;
+  private static final int BLOCK_BITS = BLOCK_WORDS * Long.SIZE;
+
+  private final long generationNanos;
+  private final long bits;
+  private final int blocks;
+  private final int hashes;
+  private final LongSupplier clock;
+  private final AtomicLongArray[] generations;
+
+  private final LongAdder passed = new LongAdder();
+  private final LongAdder suppressed = new LongAdder();
+
+  private volatile long currentEpoch;
+  private volatile int current;
+
+  public DuplicateAlertFilter(Duration window, long expectedMessagesPerWindow, double falsePositiveRate) {
+    this(window, expectedMessagesPerWindow, falsePositiveRate, 4, System::nanoTime);
+  }
+
+  public DuplicateAlertFilter(Duration window,
+                              long expectedMessagesPerWindow,
+                              double falsePositiveRate,
+                              int generations,
+                              LongSupplier clock) {
+    Preconditions.checkArgument(generations >= 2, "Need at least two generations, you passed: %s", generations);
+    Preconditions.checkArgument(expectedMessagesPerWindow > 0, "Expected messages must be positive");
+    Preconditions.checkArgument(
+        0 < falsePositiveRate && falsePositiveRate < 1,
+        "False positive rate must be between 0 and 1, you passed: %s",
+        falsePositiveRate);
+    this.generationNanos = Math.max(1, window.toNanos() / generations);
+    // start from the size of a standard Bloom filter, blocking needs somewhat more
+    double optimalBits = -expectedMessagesPerWindow * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+    long wantedBlocks = Math.max(1, (long) Math.ceil(optimalBits / BLOCK_BITS));
+    while (blockedFalsePositiveRate(expectedMessagesPerWindow, wantedBlocks) > falsePositiveRate) {
+      wantedBlocks += Math.max(1, wantedBlocks / 32);
+    }
+    Preconditions.checkArgument(
+        wantedBlocks * BLOCK_WORDS <= Integer.MAX_VALUE,
+        "Filter would be too large: %s bits",
+        wantedBlocks * BLOCK_BITS);
+    this.blocks = (int) wantedBlocks;
+    this.bits = wantedBlocks * BLOCK_BITS;
+    this.hashes = hashesFor(expectedMessagesPerWindow, wantedBlocks);
+    this.clock = clock;
+    this.generations = new AtomicLongArray[generations];
+    for (int i = 0; i < generations; i++) {
+      this.generations[i] = new AtomicLongArray(blocks * BLOCK_WORDS);
+    }
+    this.currentEpoch = clock.getAsLong() / generationNanos;
+  }
+
+  /**
+   * Records {@code message} and tells whether it was already seen within the window.
+   */
+  public boolean isDuplicate(String message) {
+    rotateIfNeeded();
+
+    // the upper half picks the block, the bit positions come from a remix of all 64 bits
+    long hash = HASH.hashUnencodedChars(message).asLong();
+    int block = (int) (((hash >>> 32) * blocks) >>> 32) * BLOCK_WORDS;
+    long h2 = mix(hash);
+
+    // newest first: repeats are usually recent and it is probed again by put()
+    int newest = current;
+    for (int age = 0; age < generations.length; age++) {
+      if (contains(generations[Math.floorMod(newest - age, generations.length)], block, h2)) {
+        suppressed.increment();
+        return true;
+      }
+    }
+
+    // only a call that sets at least one bit has seen the message first
+    if (put(generations[newest], block, h2)) {
+      passed.increment();
+      return false;
+    }
+    suppressed.increment();
+    return true;
+  }
+
+  public long passedCount() {
+    return passed.sum();
+  }
+
+  public long suppressedCount() {
+    return suppressed.sum();
+  }
+
+  /**
+   * Bits held by all generations, the same for 1 or 10M distinct messages.
+   */
+  public long memoryBytes() {
+    return bits / Byte.SIZE * generations.length;
+  }
+
+  private static int hashesFor(long messages, long blocks) {
+    return Math.max(1, (int) Math.round((double) blocks * BLOCK_BITS / messages * Math.log(2)));
+  }
+
+  /**
+   * Expected false positive rate once {@code messages} are spread over
+   * {@code blocks}: the number of messages in a block is Poisson distributed, and a
+   * block holding {@code i} of them behaves like a standard filter of
+   * {@value #BLOCK_BITS} bits.
+   */
+  private static double blockedFalsePositiveRate(long messages, long blocks) {
+    int hashes = hashesFor(messages, blocks);
+    double perBlock = (double) messages / blocks;
+    long last = (long) Math.ceil(perBlock + 10 * Math.sqrt(perBlock) + 10);
+    double logProbability = -perBlock;
+    double rate = 0;
+    for (long i = 0; i <= last; i++) {
+      if (i > 0) {
+        logProbability += Math.log(perBlock / i);
+      }
+      double bitSet = -Math.expm1(i * hashes * Math.log1p(-1.0 / BLOCK_BITS));
+      rate += Math.exp(logProbability) * Math.pow(bitSet, hashes);
+    }
+    return rate;
+  }
+
+  private void rotateIfNeeded() {
+    long epoch = clock.getAsLong() / generationNanos;
+    if (epoch == currentEpoch) {
+      return;
+    }
+    synchronized (this) {
+      long elapsed = epoch - currentEpoch;
+      if (elapsed <= 0) {
+        return;
+      }
+      int next = current;
+      for (long i = 0; i < Math.min(elapsed, generations.length); i++) {
+        next = (next + 1) % generations.length;
+        clear(generations[next]);
+      }
+      current = next;
+      currentEpoch = epoch;
+    }
+  }
+
+  // bit i of the block is taken from the i-th 9-bit slice of h2, rehashing when exhausted
+  private boolean contains(AtomicLongArray generation, int block, long h2) {
+    long remaining = h2;
+    for (int i = 0; i < hashes; i++) {
+      if (i % 7 == 0 && i > 0) {
+        remaining = mix(h2 + i);
+      }
+      int bit = (int) (remaining & (BLOCK_BITS - 1));
+      if ((generation.get(block + (bit >>> 6)) & (1L << bit)) == 0) {
+        return false;
+      }
+      remaining >>>= 9;
+    }
+    return true;
+  }
+
+  private boolean put(AtomicLongArray generation, int block, long h2) {
+    boolean changed = false;
+    long remaining = h2;
+    for (int i = 0; i < hashes; i++) {
+      if (i % 7 == 0 && i > 0) {
+        remaining = mix(h2 + i);
+      }
+      int bit = (int) (remaining & (BLOCK_BITS - 1));
+      int index = block + (bit >>> 6);
+      long mask = 1L << bit;
+      long word = generation.get(index);
+      while ((word & mask) == 0) {
+        long witness = generation.compareAndExchange(index, word, word | mask);
+        if (witness == word) {
+          changed = true;
+          break;
+        }
+        word = witness;
+      }
+      remaining >>>= 9;
+    }
+    return changed;
+  }
+
+  private static long mix(long value) {
+    value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+    value = (value ^ (value >>> 33)) * 0xc4ceb9fe1a85ec53L;
+    return value ^ (value >>> 33);
+  }
+
+  private static void clear(AtomicLongArray generation) {
+    for (int i = 0; i < generation.length(); i++) {
+      generation.lazySet(i, 0L);
+    }
+  }
+
+}
@@ -4,5 +4,25 @@ public interface EmailQueue {
 
   ProcessResult persistEmailForLater(String message);
 
+  /**
+   * Wraps {@code queue} so every persist is recorded as a JDK Flight Recorder event.
+   */
+  static EmailQueue recordingEvents(EmailQueue queue) {
+    return message -> {
+      var event = new FlightRecorderEvents.PersistEmail();
+      if (!event.isEnabled()) {
+        return queue.persistEmailForLater(message);
+      }
+      event.begin();
+      var result = queue.persistEmailForLater(message);
+      if (event.shouldCommit()) {
+        event.queue = queue.getClass();
+        event.outcome = String.valueOf(result);
+        event.messageSize = message == null ? 0 : message.length();
+        event.commit();
+      }
+      return result;
+    };
+  }
 
 }
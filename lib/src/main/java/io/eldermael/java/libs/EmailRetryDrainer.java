@@ -0,0 +1,193 @@
+package io.eldermael.java.libs;
+
+import com.google.common.base.Preconditions;
+import com.google.common.math.LongMath;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Re-sends messages parked in a {@link DrainableEmailQueue}.
+ * <p>
+ * Each round polls up to {@code batchSize} due messages and sends them through
+ * {@link EmailSender#trySendAlertEmail} on at most {@link #concurrencyLimit()}
+ * lanes. Delivered messages are acknowledged; failed ones are rescheduled with
+ * exponential backoff and equal jitter. The concurrency limit grows by one after a
+ * clean round and halves after a round with failures, so a recovering mail server
+ * is not flooded with the whole backlog at once. When the sender pool rejects a
+ * lane, e.g. while shutting down, the messages of that lane are rescheduled as due
+ * now rather than left in flight.
+ */
+@Slf4j
+public class EmailRetryDrainer implements AutoCloseable {
+
+  public record DrainStats(int sent, int failed, int concurrencyLimit) {
+  }
+
+  private final DrainableEmailQueue queue;
+  private final EmailSender sender;
+  private final ExecutorService senders;
+  private final int batchSize;
+  private final int maxConcurrency;
+  private final long baseBackoffNanos;
+  private final long maxBackoffNanos;
+  private final LongSupplier clock;
+  private final AtomicInteger concurrencyLimit = new AtomicInteger(1);
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+    var thread = new Thread(runnable, "email-retry-drainer");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  public EmailRetryDrainer(DrainableEmailQueue queue,
+                           EmailSender sender,
+                           ExecutorService senders,
+                           int batchSize,
+                           int maxConcurrency,
+                           Duration baseBackoff,
+                           Duration maxBackoff,
+                           LongSupplier clock) {
+    Preconditions.checkArgument(batchSize > 0, "Batch size must be positive, you passed: %s", batchSize);
+    Preconditions.checkArgument(maxConcurrency > 0, "Concurrency must be positive, you passed: %s", maxConcurrency);
+    Preconditions.checkArgument(
+        baseBackoff.compareTo(maxBackoff) <= 0,
+        "Base backoff %s is greater than max backoff %s",
+        baseBackoff,
+        maxBackoff);
+    this.queue = queue;
+    this.sender = sender;
+    this.senders = senders;
+    this.batchSize = batchSize;
+    this.maxConcurrency = maxConcurrency;
+    this.baseBackoffNanos = baseBackoff.toNanos();
+    this.maxBackoffNanos = maxBackoff.toNanos();
+    this.clock = clock;
+  }
+
+  public static EmailRetryDrainer withDefaults(DrainableEmailQueue queue, EmailSender sender, ExecutorService senders) {
+    return new EmailRetryDrainer(
+        queue,
+        sender,
+        senders,
+        256,
+        16,
+        Duration.ofSeconds(1),
+        Duration.ofMinutes(10),
+        System::nanoTime);
+  }
+
+  public int concurrencyLimit() {
+    return concurrencyLimit.get();
+  }
+
+  /**
+   * Drains rounds back to back while messages are due, then sleeps for {@code idleInterval}.
+   */
+  public void start(Duration idleInterval) {
+    scheduler.execute(() -> drainLoop(idleInterval));
+  }
+
+  @Override
+  public void close() {
+    scheduler.shutdownNow();
+  }
+
+  /**
+   * Runs a single round: poll one batch, send it and adapt the concurrency limit.
+   */
+  public DrainStats drainOnce() {
+    var batch = queue.pollDue(batchSize, clock.getAsLong());
+    if (batch.isEmpty()) {
+      return new DrainStats(0, 0, concurrencyLimit.get());
+    }
+
+    int lanes = Math.min(concurrencyLimit.get(), batch.size());
+    var sent = new AtomicInteger();
+    var failed = new AtomicInteger();
+    var running = new ArrayList<CompletableFuture<Void>>(lanes);
+    boolean rejected = false;
+    for (int lane = 0; lane < lanes; lane++) {
+      int first = lane;
+      try {
+        running.add(CompletableFuture.runAsync(() -> sendLane(batch, first, lanes, sent, failed), senders));
+      } catch (RejectedExecutionException e) {
+        log.warn("Sender pool rejected lane {} of {}, rescheduling its emails", lane, lanes, e);
+        rescheduleLane(batch, first, lanes);
+        rejected = true;
+      }
+    }
+    CompletableFuture.allOf(running.toArray(CompletableFuture[]::new)).join();
+
+    int limit = failed.get() == 0 && !rejected
+        ? concurrencyLimit.updateAndGet(current -> Math.min(maxConcurrency, current + 1))
+        : concurrencyLimit.updateAndGet(current -> Math.max(1, current / 2));
+
+    return new DrainStats(sent.get(), failed.get(), limit);
+  }
+
+  long backoffNanos(int attempts) {
+    long ceiling = Math.min(
+        LongMath.saturatedMultiply(baseBackoffNanos, 1L << Math.min(attempts, 62)),
+        maxBackoffNanos);
+    long half = ceiling / 2;
+    return half + ThreadLocalRandom.current().nextLong(ceiling - half + 1);
+  }
+
+  private void sendLane(List<QueuedEmail> batch, int first, int lanes, AtomicInteger sent, AtomicInteger failed) {
+    for (int i = first; i < batch.size(); i += lanes) {
+      var email = batch.get(i);
+      boolean delivered;
+      try {
+        delivered = sender.trySendAlertEmail(email.message()).isRight();
+      } catch (RuntimeException e) {
+        log.warn("Unexpected error re-sending email #{}", email.id(), e);
+        delivered = false;
+      }
+
+      if (delivered) {
+        queue.acknowledge(email);
+        sent.incrementAndGet();
+      } else {
+        queue.reschedule(email, clock.getAsLong() + backoffNanos(email.attempts()));
+        failed.incrementAndGet();
+      }
+    }
+  }
+
+  // pollDue() moved these to in flight, they must not stay there
+  private void rescheduleLane(List<QueuedEmail> batch, int first, int lanes) {
+    long now = clock.getAsLong();
+    for (int i = first; i < batch.size(); i += lanes) {
+      queue.reschedule(batch.get(i), now);
+    }
+  }
+
+  private void drainLoop(Duration idleInterval) {
+    try {
+      DrainStats stats;
+      do {
+        stats = drainOnce();
+      } while (stats.sent() + stats.failed() > 0 && !Thread.currentThread().isInterrupted());
+    } catch (RuntimeException e) {
+      log.error("Error draining email queue", e);
+    }
+
+    try {
+      scheduler.schedule(() -> drainLoop(idleInterval), idleInterval.toNanos(), TimeUnit.NANOSECONDS);
+    } catch (RejectedExecutionException e) {
+      log.debug("Email retry drainer stopped");
+    }
+  }
+
+}
@@ -1,9 +1,63 @@
 package io.eldermael.java.libs;
 
+import io.vavr.control.Either;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
 public class EmailSender {
 
+  private final Function<String, MailException> failures;
+
+  public EmailSender() {
+    this(MailException::new);
+  }
+
+  protected EmailSender(Function<String, MailException> failures) {
+    this.failures = failures;
+  }
+
+  // Failures are thrown as MailException.stackless(reason)
+  public static EmailSender withStacklessFailures() {
+    return new EmailSender(MailException::stackless);
+  }
+
+  // Failures reuse one stackless MailException per reason
+  public static EmailSender withPreallocatedFailures() {
+    Map<String, MailException> preallocated = new ConcurrentHashMap<>();
+    return new EmailSender(reason -> preallocated.computeIfAbsent(reason, MailException::stackless));
+  }
+
   public void sendAlertEmail(String message) throws MailException {
-    throw new MailException("Error");
+    var result = deliverRecorded(message);
+    if (result.isLeft()) {
+      throw failures.apply(result.getLeft());
+    }
+  }
+
+  /**
+   * Sends without throwing: the left side carries the failure reason.
+   */
+  public Either<String, ProcessResult> trySendAlertEmail(String message) {
+    return deliverRecorded(message);
+  }
+
+  protected Either<String, ProcessResult> deliver(String message) {
+    return Either.left("Error");
+  }
+
+  private Either<String, ProcessResult> deliverRecorded(String message) {
+    var event = new FlightRecorderEvents.SendAlertEmail();
+    event.begin();
+    var result = deliver(message);
+    if (event.shouldCommit()) {
+      event.outcome = result.getOrElse(ProcessResult.ERROR).name();
+      event.failure = result.isLeft() ? result.getLeft() : null;
+      event.messageSize = message == null ? 0 : message.length();
+      event.commit();
+    }
+    return result;
   }
 
 }
@@ -0,0 +1,208 @@
+package io.eldermael.java.libs;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Forks sub-tasks whose outcome is decided together, and cancels whatever is still
+ * running as soon as it is decided.
+ * <p>
+ * With {@link #joinAll()} the result is every value in fork order, and the first
+ * failure decides it. With {@link #firstSuccess()} the first value decides it, and it
+ * only fails when every sub-task has failed. Once decided, the remaining sub-task
+ * futures are cancelled with interruption, and cancelling the future from
+ * {@link #join()}, e.g. because the client went away, cancels them too. Closing the
+ * scope cancels anything left, so no sub-task outlives it:
+ * <pre>{@code
+ * try (var scope = FanOutScope.<String>joinAll()) {
+ *   models.forEach(model -> scope.fork(() -> service.submitBusinessProcess(model)));
+ *   return scope.join().get();
+ * }
+ * }</pre>
+ *
+ * @param <T> value of each sub-task
+ * @param <R> value of the scope, {@code List<T>} or {@code T}
+ */
+public final class FanOutScope<T, R> implements AutoCloseable {
+
+  /**
+   * How the outcome follows from the sub-tasks; called until the outcome is done.
+   */
+  private interface Policy<T, R> {
+
+    /**
+     * Looks at one finished sub-task and returns whether it decides the outcome.
+     */
+    boolean decidedBy(ListenableFuture<T> future, SettableFuture<R> outcome);
+
+    /**
+     * Decides the outcome once every sub-task is done without deciding it.
+     */
+    void decide(List<ListenableFuture<T>> futures, SettableFuture<R> outcome);
+
+  }
+
+  private final Policy<T, R> policy;
+  private final SettableFuture<R> outcome = SettableFuture.create();
+  private final List<ListenableFuture<T>> forked = new ArrayList<>();
+  private boolean joined;
+
+  private FanOutScope(Policy<T, R> policy) {
+    this.policy = policy;
+    outcome.addListener(this::cancelForked, MoreExecutors.directExecutor());
+  }
+
+  public static <T> FanOutScope<T, List<T>> joinAll() {
+    return new FanOutScope<>(new JoinAll<>());
+  }
+
+  public static <T> FanOutScope<T, T> firstSuccess() {
+    return new FanOutScope<>(new FirstSuccess<>());
+  }
+
+  /**
+   * Starts a sub-task. Once the outcome is decided, sub-tasks are not started and
+   * a cancelled future is returned instead.
+   */
+  public ListenableFuture<T> fork(Supplier<? extends ListenableFuture<T>> subtask) {
+    synchronized (this) {
+      Preconditions.checkState(!joined, "Cannot fork after join()");
+      if (outcome.isDone()) {
+        return Futures.immediateCancelledFuture();
+      }
+    }
+
+    ListenableFuture<T> future;
+    try {
+      future = subtask.get();
+    } catch (RuntimeException e) {
+      future = Futures.immediateFailedFuture(e);
+    }
+
+    synchronized (this) {
+      forked.add(future);
+    }
+    var started = future;
+    started.addListener(() -> completed(started), MoreExecutors.directExecutor());
+    if (outcome.isDone()) {
+      // decided while this one was being started
+      started.cancel(true);
+    }
+    return started;
+  }
+
+  /**
+   * Ends forking and returns the scope's outcome.
+   */
+  public ListenableFuture<R> join() {
+    synchronized (this) {
+      joined = true;
+    }
+    decideIfAllDone();
+    return outcome;
+  }
+
+  @Override
+  public void close() {
+    outcome.cancel(true);
+    cancelForked();
+  }
+
+  private void completed(ListenableFuture<T> future) {
+    if (outcome.isDone() || policy.decidedBy(future, outcome)) {
+      return;
+    }
+    decideIfAllDone();
+  }
+
+  private void decideIfAllDone() {
+    List<ListenableFuture<T>> snapshot;
+    synchronized (this) {
+      if (!joined || outcome.isDone()) {
+        return;
+      }
+      snapshot = List.copyOf(forked);
+    }
+    if (snapshot.stream().allMatch(ListenableFuture::isDone)) {
+      policy.decide(snapshot, outcome);
+    }
+  }
+
+  private void cancelForked() {
+    List<ListenableFuture<T>> snapshot;
+    synchronized (this) {
+      snapshot = List.copyOf(forked);
+    }
+    snapshot.forEach(future -> future.cancel(true));
+  }
+
+  private static final class JoinAll<T> implements Policy<T, List<T>> {
+
+    @Override
+    public boolean decidedBy(ListenableFuture<T> future, SettableFuture<List<T>> outcome) {
+      try {
+        Futures.getDone(future);
+        return false;
+      } catch (ExecutionException e) {
+        outcome.setException(e.getCause());
+      } catch (CancellationException e) {
+        outcome.setException(e);
+      }
+      return true;
+    }
+
+    @Override
+    public void decide(List<ListenableFuture<T>> futures, SettableFuture<List<T>> outcome) {
+      var values = new ArrayList<T>(futures.size());
+      for (var future : futures) {
+        if (decidedBy(future, outcome)) {
+          return;
+        }
+        values.add(Futures.getUnchecked(future));
+      }
+      outcome.set(Collections.unmodifiableList(values));
+    }
+
+  }
+
+  private static final class FirstSuccess<T> implements Policy<T, T> {
+
+    @Override
+    public boolean decidedBy(ListenableFuture<T> future, SettableFuture<T> outcome) {
+      try {
+        outcome.set(Futures.getDone(future));
+        return true;
+      } catch (ExecutionException | CancellationException e) {
+        return false;
+      }
+    }
+
+    @Override
+    public void decide(List<ListenableFuture<T>> futures, SettableFuture<T> outcome) {
+      var failure = new IllegalStateException(
+          futures.isEmpty() ? "No sub-task was forked" : "All " + futures.size() + " sub-tasks failed");
+      for (var future : futures) {
+        try {
+          Futures.getDone(future);
+        } catch (ExecutionException e) {
+          failure.addSuppressed(e.getCause());
+        } catch (CancellationException e) {
+          failure.addSuppressed(e);
+        }
+      }
+      outcome.setException(failure);
+    }
+
+  }
+
+}
@@ -0,0 +1,119 @@
+package io.eldermael.java.libs;
+
+import com.google.common.util.concurrent.Futures;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * JDK Flight Recorder events for mail and business-process operations.
+ * <p>
+ * Each event's duration spans the operation and it carries the
+ * {@link ProcessResult} outcome and the size of the message or model data. Callers
+ * fill and commit an event only when {@code shouldCommit()} or {@code isEnabled()}
+ * says it is recorded, so a disabled event costs a constant-folded check.
+ */
+final class FlightRecorderEvents {
+
+  private static final String CATEGORY = "Java Libs";
+
+  private FlightRecorderEvents() {
+  }
+
+  // Only called once the future is done
+  static boolean succeeded(Future<?> future) {
+    if (future.isCancelled()) {
+      return false;
+    }
+    try {
+      Futures.getDone(future);
+      return true;
+    } catch (ExecutionException e) {
+      return false;
+    }
+  }
+
+  @Name("io.eldermael.SendAlertEmail")
+  @Label("Send Alert Email")
+  @Description("EmailSender.sendAlertEmail and trySendAlertEmail")
+  @Category({CATEGORY, "Email"})
+  @StackTrace(false)
+  static final class SendAlertEmail extends Event {
+
+    @Label("Outcome")
+    String outcome;
+
+    @Label("Failure")
+    @Description("Reason given by the mail server, if the send failed")
+    String failure;
+
+    @Label("Message Size")
+    @Description("Characters in the message")
+    int messageSize;
+
+  }
+
+  @Name("io.eldermael.PersistEmail")
+  @Label("Persist Email For Later")
+  @Description("EmailQueue.persistEmailForLater")
+  @Category({CATEGORY, "Email"})
+  @StackTrace(false)
+  static final class PersistEmail extends Event {
+
+    @Label("Queue")
+    Class<?> queue;
+
+    @Label("Outcome")
+    String outcome;
+
+    @Label("Message Size")
+    @Description("Characters in the message")
+    int messageSize;
+
+  }
+
+  @Name("io.eldermael.SendEmail")
+  @Label("Send Email")
+  @Description("AsyncEmailSendingService.sendEmail, from the call until its future completes")
+  @Category({CATEGORY, "Email"})
+  @StackTrace(false)
+  static final class SendEmail extends Event {
+
+    @Label("Service")
+    Class<?> service;
+
+    @Label("Outcome")
+    String outcome;
+
+    @Label("Message Size")
+    @Description("Characters in the message")
+    int messageSize;
+
+  }
+
+  @Name("io.eldermael.SubmitBusinessProcess")
+  @Label("Submit Business Process")
+  @Description("AsyncService.submitBusinessProcess, from the call until its future completes")
+  @Category({CATEGORY, "Business Process"})
+  @StackTrace(false)
+  static final class SubmitBusinessProcess extends Event {
+
+    @Label("Service")
+    Class<?> service;
+
+    @Label("Outcome")
+    String outcome;
+
+    @Label("Data Size")
+    @Description("Characters in the model data")
+    int dataSize;
+
+  }
+
+}
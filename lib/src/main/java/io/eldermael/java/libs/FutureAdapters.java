@@ -0,0 +1,190 @@
+package io.eldermael.java.libs;
+
+import com.google.common.util.concurrent.AbstractFuture;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.vavr.concurrent.Future;
+import io.vavr.concurrent.Promise;
+import io.vavr.control.Try;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Conversions between Guava {@link ListenableFuture}, {@link CompletableFuture} and
+ * Vavr {@link Future}.
+ * <p>
+ * Unlike bridging through {@code addListener} plus a {@code SettableFuture} on a
+ * pool, each conversion allocates one target future, registers one callback and
+ * completes it on the thread that completed the source. Cancelling either side
+ * cancels the other, and failures keep their original exception type instead of
+ * an {@link ExecutionException} or {@link CompletionException} wrapper.
+ * <p>
+ * Converted Vavr futures run their own callbacks on the completing thread unless an
+ * {@link Executor} is given; Vavr sources complete on their own executor, which is
+ * {@code ForkJoinPool.commonPool()} for {@code Future.of}.
+ */
+public final class FutureAdapters {
+
+  private static final Executor DIRECT = MoreExecutors.directExecutor();
+
+  private FutureAdapters() {
+  }
+
+  public static <T> CompletableFuture<T> toCompletableFuture(ListenableFuture<T> source) {
+    var target = new CancellingCompletableFuture<T>(source::cancel);
+    source.addListener(() -> complete(target, source), DIRECT);
+    return target;
+  }
+
+  public static <T> CompletableFuture<T> toCompletableFuture(Future<T> source) {
+    var target = new CancellingCompletableFuture<T>(source::cancel);
+    source.onComplete(result -> complete(target, result));
+    return target;
+  }
+
+  public static <T> ListenableFuture<T> toListenableFuture(CompletableFuture<T> source) {
+    var target = new CancellingListenableFuture<T>(source::cancel);
+    source.whenComplete((value, error) -> {
+      if (error == null) {
+        target.set(value);
+      } else {
+        target.fail(unwrap(error));
+      }
+    });
+    return target;
+  }
+
+  public static <T> ListenableFuture<T> toListenableFuture(Future<T> source) {
+    var target = new CancellingListenableFuture<T>(source::cancel);
+    source.onComplete(result -> {
+      if (result.isSuccess()) {
+        target.set(result.get());
+      } else {
+        target.fail(result.getCause());
+      }
+    });
+    return target;
+  }
+
+  public static <T> Future<T> toVavrFuture(ListenableFuture<T> source) {
+    return toVavrFuture(source, DIRECT);
+  }
+
+  public static <T> Future<T> toVavrFuture(ListenableFuture<T> source, Executor executor) {
+    Promise<T> target = Promise.make(executor);
+    source.addListener(() -> target.tryComplete(Try.of(() -> Futures.getDone(source))
+        .recoverWith(ExecutionException.class, e -> Try.failure(e.getCause()))), DIRECT);
+    propagateCancellation(target.future(), source::cancel);
+    return target.future();
+  }
+
+  public static <T> Future<T> toVavrFuture(CompletableFuture<T> source) {
+    return toVavrFuture(source, DIRECT);
+  }
+
+  public static <T> Future<T> toVavrFuture(CompletableFuture<T> source, Executor executor) {
+    Promise<T> target = Promise.make(executor);
+    source.whenComplete((value, error) ->
+        target.tryComplete(error == null ? Try.success(value) : Try.failure(unwrap(error))));
+    propagateCancellation(target.future(), source::cancel);
+    return target.future();
+  }
+
+  private static <T> void complete(CompletableFuture<T> target, ListenableFuture<T> source) {
+    if (source.isCancelled()) {
+      target.cancel(false);
+      return;
+    }
+    try {
+      target.complete(Futures.getDone(source));
+    } catch (ExecutionException e) {
+      target.completeExceptionally(e.getCause());
+    } catch (RuntimeException | Error e) {
+      target.completeExceptionally(e);
+    }
+  }
+
+  private static <T> void complete(CompletableFuture<T> target, Try<T> result) {
+    if (result.isSuccess()) {
+      target.complete(result.get());
+    } else if (result.getCause() instanceof CancellationException) {
+      target.cancel(false);
+    } else {
+      target.completeExceptionally(result.getCause());
+    }
+  }
+
+  private static void propagateCancellation(Future<?> target, Cancellable source) {
+    target.onFailure(error -> {
+      if (error instanceof CancellationException) {
+        source.cancel(true);
+      }
+    });
+  }
+
+  private static Throwable unwrap(Throwable error) {
+    if (error instanceof CompletionException && error.getCause() != null) {
+      return error.getCause();
+    }
+    return error;
+  }
+
+  // Cancel operation shared by Guava, JDK and Vavr futures
+  private interface Cancellable {
+    boolean cancel(boolean mayInterruptIfRunning);
+  }
+
+  private static final class CancellingCompletableFuture<T> extends CompletableFuture<T> {
+
+    private final Cancellable source;
+
+    CancellingCompletableFuture(Cancellable source) {
+      this.source = source;
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      boolean cancelled = super.cancel(mayInterruptIfRunning);
+      if (cancelled) {
+        source.cancel(mayInterruptIfRunning);
+      }
+      return cancelled;
+    }
+
+  }
+
+  private static final class CancellingListenableFuture<T> extends AbstractFuture<T> {
+
+    private final Cancellable source;
+
+    CancellingListenableFuture(Cancellable source) {
+      this.source = source;
+    }
+
+    @Override
+    protected boolean set(T value) {
+      return super.set(value);
+    }
+
+    boolean fail(Throwable error) {
+      if (error instanceof CancellationException) {
+        return super.cancel(false);
+      }
+      return setException(error);
+    }
+
+    @Override
+    protected void afterDone() {
+      if (isCancelled()) {
+        source.cancel(wasInterrupted());
+      }
+    }
+
+  }
+
+}
@@ -0,0 +1,382 @@
+package io.eldermael.java.libs;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Timer for large numbers of deadlines that are usually cancelled before they fire.
+ * <p>
+ * {@code CompletableFuture.orTimeout} puts one task per future in the heap of a
+ * {@code ScheduledThreadPoolExecutor}, so scheduling and cancelling cost O(log n)
+ * under a lock. Here timeouts are handed to a single worker through a lock-free
+ * queue and hashed into a ring of buckets by deadline: scheduling and cancelling are
+ * O(1), at the price of firing up to one tick late. The worker moves at most
+ * {@value #MAX_TRANSFERS_PER_TICK} new timeouts into the wheel per tick so that a
+ * burst cannot hold up expiry, which means that when more are scheduled within one
+ * tick the rest wait for the following ticks and fire correspondingly later.
+ * <p>
+ * Expired tasks run on the worker thread and must be short, the future combinators
+ * only complete or cancel a future. {@link #close()} does not run the pending
+ * tasks: futures given to the combinators fail with an
+ * {@link IllegalStateException} instead of waiting forever, and timeouts from
+ * {@link #newTimeout} are cancelled.
+ */
+@Slf4j
+public class HashedWheelTimer implements AutoCloseable {
+
+  private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+  private final long tickNanos;
+  private final Bucket[] wheel;
+  private final int mask;
+  private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+  private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+  private final AtomicLong pending = new AtomicLong();
+  private final Thread worker;
+  private final long startNanos;
+
+  private volatile boolean running = true;
+  private long tick;
+
+  public HashedWheelTimer() {
+    this(Duration.ofMillis(10), 512);
+  }
+
+  public HashedWheelTimer(Duration tickDuration, int ticksPerWheel) {
+    Preconditions.checkArgument(
+        !tickDuration.isNegative() && !tickDuration.isZero(),
+        "Tick duration must be positive, you passed: %s",
+        tickDuration);
+    Preconditions.checkArgument(
+        ticksPerWheel > 0 && Integer.bitCount(ticksPerWheel) == 1,
+        "Ticks per wheel must be a power of two, you passed: %s",
+        ticksPerWheel);
+
+    this.tickNanos = tickDuration.toNanos();
+    this.wheel = new Bucket[ticksPerWheel];
+    for (int i = 0; i < ticksPerWheel; i++) {
+      wheel[i] = new Bucket();
+    }
+    this.mask = ticksPerWheel - 1;
+    this.startNanos = System.nanoTime();
+    this.worker = new Thread(this::run, "hashed-wheel-timer");
+    this.worker.setDaemon(true);
+    this.worker.start();
+  }
+
+  public Timeout newTimeout(Runnable task, long delay, TimeUnit unit) {
+    return newTimeout(task, null, unit.toNanos(delay));
+  }
+
+  public long pendingTimeouts() {
+    return pending.get();
+  }
+
+  /**
+   * Fails {@code future} with a {@link TimeoutException} unless it completes within
+   * {@code timeout}, like {@code CompletableFuture.orTimeout}.
+   */
+  public <T> CompletableFuture<T> orTimeout(CompletableFuture<T> future, Duration timeout) {
+    if (future.isDone()) {
+      return future;
+    }
+    var entry = newTimeout(
+        () -> future.completeExceptionally(new TimeoutException("Timed out after " + timeout)),
+        () -> future.completeExceptionally(closedBefore(timeout)),
+        timeout.toNanos());
+    future.whenComplete((result, error) -> entry.cancel());
+    return future;
+  }
+
+  public <T> CompletableFuture<T> orDeadline(CompletableFuture<T> future, Instant deadline) {
+    return orTimeout(future, Duration.between(Instant.now(), deadline));
+  }
+
+  /**
+   * Completes {@code future} with {@code value} unless it completes within
+   * {@code timeout}, like {@code CompletableFuture.completeOnTimeout}.
+   */
+  public <T> CompletableFuture<T> completeOnTimeout(CompletableFuture<T> future, T value, Duration timeout) {
+    if (future.isDone()) {
+      return future;
+    }
+    var entry = newTimeout(
+        () -> future.complete(value),
+        () -> future.completeExceptionally(closedBefore(timeout)),
+        timeout.toNanos());
+    future.whenComplete((result, error) -> entry.cancel());
+    return future;
+  }
+
+  /**
+   * Returns a future that fails with a {@link TimeoutException} and cancels
+   * {@code future} unless it completes within {@code timeout}, like
+   * {@code Futures.withTimeout}.
+   */
+  public <T> ListenableFuture<T> withTimeout(ListenableFuture<T> future, Duration timeout) {
+    if (future.isDone()) {
+      return future;
+    }
+    SettableFuture<T> result = SettableFuture.create();
+    var entry = newTimeout(() -> {
+      if (result.setException(new TimeoutException("Timed out after " + timeout))) {
+        future.cancel(true);
+      }
+    }, () -> result.setException(closedBefore(timeout)), timeout.toNanos());
+    future.addListener(() -> result.setFuture(future), MoreExecutors.directExecutor());
+    result.addListener(() -> {
+      entry.cancel();
+      if (result.isCancelled()) {
+        future.cancel(true);
+      }
+    }, MoreExecutors.directExecutor());
+    return result;
+  }
+
+  public <T> ListenableFuture<T> withDeadline(ListenableFuture<T> future, Instant deadline) {
+    return withTimeout(future, Duration.between(Instant.now(), deadline));
+  }
+
+  /**
+   * Stops the worker and settles every pending timeout without running its task.
+   */
+  @Override
+  public synchronized void close() {
+    running = false;
+    worker.interrupt();
+    if (Thread.currentThread() != worker) {
+      Uninterruptibles.joinUninterruptibly(worker);
+    }
+    // scheduled after the worker settled its own
+    closeScheduled();
+  }
+
+  private Timeout newTimeout(Runnable task, Runnable onClose, long delayNanos) {
+    Preconditions.checkState(running, "Timer is stopped");
+    long deadline = System.nanoTime() - startNanos + Math.max(0, delayNanos);
+    var timeout = new Timeout(this, task, onClose, deadline);
+    pending.incrementAndGet();
+    scheduled.add(timeout);
+    if (!running) {
+      // close() may have drained the queue before this one was added
+      closeScheduled();
+    }
+    return timeout;
+  }
+
+  private static IllegalStateException closedBefore(Duration timeout) {
+    return new IllegalStateException("Timer was closed before the timeout of " + timeout);
+  }
+
+  private void run() {
+    try {
+      turnWheel();
+    } finally {
+      for (var bucket : wheel) {
+        bucket.close();
+      }
+      closeScheduled();
+    }
+  }
+
+  private void closeScheduled() {
+    Timeout timeout;
+    while ((timeout = scheduled.poll()) != null) {
+      timeout.close();
+    }
+  }
+
+  private void turnWheel() {
+    while (running) {
+      long tickDeadline = tickNanos * (tick + 1);
+      long sleepNanos = tickDeadline - (System.nanoTime() - startNanos);
+      if (sleepNanos > 0) {
+        try {
+          TimeUnit.NANOSECONDS.sleep(sleepNanos);
+        } catch (InterruptedException e) {
+          if (!running) {
+            return;
+          }
+        }
+        continue;
+      }
+
+      removeCancelled();
+      transferScheduled();
+      wheel[(int) (tick & mask)].expire(tickDeadline);
+      tick++;
+    }
+  }
+
+  private void removeCancelled() {
+    Timeout timeout;
+    while ((timeout = cancelled.poll()) != null) {
+      if (timeout.bucket != null) {
+        timeout.bucket.remove(timeout);
+      }
+    }
+  }
+
+  private void transferScheduled() {
+    for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+      var timeout = scheduled.poll();
+      if (timeout == null) {
+        return;
+      }
+      if (timeout.isCancelled()) {
+        continue;
+      }
+
+      long expiryTick = timeout.deadline / tickNanos;
+      timeout.remainingRounds = (expiryTick - tick) / wheel.length;
+      wheel[(int) (Math.max(expiryTick, tick) & mask)].add(timeout);
+    }
+  }
+
+  public static final class Timeout {
+
+    private static final int INIT = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+
+    private final HashedWheelTimer timer;
+    private final Runnable task;
+    private final Runnable onClose;
+    private final long deadline;
+    private final AtomicInteger state = new AtomicInteger(INIT);
+
+    // Owned by the worker thread
+    private long remainingRounds;
+    private Bucket bucket;
+    private Timeout previous;
+    private Timeout next;
+
+    private Timeout(HashedWheelTimer timer, Runnable task, Runnable onClose, long deadline) {
+      this.timer = timer;
+      this.task = task;
+      this.onClose = onClose;
+      this.deadline = deadline;
+    }
+
+    public boolean cancel() {
+      if (!state.compareAndSet(INIT, CANCELLED)) {
+        return false;
+      }
+      timer.pending.decrementAndGet();
+      timer.cancelled.add(this);
+      return true;
+    }
+
+    public boolean isCancelled() {
+      return state.get() == CANCELLED;
+    }
+
+    public boolean isExpired() {
+      return state.get() == EXPIRED;
+    }
+
+    private void expire() {
+      if (!state.compareAndSet(INIT, EXPIRED)) {
+        return;
+      }
+      timer.pending.decrementAndGet();
+      try {
+        task.run();
+      } catch (RuntimeException e) {
+        log.warn("Timeout task threw an exception", e);
+      }
+    }
+
+    private void close() {
+      if (!state.compareAndSet(INIT, CANCELLED)) {
+        return;
+      }
+      timer.pending.decrementAndGet();
+      if (onClose == null) {
+        return;
+      }
+      try {
+        onClose.run();
+      } catch (RuntimeException e) {
+        log.warn("Timeout close action threw an exception", e);
+      }
+    }
+
+  }
+
+  private static final class Bucket {
+
+    private Timeout head;
+    private Timeout tail;
+
+    void add(Timeout timeout) {
+      timeout.bucket = this;
+      if (head == null) {
+        head = tail = timeout;
+      } else {
+        tail.next = timeout;
+        timeout.previous = tail;
+        tail = timeout;
+      }
+    }
+
+    void expire(long tickDeadline) {
+      var timeout = head;
+      while (timeout != null) {
+        var next = timeout.next;
+        if (timeout.isCancelled()) {
+          remove(timeout);
+        } else if (timeout.remainingRounds <= 0 && timeout.deadline <= tickDeadline) {
+          remove(timeout);
+          timeout.expire();
+        } else {
+          timeout.remainingRounds--;
+        }
+        timeout = next;
+      }
+    }
+
+    void close() {
+      while (head != null) {
+        var timeout = head;
+        remove(timeout);
+        timeout.close();
+      }
+    }
+
+    void remove(Timeout timeout) {
+      if (timeout.bucket != this) {
+        return;
+      }
+      if (timeout.previous != null) {
+        timeout.previous.next = timeout.next;
+      } else {
+        head = timeout.next;
+      }
+      if (timeout.next != null) {
+        timeout.next.previous = timeout.previous;
+      } else {
+        tail = timeout.previous;
+      }
+      timeout.previous = null;
+      timeout.next = null;
+      timeout.bucket = null;
+    }
+
+  }
+
+}
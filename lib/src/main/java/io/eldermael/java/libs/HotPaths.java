@@ -0,0 +1,46 @@
+package io.eldermael.java.libs;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+/**
+ * Exercises the paths {@link Main} runs so the JIT compiles them before real input.
+ * <p>
+ * It runs over synthetic data of the same shape, long enough for the hot methods to
+ * pass the tiered compilation thresholds, and costs a few milliseconds.
+ */
+final class HotPaths {
+
+  private static final String[] QUERIES = {
+      "code contains SS and amount > 100",
+      "name startsWith A or description = 'Amount for B'"
+  };
+
+  private HotPaths() {
+  }
+
+  static long warmUp(int iterations) {
+    var records = new ArrayList<Record>();
+    var batch = new StringBuilder();
+    for (int i = 0; i < 64; i++) {
+      records.add(Record.builder()
+          .name("N" + i)
+          .code(i % 2 == 0 ? "SS" + i : "SD" + i)
+          .amount(i * 10.0)
+          .description("Amount for " + i)
+          .build());
+      batch.append(i).append('\n');
+    }
+    var content = batch.toString().getBytes(StandardCharsets.US_ASCII);
+    var parser = BatchLineParser.skipAndReport();
+
+    // the result is returned so none of the work can be dropped
+    long sink = 0;
+    for (int i = 0; i < iterations; i++) {
+      sink += RecordQuery.filter(QUERIES[i % QUERIES.length], records).size();
+      sink += parser.parse("warm-up", content).values().length;
+    }
+    return sink;
+  }
+
+}
@@ -0,0 +1,71 @@
+package io.eldermael.java.libs;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link DrainableEmailQueue} kept on the heap, ordered by due time and then by arrival.
+ */
+public class InMemoryEmailQueue implements DrainableEmailQueue {
+
+  private final LongSupplier clock;
+  // nanoTime values may wrap, only their difference orders them
+  private final PriorityQueue<QueuedEmail> pending = new PriorityQueue<>(
+      ((Comparator<QueuedEmail>) (a, b) -> Long.signum(a.dueAtNanos() - b.dueAtNanos()))
+          .thenComparingLong(QueuedEmail::id));
+  private final Map<Long, QueuedEmail> inFlight = new HashMap<>();
+  private long nextId;
+
+  public InMemoryEmailQueue() {
+    this(System::nanoTime);
+  }
+
+  public InMemoryEmailQueue(LongSupplier clock) {
+    this.clock = clock;
+  }
+
+  @Override
+  public synchronized ProcessResult persistEmailForLater(String message) {
+    pending.add(new QueuedEmail(nextId++, message, 0, clock.getAsLong()));
+    return ProcessResult.SUCCESS;
+  }
+
+  @Override
+  public synchronized List<QueuedEmail> pollDue(int maxMessages, long nowNanos) {
+    var due = new ArrayList<QueuedEmail>(Math.min(maxMessages, pending.size()));
+    while (due.size() < maxMessages && !pending.isEmpty() && pending.peek().dueAtNanos() - nowNanos <= 0) {
+      var email = pending.poll();
+      inFlight.put(email.id(), email);
+      due.add(email);
+    }
+    return due;
+  }
+
+  @Override
+  public synchronized void acknowledge(QueuedEmail email) {
+    inFlight.remove(email.id());
+  }
+
+  @Override
+  public synchronized void reschedule(QueuedEmail email, long dueAtNanos) {
+    if (inFlight.remove(email.id()) != null) {
+      pending.add(email.retryAt(dueAtNanos));
+    }
+  }
+
+  @Override
+  public synchronized int pendingCount() {
+    return pending.size();
+  }
+
+  @Override
+  public synchronized int inFlightCount() {
+    return inFlight.size();
+  }
+
+}
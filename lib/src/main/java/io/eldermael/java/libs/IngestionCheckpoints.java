@@ -0,0 +1,113 @@
+package io.eldermael.java.libs;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Durable byte offsets per batch file, stored as a properties file.
+ * <p>
+ * Files are looked up by name, and every offset is saved with what identifies the
+ * file it was read from, see {@link Checkpoint}. Every {@link #commit} writes a
+ * temporary file, forces it to disk and atomically moves it over the previous one,
+ * so a crash leaves either the old or the new checkpoints but never a torn file.
+ */
+public class IngestionCheckpoints {
+
+  /**
+   * Offset into a file together with its {@code fileKey} and a checksum of its first
+   * {@code headLength} bytes. Inode numbers are reused as soon as a file is deleted
+   * and creation times are not reported on every platform, so the checksum is what
+   * tells a recreated file apart; one starting with the same bytes is not detected.
+   */
+  public record Checkpoint(long offset, String fileKey, int headLength, long headChecksum) {
+
+    public static final Checkpoint NONE = new Checkpoint(0, "", 0, 0);
+
+    private static Checkpoint parse(String value) {
+      var fields = value.split(",", 4);
+      // checkpoints written before identities were kept only have the offset
+      if (fields.length < 4) {
+        return new Checkpoint(Long.parseLong(fields[0]), null, 0, 0);
+      }
+      return new Checkpoint(
+          Long.parseLong(fields[0]),
+          fields[3],
+          Integer.parseInt(fields[1]),
+          Long.parseLong(fields[2]));
+    }
+
+    private String format() {
+      return offset + "," + headLength + "," + headChecksum + "," + fileKey;
+    }
+
+  }
+
+  private final Path location;
+  private final Map<String, Checkpoint> checkpoints = new ConcurrentHashMap<>();
+
+  public IngestionCheckpoints(Path location) {
+    this.location = location;
+    load();
+  }
+
+  public Checkpoint checkpoint(Path file) {
+    return checkpoints.getOrDefault(key(file), Checkpoint.NONE);
+  }
+
+  public synchronized void commit(Path file, Checkpoint checkpoint) {
+    checkpoints.put(key(file), checkpoint);
+    store();
+  }
+
+  private String key(Path file) {
+    return file.getFileName().toString();
+  }
+
+  private void load() {
+    if (!Files.exists(location)) {
+      return;
+    }
+    try {
+      var properties = new Properties();
+      properties.load(new StringReader(Files.readString(location, StandardCharsets.UTF_8)));
+      properties.forEach((name, value) -> checkpoints.put((String) name, Checkpoint.parse((String) value)));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot read checkpoints '" + location + "'", e);
+    }
+  }
+
+  private void store() {
+    var properties = new Properties();
+    checkpoints.forEach((name, checkpoint) -> properties.setProperty(name, checkpoint.format()));
+
+    var temporary = location.resolveSibling(location.getFileName() + ".tmp");
+    try {
+      var content = new StringWriter();
+      properties.store(content, null);
+      try (var channel = FileChannel.open(
+          temporary,
+          StandardOpenOption.CREATE,
+          StandardOpenOption.WRITE,
+          StandardOpenOption.TRUNCATE_EXISTING)) {
+        channel.write(ByteBuffer.wrap(content.toString().getBytes(StandardCharsets.UTF_8)));
+        channel.force(true);
+      }
+      Files.move(temporary, location, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot write checkpoints '" + location + "'", e);
+    }
+  }
+
+}
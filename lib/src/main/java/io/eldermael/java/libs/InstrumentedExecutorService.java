@@ -0,0 +1,229 @@
+package io.eldermael.java.libs;
+
+import com.google.common.util.concurrent.AbstractListeningExecutorService;
+import com.google.common.util.concurrent.Futures;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link com.google.common.util.concurrent.ListeningExecutorService} decorator that
+ * tells queueing apart from execution.
+ * <p>
+ * Every task is stamped when it is handed over and again when a worker picks it up
+ * and finishes it, so each task costs three {@code System.nanoTime()} calls and a
+ * few uncontended {@link LongAdder} updates. Works on top of any
+ * {@link ExecutorService}, including {@code ForkJoinPool.commonPool()}.
+ */
+public class InstrumentedExecutorService extends AbstractListeningExecutorService {
+
+  /**
+   * Called once per finished task, on the worker thread that ran it.
+   */
+  public interface TaskTimingListener {
+    void taskFinished(long queueWaitNanos, long runNanos, boolean failed);
+  }
+
+  /**
+   * Point-in-time counters. Utilisation is measured between two snapshots.
+   */
+  public record Metrics(long timestampNanos,
+                        int threads,
+                        long submitted,
+                        long completed,
+                        long failed,
+                        long rejected,
+                        int active,
+                        long queued,
+                        long totalQueueWaitNanos,
+                        long maxQueueWaitNanos,
+                        long totalRunNanos,
+                        long maxRunNanos) {
+
+    public Duration averageQueueWait() {
+      return completed == 0 ? Duration.ZERO : Duration.ofNanos(totalQueueWaitNanos / completed);
+    }
+
+    public Duration averageRun() {
+      return completed == 0 ? Duration.ZERO : Duration.ofNanos(totalRunNanos / completed);
+    }
+
+    /**
+     * Share of the available threads that was busy since {@code previous}, from 0 to 1.
+     */
+    public double utilisationSince(Metrics previous) {
+      long elapsed = timestampNanos - previous.timestampNanos;
+      if (elapsed <= 0 || threads <= 0) {
+        return 0;
+      }
+      return Math.min(1.0, (double) (totalRunNanos - previous.totalRunNanos) / ((double) elapsed * threads));
+    }
+
+  }
+
+  private static final TaskTimingListener NO_LISTENER = (queueWaitNanos, runNanos, failed) -> {
+  };
+
+  private final ExecutorService delegate;
+  private final TaskTimingListener listener;
+
+  private final LongAdder submitted = new LongAdder();
+  private final LongAdder completed = new LongAdder();
+  private final LongAdder failed = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+  private final AtomicInteger active = new AtomicInteger();
+  private final LongAdder totalQueueWaitNanos = new LongAdder();
+  private final LongAccumulator maxQueueWaitNanos = new LongAccumulator(Math::max, 0);
+  private final LongAdder totalRunNanos = new LongAdder();
+  private final LongAccumulator maxRunNanos = new LongAccumulator(Math::max, 0);
+
+  public InstrumentedExecutorService(ExecutorService delegate) {
+    this(delegate, NO_LISTENER);
+  }
+
+  public InstrumentedExecutorService(ExecutorService delegate, TaskTimingListener listener) {
+    this.delegate = delegate;
+    this.listener = listener;
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    long enqueuedAt = System.nanoTime();
+    submitted.increment();
+    try {
+      delegate.execute(new InstrumentedTask(command, enqueuedAt));
+    } catch (RejectedExecutionException e) {
+      submitted.decrement();
+      rejected.increment();
+      throw e;
+    }
+  }
+
+  public Metrics metrics() {
+    long started = completed.sum() + active.get();
+    return new Metrics(
+        System.nanoTime(),
+        threads(),
+        submitted.sum(),
+        completed.sum(),
+        failed.sum(),
+        rejected.sum(),
+        active.get(),
+        Math.max(0, submitted.sum() - started),
+        totalQueueWaitNanos.sum(),
+        maxQueueWaitNanos.get(),
+        totalRunNanos.sum(),
+        maxRunNanos.get());
+  }
+
+  @Override
+  public void shutdown() {
+    delegate.shutdown();
+  }
+
+  /**
+   * Returns the tasks that never started as they were handed to this executor.
+   */
+  @Override
+  public List<Runnable> shutdownNow() {
+    return delegate.shutdownNow().stream()
+        .map(task -> task instanceof InstrumentedTask instrumented ? instrumented.command() : task)
+        .toList();
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return delegate.isShutdown();
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return delegate.isTerminated();
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    return delegate.awaitTermination(timeout, unit);
+  }
+
+  private final class InstrumentedTask implements Runnable {
+
+    private final Runnable command;
+    private final long enqueuedAt;
+
+    InstrumentedTask(Runnable command, long enqueuedAt) {
+      this.command = command;
+      this.enqueuedAt = enqueuedAt;
+    }
+
+    Runnable command() {
+      return command;
+    }
+
+    @Override
+    public void run() {
+      InstrumentedExecutorService.this.run(command, enqueuedAt);
+    }
+
+  }
+
+  private void run(Runnable command, long enqueuedAt) {
+    long startedAt = System.nanoTime();
+    active.incrementAndGet();
+    boolean taskFailed = true;
+    try {
+      command.run();
+      taskFailed = hasFailed(command);
+    } finally {
+      long finishedAt = System.nanoTime();
+      active.decrementAndGet();
+      record(startedAt - enqueuedAt, finishedAt - startedAt, taskFailed);
+    }
+  }
+
+  private void record(long queueWaitNanos, long runNanos, boolean taskFailed) {
+    completed.increment();
+    if (taskFailed) {
+      failed.increment();
+    }
+    totalQueueWaitNanos.add(queueWaitNanos);
+    maxQueueWaitNanos.accumulate(queueWaitNanos);
+    totalRunNanos.add(runNanos);
+    maxRunNanos.accumulate(runNanos);
+    listener.taskFinished(queueWaitNanos, runNanos, taskFailed);
+  }
+
+  // submit() wraps tasks in futures that swallow exceptions, so look at the outcome
+  private static boolean hasFailed(Runnable command) {
+    if (command instanceof Future<?> future && future.isDone() && !future.isCancelled()) {
+      try {
+        Futures.getDone(future);
+      } catch (ExecutionException e) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // a cached pool's maximum is Integer.MAX_VALUE, so count the threads it has now
+  private int threads() {
+    if (delegate instanceof ThreadPoolExecutor pool) {
+      return Math.max(pool.getPoolSize(), pool.getCorePoolSize());
+    }
+    if (delegate instanceof ForkJoinPool pool) {
+      return pool.getParallelism();
+    }
+    return 0;
+  }
+
+}
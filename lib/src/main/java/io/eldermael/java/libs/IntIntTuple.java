@@ -0,0 +1,32 @@
+package io.eldermael.java.libs;
+
+import io.vavr.Tuple;
+import io.vavr.Tuple2;
+import org.javatuples.Pair;
+
+/**
+ * An {@code (int, int)} pair without boxing either side.
+ */
+public record IntIntTuple(int _1, int _2) {
+
+  public static IntIntTuple of(int _1, int _2) {
+    return new IntIntTuple(_1, _2);
+  }
+
+  public static IntIntTuple of(Tuple2<? extends Number, ? extends Number> tuple) {
+    return new IntIntTuple(tuple._1.intValue(), tuple._2.intValue());
+  }
+
+  public static IntIntTuple of(Pair<? extends Number, ? extends Number> pair) {
+    return new IntIntTuple(pair.getValue0().intValue(), pair.getValue1().intValue());
+  }
+
+  public Tuple2<Integer, Integer> toTuple2() {
+    return Tuple.of(_1, _2);
+  }
+
+  public Pair<Integer, Integer> toPair() {
+    return Pair.with(_1, _2);
+  }
+
+}
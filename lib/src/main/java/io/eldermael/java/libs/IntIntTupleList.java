@@ -0,0 +1,100 @@
+package io.eldermael.java.libs;
+
+import com.google.common.base.Preconditions;
+import io.vavr.Tuple2;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Growable list of {@code (int, int)} pairs interleaved in a single {@code int[]}.
+ */
+public class IntIntTupleList {
+
+  public interface IntIntConsumer {
+    void accept(int first, int second);
+  }
+
+  private int[] values;
+  private int size;
+
+  public IntIntTupleList() {
+    this(16);
+  }
+
+  public IntIntTupleList(int initialCapacity) {
+    Preconditions.checkArgument(initialCapacity >= 0, "Capacity must not be negative: %s", initialCapacity);
+    values = new int[initialCapacity * 2];
+  }
+
+  public static IntIntTupleList fromTuples(Iterable<? extends Tuple2<? extends Number, ? extends Number>> tuples) {
+    var list = new IntIntTupleList();
+    tuples.forEach(tuple -> list.add(tuple._1.intValue(), tuple._2.intValue()));
+    return list;
+  }
+
+  public void add(int first, int second) {
+    if (size * 2 == values.length) {
+      grow();
+    }
+    values[size * 2] = first;
+    values[size * 2 + 1] = second;
+    size++;
+  }
+
+  public void add(IntIntTuple tuple) {
+    add(tuple._1(), tuple._2());
+  }
+
+  public int first(int index) {
+    Objects.checkIndex(index, size);
+    return values[index * 2];
+  }
+
+  public int second(int index) {
+    Objects.checkIndex(index, size);
+    return values[index * 2 + 1];
+  }
+
+  public IntIntTuple get(int index) {
+    return IntIntTuple.of(first(index), second(index));
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public void forEach(IntIntConsumer consumer) {
+    for (int i = 0; i < size; i++) {
+      consumer.accept(values[i * 2], values[i * 2 + 1]);
+    }
+  }
+
+  public long sumOfSeconds() {
+    long sum = 0;
+    for (int i = 0; i < size; i++) {
+      sum += values[i * 2 + 1];
+    }
+    return sum;
+  }
+
+  public List<Tuple2<Integer, Integer>> toTuples() {
+    var tuples = new ArrayList<Tuple2<Integer, Integer>>(size);
+    for (int i = 0; i < size; i++) {
+      tuples.add(get(i).toTuple2());
+    }
+    return tuples;
+  }
+
+  private void grow() {
+    int capacity = Math.max(16, size + (size >> 1));
+    values = Arrays.copyOf(values, capacity * 2);
+  }
+
+}
@@ -0,0 +1,32 @@
+package io.eldermael.java.libs;
+
+import io.vavr.Tuple;
+import io.vavr.Tuple2;
+import org.javatuples.Pair;
+
+/**
+ * A {@code (long, double)} pair without boxing either side.
+ */
+public record LongDoubleTuple(long _1, double _2) {
+
+  public static LongDoubleTuple of(long _1, double _2) {
+    return new LongDoubleTuple(_1, _2);
+  }
+
+  public static LongDoubleTuple of(Tuple2<? extends Number, ? extends Number> tuple) {
+    return new LongDoubleTuple(tuple._1.longValue(), tuple._2.doubleValue());
+  }
+
+  public static LongDoubleTuple of(Pair<? extends Number, ? extends Number> pair) {
+    return new LongDoubleTuple(pair.getValue0().longValue(), pair.getValue1().doubleValue());
+  }
+
+  public Tuple2<Long, Double> toTuple2() {
+    return Tuple.of(_1, _2);
+  }
+
+  public Pair<Long, Double> toPair() {
+    return Pair.with(_1, _2);
+  }
+
+}
@@ -0,0 +1,103 @@
+package io.eldermael.java.libs;
+
+import com.google.common.base.Preconditions;
+import io.vavr.Tuple2;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Growable list of {@code (long, double)} pairs stored in two parallel arrays.
+ */
+public class LongDoubleTupleList {
+
+  public interface LongDoubleConsumer {
+    void accept(long first, double second);
+  }
+
+  private long[] firsts;
+  private double[] seconds;
+  private int size;
+
+  public LongDoubleTupleList() {
+    this(16);
+  }
+
+  public LongDoubleTupleList(int initialCapacity) {
+    Preconditions.checkArgument(initialCapacity >= 0, "Capacity must not be negative: %s", initialCapacity);
+    firsts = new long[initialCapacity];
+    seconds = new double[initialCapacity];
+  }
+
+  public static LongDoubleTupleList fromTuples(Iterable<? extends Tuple2<? extends Number, ? extends Number>> tuples) {
+    var list = new LongDoubleTupleList();
+    tuples.forEach(tuple -> list.add(tuple._1.longValue(), tuple._2.doubleValue()));
+    return list;
+  }
+
+  public void add(long first, double second) {
+    if (size == firsts.length) {
+      grow();
+    }
+    firsts[size] = first;
+    seconds[size] = second;
+    size++;
+  }
+
+  public void add(LongDoubleTuple tuple) {
+    add(tuple._1(), tuple._2());
+  }
+
+  public long first(int index) {
+    Objects.checkIndex(index, size);
+    return firsts[index];
+  }
+
+  public double second(int index) {
+    Objects.checkIndex(index, size);
+    return seconds[index];
+  }
+
+  public LongDoubleTuple get(int index) {
+    return LongDoubleTuple.of(first(index), second(index));
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public void forEach(LongDoubleConsumer consumer) {
+    for (int i = 0; i < size; i++) {
+      consumer.accept(firsts[i], seconds[i]);
+    }
+  }
+
+  public double sumOfSeconds() {
+    double sum = 0;
+    for (int i = 0; i < size; i++) {
+      sum += seconds[i];
+    }
+    return sum;
+  }
+
+  public List<Tuple2<Long, Double>> toTuples() {
+    var tuples = new ArrayList<Tuple2<Long, Double>>(size);
+    for (int i = 0; i < size; i++) {
+      tuples.add(get(i).toTuple2());
+    }
+    return tuples;
+  }
+
+  private void grow() {
+    int capacity = Math.max(16, firsts.length + (firsts.length >> 1));
+    firsts = Arrays.copyOf(firsts, capacity);
+    seconds = Arrays.copyOf(seconds, capacity);
+  }
+
+}
@@ -6,4 +6,16 @@ public class MailException extends RuntimeException {
     super(message);
   }
 
+  protected MailException(String message, boolean writableStackTrace) {
+    super(message, null, false, writableStackTrace);
+  }
+
+  /**
+   * Creates an exception without a stack trace or suppressed exceptions, which is
+   * cheap enough to throw on every failed send during an outage.
+   */
+  public static MailException stackless(String message) {
+    return new MailException(message, false);
+  }
+
 }
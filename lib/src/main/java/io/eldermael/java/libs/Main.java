@@ -1,9 +1,106 @@
 package io.eldermael.java.libs;
 
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Entry point for short-lived batch invocations.
+ * <p>
+ * Usage: {@code Main [--warm-up[=iterations]] <command> <argument>} where command is
+ * {@code query <expression>}, which filters the sample records with
+ * {@link RecordQuery}, or {@code parse <file>}, which sums a batch file with
+ * {@link BatchLineParser}.
+ * <p>
+ * The JVM only loads the classes of the chosen command, and {@link RecordProperties}
+ * compiles a getter the first time a query uses it. {@code --warm-up} runs
+ * {@link HotPaths} before the real work so it meets compiled code. Together with the
+ * AppCDS archive from {@code ./gradlew cdsArchive} this is the fast-start mode.
+ * <p>
+ * Bad arguments and malformed queries exit with {@link #USAGE}, unreadable files
+ * and bad lines with {@link #FAILED}.
+ */
 public class Main {
 
+  static final int OK = 0;
+  static final int FAILED = 1;
+  static final int USAGE = 2;
+
+  private static final String WARM_UP = "--warm-up";
+  private static final int DEFAULT_WARM_UP_ITERATIONS = 10_000;
+
   public static void main(String... args) {
+    System.exit(run(System.out, args));
+  }
+
+  static int run(PrintStream out, String... args) {
+    int next = 0;
+    if (args.length > 0 && args[0].startsWith(WARM_UP)) {
+      int iterations = warmUpIterations(args[0]);
+      if (iterations < 0) {
+        return usage(out);
+      }
+      HotPaths.warmUp(iterations);
+      next++;
+    }
+
+    if (args.length - next != 2) {
+      return usage(out);
+    }
+
+    var argument = args[next + 1];
+    switch (args[next]) {
+      case "query" -> {
+        List<Record> matches;
+        try {
+          matches = RecordQuery.filter(argument, Record.sampleData());
+        } catch (IllegalArgumentException e) {
+          out.println("Invalid query: " + e.getMessage());
+          return USAGE;
+        }
+        out.println(matches.stream().map(Record::getName).collect(Collectors.joining(",")));
+        return OK;
+      }
+      case "parse" -> {
+        BatchLineParser.ParseReport report;
+        try {
+          report = BatchLineParser.skipAndReport().parse(Path.of(argument));
+        } catch (UncheckedIOException | InvalidPathException e) {
+          out.println("Cannot read batch file: " + e.getMessage());
+          return FAILED;
+        }
+        out.println(Arrays.stream(report.values()).asLongStream().sum());
+        report.errors().forEach(error -> out.println("line " + error.lineNumber() + ": " + error.reason()));
+        return report.hasErrors() ? FAILED : OK;
+      }
+      default -> {
+        return usage(out);
+      }
+    }
+  }
+
+  // -1 when the option is malformed
+  private static int warmUpIterations(String option) {
+    if (option.equals(WARM_UP)) {
+      return DEFAULT_WARM_UP_ITERATIONS;
+    }
+    if (!option.startsWith(WARM_UP + "=")) {
+      return -1;
+    }
+    try {
+      return Integer.parseUnsignedInt(option.substring(WARM_UP.length() + 1));
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
 
+  private static int usage(PrintStream out) {
+    out.println("Usage: Main [--warm-up[=iterations]] (query <expression> | parse <file>)");
+    return USAGE;
   }
 
 }
@@ -0,0 +1,32 @@
+package io.eldermael.java.libs;
+
+import io.vavr.Tuple;
+import io.vavr.Tuple2;
+import org.javatuples.Pair;
+
+/**
+ * An {@code (object, double)} pair such as {@code (code, amount)} without boxing the double.
+ */
+public record ObjDoubleTuple<T>(T _1, double _2) {
+
+  public static <T> ObjDoubleTuple<T> of(T _1, double _2) {
+    return new ObjDoubleTuple<>(_1, _2);
+  }
+
+  public static <T> ObjDoubleTuple<T> of(Tuple2<T, ? extends Number> tuple) {
+    return new ObjDoubleTuple<>(tuple._1, tuple._2.doubleValue());
+  }
+
+  public static <T> ObjDoubleTuple<T> of(Pair<T, ? extends Number> pair) {
+    return new ObjDoubleTuple<>(pair.getValue0(), pair.getValue1().doubleValue());
+  }
+
+  public Tuple2<T, Double> toTuple2() {
+    return Tuple.of(_1, _2);
+  }
+
+  public Pair<T, Double> toPair() {
+    return Pair.with(_1, _2);
+  }
+
+}
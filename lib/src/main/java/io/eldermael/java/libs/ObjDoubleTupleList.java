@@ -0,0 +1,103 @@
+package io.eldermael.java.libs;
+
+import com.google.common.base.Preconditions;
+import io.vavr.Tuple2;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.ObjDoubleConsumer;
+
+/**
+ * Growable list of {@code (object, double)} pairs stored in two parallel arrays,
+ * so no tuple or {@link Double} is allocated per element.
+ */
+public class ObjDoubleTupleList<T> {
+
+  private Object[] firsts;
+  private double[] seconds;
+  private int size;
+
+  public ObjDoubleTupleList() {
+    this(16);
+  }
+
+  public ObjDoubleTupleList(int initialCapacity) {
+    Preconditions.checkArgument(initialCapacity >= 0, "Capacity must not be negative: %s", initialCapacity);
+    firsts = new Object[initialCapacity];
+    seconds = new double[initialCapacity];
+  }
+
+  public static <T> ObjDoubleTupleList<T> fromTuples(Iterable<? extends Tuple2<T, ? extends Number>> tuples) {
+    var list = new ObjDoubleTupleList<T>();
+    tuples.forEach(tuple -> list.add(tuple._1, tuple._2.doubleValue()));
+    return list;
+  }
+
+  public void add(T first, double second) {
+    if (size == firsts.length) {
+      grow();
+    }
+    firsts[size] = first;
+    seconds[size] = second;
+    size++;
+  }
+
+  public void add(ObjDoubleTuple<T> tuple) {
+    add(tuple._1(), tuple._2());
+  }
+
+  @SuppressWarnings("unchecked")
+  public T first(int index) {
+    Objects.checkIndex(index, size);
+    return (T) firsts[index];
+  }
+
+  public double second(int index) {
+    Objects.checkIndex(index, size);
+    return seconds[index];
+  }
+
+  public ObjDoubleTuple<T> get(int index) {
+    return ObjDoubleTuple.of(first(index), second(index));
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @SuppressWarnings("unchecked")
+  public void forEach(ObjDoubleConsumer<? super T> consumer) {
+    for (int i = 0; i < size; i++) {
+      consumer.accept((T) firsts[i], seconds[i]);
+    }
+  }
+
+  public double sumOfSeconds() {
+    double sum = 0;
+    for (int i = 0; i < size; i++) {
+      sum += seconds[i];
+    }
+    return sum;
+  }
+
+  public List<Tuple2<T, Double>> toTuples() {
+    var tuples = new ArrayList<Tuple2<T, Double>>(size);
+    for (int i = 0; i < size; i++) {
+      tuples.add(get(i).toTuple2());
+    }
+    return tuples;
+  }
+
+  private void grow() {
+    int capacity = Math.max(16, firsts.length + (firsts.length >> 1));
+    firsts = Arrays.copyOf(firsts, capacity);
+    seconds = Arrays.copyOf(seconds, capacity);
+  }
+
+}
@@ -0,0 +1,254 @@
+package io.eldermael.java.libs;
+
+import com.google.common.base.Preconditions;
+import com.google.common.hash.Hashing;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * {@link EmailQueue} split into partitions by a key taken from the message, such as
+ * the recipient, so producers falling back at the same time rarely share a lock.
+ * <p>
+ * Every partition has its own storage and a single consumer thread, so messages
+ * with the same key are consumed in the order they were persisted. Keys are mapped
+ * with consistent hashing, so {@link #resize(int)} gives most keys the same
+ * partition number as before. It still re-buckets every pending message into the
+ * new layout, keeping the order of each key. Writes that reach an old partition
+ * after that go straight to the new layout. Producers never block, including
+ * consumers that persist a message again while a resize waits for them.
+ * <p>
+ * Consumers take up to 64 messages per lock acquisition; {@link #close()} and
+ * {@link #resize(int)} let them finish what they took first.
+ */
+@Slf4j
+public class PartitionedEmailQueue implements EmailQueue, AutoCloseable {
+
+  private static final int MAX_BATCH = 64;
+
+  private final Function<String, String> partitionKey;
+  private final Consumer<String> consumer;
+
+  private volatile Partition[] partitions;
+  private boolean started;
+
+  public PartitionedEmailQueue(int partitions, Function<String, String> partitionKey, Consumer<String> consumer) {
+    this.partitionKey = partitionKey;
+    this.consumer = consumer;
+    this.partitions = newPartitions(partitions);
+  }
+
+  @Override
+  public ProcessResult persistEmailForLater(String message) {
+    var current = partitions;
+    current[partitionOf(partitionKey.apply(message), current.length)].offer(message);
+    return ProcessResult.SUCCESS;
+  }
+
+  public synchronized void start() {
+    Preconditions.checkState(!started, "Queue consumers already started");
+    started = true;
+    startConsumers(partitions);
+  }
+
+  /**
+   * Moves every pending message to a layout of {@code count} partitions. Consumers
+   * of the old layout finish the message they hold before the new ones start.
+   */
+  public synchronized void resize(int count) {
+    var old = partitions;
+    if (count == old.length) {
+      return;
+    }
+    var next = newPartitions(count);
+    for (var partition : old) {
+      partition.sealInto(next);
+    }
+    // new writes already land in next, its consumers start once the old ones are done
+    partitions = next;
+    for (var partition : old) {
+      partition.awaitConsumer();
+    }
+    if (started) {
+      startConsumers(next);
+    }
+    log.info("Repartitioned email queue from {} to {} partitions", old.length, count);
+  }
+
+  public int partitionCount() {
+    return partitions.length;
+  }
+
+  public int pendingCount() {
+    return Arrays.stream(partitions).mapToInt(Partition::size).sum();
+  }
+
+  public int partitionOf(String key) {
+    return partitionOf(key, partitions.length);
+  }
+
+  /**
+   * Stops the consumers after their current message; pending messages stay queued.
+   */
+  @Override
+  public synchronized void close() {
+    for (var partition : partitions) {
+      partition.stop();
+    }
+    for (var partition : partitions) {
+      partition.awaitConsumer();
+    }
+    started = false;
+  }
+
+  private static int partitionOf(String key, int count) {
+    return Hashing.consistentHash(key.hashCode(), count);
+  }
+
+  private Partition[] newPartitions(int count) {
+    Preconditions.checkArgument(count > 0, "Partition count must be positive, you passed: %s", count);
+    var created = new Partition[count];
+    for (int i = 0; i < count; i++) {
+      created[i] = new Partition();
+    }
+    return created;
+  }
+
+  private void startConsumers(Partition[] layout) {
+    for (int i = 0; i < layout.length; i++) {
+      layout[i].start("email-partition-" + i);
+    }
+  }
+
+  private final class Partition {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final ArrayDeque<String> messages = new ArrayDeque<>();
+    private Partition[] sealedInto;
+    private boolean stopped;
+    private Thread thread;
+
+    void offer(String message) {
+      Partition[] next;
+      lock.lock();
+      try {
+        next = sealedInto;
+        if (next == null) {
+          // the consumer only waits on an empty partition
+          if (messages.isEmpty()) {
+            notEmpty.signal();
+          }
+          messages.add(message);
+          return;
+        }
+      } finally {
+        lock.unlock();
+      }
+      // sealed by resize(), after its pending messages were moved, so order is kept
+      next[partitionOf(partitionKey.apply(message), next.length)].offer(message);
+    }
+
+    /**
+     * Moves the pending messages to {@code next} and forwards later writes there.
+     */
+    void sealInto(Partition[] next) {
+      lock.lock();
+      try {
+        for (var message : messages) {
+          next[partitionOf(partitionKey.apply(message), next.length)].offer(message);
+        }
+        messages.clear();
+        sealedInto = next;
+        notEmpty.signal();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    void stop() {
+      lock.lock();
+      try {
+        stopped = true;
+        notEmpty.signal();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    int size() {
+      lock.lock();
+      try {
+        return messages.size();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    void start(String name) {
+      lock.lock();
+      try {
+        stopped = false;
+      } finally {
+        lock.unlock();
+      }
+      thread = new Thread(this::consume, name);
+      thread.setDaemon(true);
+      thread.start();
+    }
+
+    void awaitConsumer() {
+      if (thread == null) {
+        return;
+      }
+      boolean interrupted = false;
+      while (thread.isAlive()) {
+        try {
+          thread.join();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    private void consume() {
+      var batch = new ArrayList<String>(MAX_BATCH);
+      while (true) {
+        lock.lock();
+        try {
+          while (messages.isEmpty() && sealedInto == null && !stopped) {
+            notEmpty.awaitUninterruptibly();
+          }
+          if (sealedInto != null || stopped) {
+            return;
+          }
+          while (batch.size() < MAX_BATCH && !messages.isEmpty()) {
+            batch.add(messages.poll());
+          }
+        } finally {
+          lock.unlock();
+        }
+
+        for (var message : batch) {
+          try {
+            consumer.accept(message);
+          } catch (RuntimeException e) {
+            log.warn("Consumer failed on queued email, moving on", e);
+          }
+        }
+        batch.clear();
+      }
+    }
+
+  }
+
+}
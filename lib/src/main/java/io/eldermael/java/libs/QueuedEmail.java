@@ -0,0 +1,12 @@
+package io.eldermael.java.libs;
+
+/**
+ * A message waiting in a {@link DrainableEmailQueue}, due for delivery at {@code dueAtNanos}.
+ */
+public record QueuedEmail(long id, String message, int attempts, long dueAtNanos) {
+
+  public QueuedEmail retryAt(long dueAtNanos) {
+    return new QueuedEmail(id, message, attempts + 1, dueAtNanos);
+  }
+
+}
@@ -0,0 +1,38 @@
+package io.eldermael.java.libs;
+
+import io.vavr.control.Either;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link EmailSender} that stays inside the mail provider's quotas.
+ * <p>
+ * The synchronous methods fail with {@code "Rate limit exceeded"} without calling
+ * the provider when a quota is used up; {@link #sendAlertEmailAsync(String)} waits
+ * for a permit instead.
+ */
+public class RateLimitedEmailSender extends EmailSender {
+
+  static final String RATE_LIMITED = "Rate limit exceeded";
+
+  private final EmailSender delegate;
+  private final TokenBucketRateLimiter limiter;
+
+  public RateLimitedEmailSender(EmailSender delegate, TokenBucketRateLimiter limiter) {
+    this.delegate = delegate;
+    this.limiter = limiter;
+  }
+
+  public CompletableFuture<Either<String, ProcessResult>> sendAlertEmailAsync(String message) {
+    return limiter.acquire().thenApply(permit -> delegate.trySendAlertEmail(message));
+  }
+
+  @Override
+  protected Either<String, ProcessResult> deliver(String message) {
+    // the delegate's own deliver, so the send is recorded once, by this sender
+    return limiter.tryAcquire()
+        ? delegate.deliver(message)
+        : Either.left(RATE_LIMITED);
+  }
+
+}
@@ -0,0 +1,553 @@
+package io.eldermael.java.libs;
+
+import com.google.common.base.Preconditions;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Imports {@link Record}s from CSV files of {@code name,code,amount,description}.
+ * <p>
+ * The file is cut into chunks at line boundaries and each chunk is read into a
+ * byte array and parsed on the executor, without decoding whole lines or splitting
+ * them into strings. Repeated field values go through a bounded intern table, a
+ * direct-mapped cache shared by all chunks of one import, so a column with a few
+ * distinct codes keeps a few {@code String}s instead of one per row. Fields may be
+ * quoted with {@code "} and quotes escaped as {@code ""}, but a quoted field cannot
+ * span lines. An empty amount is imported as null.
+ * <p>
+ * A malformed line fails the import with an {@link IllegalArgumentException} naming
+ * its byte offset. The sink may already have received other chunks by then: those
+ * before the failing one for ordered imports, any of them for unordered ones. Chunks
+ * not parsed yet are dropped and running ones are waited for, so the sink gets
+ * nothing more once the import has thrown. Use
+ * {@link #skippingMalformedLines(Consumer)} to import every other line instead.
+ */
+public final class RecordCsvImporter {
+
+  /**
+   * A line that was skipped, with the byte offset where it starts.
+   */
+  public record MalformedLine(long offset, String reason) {
+  }
+
+  public static final int DEFAULT_CHUNK_BYTES = 4 << 20;
+  public static final int DEFAULT_INTERN_SLOTS = 1 << 14;
+  public static final int DEFAULT_MAX_INTERNED_LENGTH = 32;
+
+  private static final int FIELDS = 4;
+  private static final double[] POWERS_OF_TEN = {
+      1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+      1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  };
+
+  private final boolean header;
+  private final int chunkBytes;
+  private final int internSlots;
+  private final int maxInternedLength;
+  private final Executor executor;
+  private final Consumer<MalformedLine> malformedLines;
+
+  private RecordCsvImporter(boolean header,
+                            int chunkBytes,
+                            int internSlots,
+                            int maxInternedLength,
+                            Executor executor,
+                            Consumer<MalformedLine> malformedLines) {
+    this.header = header;
+    this.chunkBytes = chunkBytes;
+    this.internSlots = internSlots;
+    this.maxInternedLength = maxInternedLength;
+    this.executor = executor;
+    this.malformedLines = malformedLines;
+  }
+
+  public static RecordCsvImporter create() {
+    return new RecordCsvImporter(
+        false, DEFAULT_CHUNK_BYTES, DEFAULT_INTERN_SLOTS, DEFAULT_MAX_INTERNED_LENGTH, ForkJoinPool.commonPool(), null);
+  }
+
+  public RecordCsvImporter skippingHeader() {
+    return new RecordCsvImporter(true, chunkBytes, internSlots, maxInternedLength, executor, malformedLines);
+  }
+
+  /**
+   * Skips malformed lines instead of failing, handing each one to {@code report}.
+   * Chunks are parsed concurrently, so {@code report} must be thread-safe and is
+   * not called in file order.
+   */
+  public RecordCsvImporter skippingMalformedLines(Consumer<MalformedLine> report) {
+    Preconditions.checkNotNull(report, "Malformed line report is null");
+    return new RecordCsvImporter(header, chunkBytes, internSlots, maxInternedLength, executor, report);
+  }
+
+  public RecordCsvImporter withChunkBytes(int chunkBytes) {
+    Preconditions.checkArgument(chunkBytes > 0, "Chunk size must be positive, you passed: %s", chunkBytes);
+    return new RecordCsvImporter(header, chunkBytes, internSlots, maxInternedLength, executor, malformedLines);
+  }
+
+  /**
+   * Values longer than {@code maxInternedLength} bytes are never interned; zero
+   * slots turns interning off.
+   */
+  public RecordCsvImporter withInternTable(int slots, int maxInternedLength) {
+    Preconditions.checkArgument(
+        slots == 0 || Integer.bitCount(slots) == 1,
+        "Intern slots must be zero or a power of two, you passed: %s",
+        slots);
+    return new RecordCsvImporter(
+        header, chunkBytes, slots, slots == 0 ? -1 : maxInternedLength, executor, malformedLines);
+  }
+
+  public RecordCsvImporter on(Executor executor) {
+    return new RecordCsvImporter(header, chunkBytes, internSlots, maxInternedLength, executor, malformedLines);
+  }
+
+  /**
+   * Every record of the file, in file order.
+   */
+  public List<Record> importAll(Path file) {
+    var records = new ArrayList<Record>();
+    importTo(file, records::addAll, true);
+    return records;
+  }
+
+  /**
+   * Feeds the records to {@code sink} one chunk at a time and returns the number of
+   * records. Ordered imports deliver the chunks in file order from the calling
+   * thread, keeping only a few parsed chunks in memory; unordered imports deliver
+   * each chunk from the executor as soon as it is parsed, so the sink must be
+   * thread-safe.
+   */
+  public long importTo(Path file, Consumer<List<Record>> sink, boolean ordered) {
+    try (var channel = FileChannel.open(file)) {
+      var boundaries = boundaries(channel);
+      var intern = new InternTable(internSlots, maxInternedLength);
+      return ordered
+          ? importOrdered(channel, boundaries, intern, sink)
+          : importUnordered(channel, boundaries, intern, sink);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Error importing records from '" + file + "'", e);
+    }
+  }
+
+  private long importOrdered(FileChannel channel, long[] boundaries, InternTable intern, Consumer<List<Record>> sink) {
+    int window = Math.max(2, 2 * Runtime.getRuntime().availableProcessors());
+    var tasks = new ChunkTasks();
+    var inFlight = new ArrayDeque<CompletableFuture<List<Record>>>();
+    long records = 0;
+    int next = 0;
+    try {
+      while (next < boundaries.length - 1 || !inFlight.isEmpty()) {
+        while (next < boundaries.length - 1 && inFlight.size() < window) {
+          long from = boundaries[next];
+          long to = boundaries[++next];
+          inFlight.add(tasks.submit(() -> parse(channel, from, to, intern)));
+        }
+        var chunk = join(inFlight.poll());
+        records += chunk.size();
+        sink.accept(chunk);
+      }
+    } finally {
+      tasks.abandon();
+    }
+    return records;
+  }
+
+  private long importUnordered(FileChannel channel, long[] boundaries, InternTable intern, Consumer<List<Record>> sink) {
+    var tasks = new ChunkTasks();
+    var chunks = new ArrayList<CompletableFuture<Integer>>();
+    long records = 0;
+    try {
+      for (int i = 0; i < boundaries.length - 1; i++) {
+        long from = boundaries[i];
+        long to = boundaries[i + 1];
+        chunks.add(tasks.submit(() -> {
+          var chunk = parse(channel, from, to, intern);
+          tasks.checkNotAbandoned();
+          sink.accept(chunk);
+          return chunk.size();
+        }));
+      }
+      for (var chunk : chunks) {
+        records += join(chunk);
+      }
+    } finally {
+      tasks.abandon();
+    }
+    return records;
+  }
+
+  private List<Record> parse(FileChannel channel, long from, long to, InternTable intern) {
+    return new ChunkParser(read(channel, from, to), from, intern, malformedLines).parse();
+  }
+
+  private static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  private static byte[] read(FileChannel channel, long from, long to) {
+    Preconditions.checkState(to - from <= Integer.MAX_VALUE - 8, "Line at byte offset %s is too long", from);
+    var bytes = new byte[(int) (to - from)];
+    var buffer = ByteBuffer.wrap(bytes);
+    try {
+      while (buffer.hasRemaining()) {
+        if (channel.read(buffer, from + buffer.position()) < 0) {
+          throw new IOException("File ended before byte offset " + to);
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return bytes;
+  }
+
+  // Chunk starts, each at the beginning of a line, followed by the file size
+  private long[] boundaries(FileChannel channel) throws IOException {
+    long size = channel.size();
+    var starts = new ArrayList<Long>();
+    long start = header ? lineAfter(channel, 0, size) : 0;
+    while (start < size) {
+      starts.add(start);
+      start = lineAfter(channel, start + chunkBytes - 1, size);
+    }
+    starts.add(size);
+    return starts.stream().mapToLong(Long::longValue).toArray();
+  }
+
+  // Position after the first newline at or after {@code position}
+  private static long lineAfter(FileChannel channel, long position, long size) throws IOException {
+    var buffer = ByteBuffer.allocate(8 << 10);
+    while (position < size) {
+      buffer.clear();
+      int read = channel.read(buffer, position);
+      if (read < 0) {
+        break;
+      }
+      for (int i = 0; i < read; i++) {
+        if (buffer.get(i) == '\n') {
+          return position + i + 1;
+        }
+      }
+      position += read;
+    }
+    return size;
+  }
+
+  /**
+   * Chunk tasks of one import. Once the import is over, tasks that have not started
+   * skip their work, and {@link #abandon()} waits for the running ones, so none
+   * reads the closed channel or feeds the sink after the import has returned.
+   */
+  private final class ChunkTasks {
+
+    private int running;
+    private volatile boolean abandoned;
+
+    <T> CompletableFuture<T> submit(Supplier<T> task) {
+      started();
+      try {
+        return CompletableFuture.supplyAsync(() -> {
+          try {
+            checkNotAbandoned();
+            return task.get();
+          } finally {
+            finished();
+          }
+        }, executor);
+      } catch (RejectedExecutionException e) {
+        finished();
+        throw e;
+      }
+    }
+
+    void checkNotAbandoned() {
+      if (abandoned) {
+        throw new CancellationException("Import is over");
+      }
+    }
+
+    synchronized void abandon() {
+      abandoned = true;
+      boolean interrupted = false;
+      while (running > 0) {
+        try {
+          wait();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    private synchronized void started() {
+      running++;
+    }
+
+    private synchronized void finished() {
+      if (--running == 0) {
+        notifyAll();
+      }
+    }
+
+  }
+
+  /**
+   * Direct-mapped and lossy: a colliding value replaces the slot. Chunks share it
+   * without locking because strings are safe to publish through a race.
+   */
+  private static final class InternTable {
+
+    private final String[] slots;
+    private final int maxLength;
+
+    InternTable(int slots, int maxLength) {
+      this.slots = new String[slots];
+      this.maxLength = maxLength;
+    }
+
+    String intern(byte[] bytes, int from, int to) {
+      int length = to - from;
+      if (length == 0) {
+        return "";
+      }
+      if (length > maxLength) {
+        return new String(bytes, from, length, StandardCharsets.UTF_8);
+      }
+
+      int hash = 0;
+      boolean ascii = true;
+      for (int i = from; i < to; i++) {
+        hash = 31 * hash + bytes[i];
+        ascii &= bytes[i] >= 0;
+      }
+      int slot = (hash ^ (hash >>> 16)) & (slots.length - 1);
+      var cached = slots[slot];
+      if (cached != null && ascii && sameAscii(cached, bytes, from, length)) {
+        return cached;
+      }
+
+      var value = new String(bytes, from, length, ascii ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+      if (value.equals(cached)) {
+        return cached;
+      }
+      slots[slot] = value;
+      return value;
+    }
+
+    private static boolean sameAscii(String value, byte[] bytes, int from, int length) {
+      if (value.length() != length) {
+        return false;
+      }
+      for (int i = 0; i < length; i++) {
+        if (value.charAt(i) != bytes[from + i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+  }
+
+  private static final class ChunkParser {
+
+    private final byte[] bytes;
+    private final long offset;
+    private final InternTable intern;
+    private final Consumer<MalformedLine> malformedLines;
+    private final String[] fields = new String[FIELDS];
+    private int position;
+    private int lineStart;
+
+    ChunkParser(byte[] bytes, long offset, InternTable intern, Consumer<MalformedLine> malformedLines) {
+      this.bytes = bytes;
+      this.offset = offset;
+      this.intern = intern;
+      this.malformedLines = malformedLines;
+    }
+
+    List<Record> parse() {
+      var records = new ArrayList<Record>(Math.max(16, bytes.length / 48));
+      while (position < bytes.length) {
+        lineStart = position;
+        int lineEnd = lineStart;
+        while (lineEnd < bytes.length && bytes[lineEnd] != '\n') {
+          lineEnd++;
+        }
+        position = lineEnd + 1;
+        if (lineEnd > lineStart && bytes[lineEnd - 1] == '\r') {
+          lineEnd--;
+        }
+        if (lineEnd > lineStart) {
+          parseLine(lineStart, lineEnd, records);
+        }
+      }
+      return records;
+    }
+
+    private void parseLine(int from, int to, List<Record> records) {
+      if (malformedLines == null) {
+        records.add(parseLine(from, to));
+        return;
+      }
+      try {
+        records.add(parseLine(from, to));
+      } catch (IllegalArgumentException e) {
+        Arrays.fill(fields, null);
+        malformedLines.accept(new MalformedLine(offset + from, e.getMessage()));
+      }
+    }
+
+    private Record parseLine(int from, int to) {
+      Double amount = null;
+      int field = 0;
+      int start = from;
+      while (true) {
+        Preconditions.checkArgument(field < FIELDS, "Line at byte offset %s has more than %s fields", offset + from, FIELDS);
+        int end;
+        int next;
+        if (start < to && bytes[start] == '"') {
+          end = closingQuote(start, to, from);
+          next = end + 1;
+          Preconditions.checkArgument(
+              next == to || bytes[next] == ',',
+              "Unexpected character after quoted field in line at byte offset %s",
+              offset + from);
+          fields[field] = unquote(start + 1, end);
+        } else {
+          end = start;
+          while (end < to && bytes[end] != ',') {
+            end++;
+          }
+          next = end;
+          if (field == 2) {
+            amount = parseAmount(start, end);
+          } else {
+            fields[field] = intern.intern(bytes, start, end);
+          }
+        }
+        if (field == 2 && fields[2] != null) {
+          amount = parseAmount(fields[2]);
+          fields[2] = null;
+        }
+        field++;
+        if (next >= to) {
+          break;
+        }
+        start = next + 1;
+      }
+      var record = new Record(fields[0], fields[1], amount, fields[3]);
+      Arrays.fill(fields, null);
+      return record;
+    }
+
+    private int closingQuote(int quote, int to, int lineStart) {
+      for (int i = quote + 1; i < to; i++) {
+        if (bytes[i] == '"') {
+          if (i + 1 < to && bytes[i + 1] == '"') {
+            i++;
+          } else {
+            return i;
+          }
+        }
+      }
+      throw new IllegalArgumentException("Unterminated quote in line at byte offset " + (offset + lineStart));
+    }
+
+    private String unquote(int from, int to) {
+      int quotes = 0;
+      for (int i = from; i < to; i++) {
+        if (bytes[i] == '"') {
+          quotes++;
+          i++;
+        }
+      }
+      if (quotes == 0) {
+        return intern.intern(bytes, from, to);
+      }
+      var unescaped = new byte[to - from - quotes];
+      int length = 0;
+      for (int i = from; i < to; i++) {
+        unescaped[length++] = bytes[i];
+        if (bytes[i] == '"') {
+          i++;
+        }
+      }
+      return intern.intern(unescaped, 0, length);
+    }
+
+    // Exact for up to 15 significant digits and 22 decimals, otherwise left to Double.parseDouble
+    private Double parseAmount(int from, int to) {
+      if (from == to) {
+        return null;
+      }
+      boolean negative = bytes[from] == '-';
+      int i = negative || bytes[from] == '+' ? from + 1 : from;
+      long digits = 0;
+      int significant = 0;
+      int scale = -1;
+      boolean sawDigit = false;
+      for (; i < to; i++) {
+        byte b = bytes[i];
+        if (b == '.' && scale < 0) {
+          scale = 0;
+          continue;
+        }
+        if (b < '0' || b > '9' || significant == 15) {
+          return parseAmount(new String(bytes, from, to - from, StandardCharsets.ISO_8859_1));
+        }
+        sawDigit = true;
+        digits = digits * 10 + (b - '0');
+        if (digits != 0) {
+          significant++;
+        }
+        if (scale >= 0) {
+          scale++;
+        }
+      }
+      if (!sawDigit || scale > 22) {
+        return parseAmount(new String(bytes, from, to - from, StandardCharsets.ISO_8859_1));
+      }
+      double value = scale > 0 ? digits / POWERS_OF_TEN[scale] : digits;
+      return negative ? -value : value;
+    }
+
+    private Double parseAmount(String value) {
+      if (value.isEmpty()) {
+        return null;
+      }
+      try {
+        return Double.parseDouble(value);
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Invalid amount '" + value + "' in line at byte offset " + (offset + lineStart), e);
+      }
+    }
+
+  }
+
+}
@@ -0,0 +1,388 @@
+package io.eldermael.java.libs;
+
+import com.google.common.base.Preconditions;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Hash join of two {@link Record} lists on a key such as {@code Record::getCode}.
+ * <p>
+ * The right list is the build side: its keys go into an open-addressing table of
+ * {@code int} arrays (row numbers and hashes, records with the same key chained
+ * through a {@code next} array), so the table costs no object per row. The left
+ * list is probed in parallel chunks and matches come out in left order, then right
+ * order. Null keys never match.
+ * <p>
+ * When the build side is estimated to need more than the memory budget, the row
+ * numbers of both sides are written to partition files in the spill directory and
+ * joined one partition at a time (a grace hash join). One split writes at most
+ * {@value #MAX_FAN_OUT} files at once, so the buffers and open files stay bounded
+ * whatever the budget. A partition still over the budget is split again on the
+ * next hash bits; one whose rows all share a key
+ * cannot be split and is joined in memory anyway. Matches always hold the records
+ * that were passed in, but when spilling they come out grouped by partition, and
+ * the key is computed more than once per record, so it must be deterministic.
+ */
+@Slf4j
+public final class RecordJoin {
+
+  public enum Type {
+    INNER,
+    LEFT,
+    ANTI
+  }
+
+  /**
+   * A joined pair. {@code right} is null for unmatched rows of a left or anti join.
+   */
+  public record Match(Record left, Record right) {
+  }
+
+  // Slot and hash (at most four slots per row), chain and row number, per build row
+  static final long ESTIMATED_BYTES_PER_BUILD_ROW = 48;
+
+  // Each spill file holds an open stream with a 16 KB buffer while a side is split
+  static final int MAX_FAN_OUT = 256;
+
+  private static final int PROBE_CHUNK = 1 << 14;
+
+  private final Function<Record, String> key;
+  private final long memoryBudget;
+  private final Path spillDirectory;
+
+  private RecordJoin(Function<Record, String> key, long memoryBudget, Path spillDirectory) {
+    this.key = key;
+    this.memoryBudget = memoryBudget;
+    this.spillDirectory = spillDirectory;
+  }
+
+  public static RecordJoin on(Function<Record, String> key) {
+    return new RecordJoin(key, Long.MAX_VALUE, null);
+  }
+
+  public RecordJoin spillingOver(long memoryBudget, Path spillDirectory) {
+    Preconditions.checkArgument(memoryBudget > 0, "Memory budget must be positive, you passed: %s", memoryBudget);
+    return new RecordJoin(key, memoryBudget, spillDirectory);
+  }
+
+  public List<Match> join(List<Record> left, List<Record> right, Type type) {
+    var matches = new ArrayList<Match>();
+    joinPartitions(left, right, type, (probe, table) -> probe(probe, table, type).forEach(matches::addAll));
+    return matches;
+  }
+
+  /**
+   * Number of rows {@link #join} would return, without materializing them.
+   */
+  public long count(List<Record> left, List<Record> right, Type type) {
+    long[] count = {0};
+    joinPartitions(left, right, type, (probe, table) -> count[0] += countMatches(probe, table, type));
+    return count[0];
+  }
+
+  /**
+   * Partitions needed to keep each build side within the budget, a power of two.
+   * More than {@value #MAX_FAN_OUT} are reached by splitting partitions again.
+   */
+  public int partitionsFor(int buildRows) {
+    long bytes = buildRows * ESTIMATED_BYTES_PER_BUILD_ROW;
+    if (bytes <= memoryBudget) {
+      return 1;
+    }
+    long partitions = (bytes + memoryBudget - 1) / memoryBudget;
+    return (int) Math.min(1 << 16, Long.highestOneBit(partitions - 1) << 1);
+  }
+
+  /**
+   * Heap used by the hash table for {@code buildRows} rows, not counting the records.
+   */
+  public static long tableBytes(int buildRows) {
+    long slots = BuildTable.capacityFor(buildRows);
+    return slots * 2 * Integer.BYTES + (long) buildRows * Integer.BYTES;
+  }
+
+  private interface PartitionJoin {
+    void join(List<Record> probe, BuildTable table);
+  }
+
+  private void joinPartitions(List<Record> left, List<Record> right, Type type, PartitionJoin partitionJoin) {
+    if (partitionsFor(right.size()) == 1) {
+      partitionJoin.join(left, new BuildTable(key, right));
+      return;
+    }
+    Preconditions.checkState(spillDirectory != null, "Build side does not fit in the budget and no spill directory is set");
+
+    try {
+      var spill = Files.createTempDirectory(spillDirectory, "join-");
+      try {
+        joinSpilled(new Rows(left, null), new Rows(right, null), 0, spill, type, partitionJoin);
+      } finally {
+        try (var files = Files.list(spill)) {
+          for (var file : (Iterable<Path>) files::iterator) {
+            Files.deleteIfExists(file);
+          }
+        }
+        Files.deleteIfExists(spill);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Error spilling join partitions to '" + spillDirectory + "'", e);
+    }
+  }
+
+  /**
+   * Splits both sides on the hash bits after {@code usedBits} and joins one partition
+   * at a time, splitting again any build partition that is still over the budget.
+   */
+  private void joinSpilled(Rows left, Rows right, int usedBits, Path spill, Type type, PartitionJoin partitionJoin)
+      throws IOException {
+    int partitions = Math.min(partitionsFor(right.size()), MAX_FAN_OUT);
+    int bits = Math.min(Integer.numberOfTrailingZeros(partitions), Integer.SIZE - usedBits);
+    if (partitions == 1 || bits == 0 || hasSingleKey(right)) {
+      if (partitions > 1) {
+        log.warn("Joining {} build rows sharing one key in memory, over the {} bytes budget", right.size(), memoryBudget);
+      }
+      partitionJoin.join(left.records(), new BuildTable(key, right.records()));
+      return;
+    }
+
+    var prefix = usedBits + "-";
+    var leftFiles = spill(left, spill, "left-" + prefix, usedBits, bits, true);
+    var rightFiles = spill(right, spill, "right-" + prefix, usedBits, bits, false);
+    for (int partition = 0; partition < leftFiles.length; partition++) {
+      var build = new Rows(right.source(), read(rightFiles[partition]));
+      Files.delete(rightFiles[partition]);
+      var probe = new Rows(left.source(), read(leftFiles[partition]));
+      Files.delete(leftFiles[partition]);
+      if (probe.size() > 0 && (type != Type.INNER || build.size() > 0)) {
+        joinSpilled(probe, build, usedBits + bits, spill, type, partitionJoin);
+      }
+    }
+  }
+
+  // a hot key cannot be split however many hash bits are used
+  private boolean hasSingleKey(Rows rows) {
+    var records = rows.records();
+    var first = key.apply(records.get(0));
+    for (int i = 1; i < records.size(); i++) {
+      if (!Objects.equals(first, key.apply(records.get(i)))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private List<List<Match>> probe(List<Record> probe, BuildTable table, Type type) {
+    return IntStream.range(0, chunks(probe))
+        .parallel()
+        .mapToObj(chunk -> {
+          List<Match> matches = new ArrayList<>();
+          int end = Math.min(probe.size(), (chunk + 1) * PROBE_CHUNK);
+          for (int i = chunk * PROBE_CHUNK; i < end; i++) {
+            var record = probe.get(i);
+            int row = table.first(key.apply(record));
+            if (row < 0) {
+              if (type != Type.INNER) {
+                matches.add(new Match(record, null));
+              }
+            } else if (type != Type.ANTI) {
+              for (; row >= 0; row = table.next(row)) {
+                matches.add(new Match(record, table.record(row)));
+              }
+            }
+          }
+          return matches;
+        })
+        .toList();
+  }
+
+  private long countMatches(List<Record> probe, BuildTable table, Type type) {
+    return IntStream.range(0, chunks(probe))
+        .parallel()
+        .mapToLong(chunk -> {
+          long matches = 0;
+          int end = Math.min(probe.size(), (chunk + 1) * PROBE_CHUNK);
+          for (int i = chunk * PROBE_CHUNK; i < end; i++) {
+            int row = table.first(key.apply(probe.get(i)));
+            if (row < 0) {
+              matches += type == Type.INNER ? 0 : 1;
+            } else if (type != Type.ANTI) {
+              for (; row >= 0; row = table.next(row)) {
+                matches++;
+              }
+            }
+          }
+          return matches;
+        })
+        .sum();
+  }
+
+  private static int chunks(List<Record> probe) {
+    return (probe.size() + PROBE_CHUNK - 1) / PROBE_CHUNK;
+  }
+
+  // Partition by the high bits so the table's low bits stay spread within a partition
+  private Path[] spill(Rows rows, Path directory, String prefix, int usedBits, int bits, boolean probe)
+      throws IOException {
+    int partitions = 1 << bits;
+    var files = new Path[partitions];
+    var outputs = new DataOutputStream[partitions];
+    try {
+      for (int partition = 0; partition < partitions; partition++) {
+        files[partition] = directory.resolve(prefix + partition);
+        outputs[partition] = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(files[partition]), 1 << 14));
+      }
+      var records = rows.records();
+      for (int i = 0; i < records.size(); i++) {
+        var value = key.apply(records.get(i));
+        if (value == null && !probe) {
+          // null keys never match, only unmatched probe rows are still needed
+          continue;
+        }
+        int partition = value == null ? 0 : (BuildTable.hash(value) << usedBits) >>> (Integer.SIZE - bits);
+        outputs[partition].writeInt(rows.row(i));
+      }
+    } finally {
+      for (var output : outputs) {
+        if (output != null) {
+          output.close();
+        }
+      }
+    }
+    return files;
+  }
+
+  private static int[] read(Path file) throws IOException {
+    var rows = new int[(int) (Files.size(file) / Integer.BYTES)];
+    try (var input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 14))) {
+      for (int i = 0; i < rows.length; i++) {
+        rows[i] = input.readInt();
+      }
+    }
+    return rows;
+  }
+
+  /**
+   * Some rows of one side, by position in the list given to the join; all of them
+   * when {@code rows} is null.
+   */
+  private record Rows(List<Record> source, int[] rows) {
+
+    int size() {
+      return rows == null ? source.size() : rows.length;
+    }
+
+    int row(int index) {
+      return rows == null ? index : rows[index];
+    }
+
+    List<Record> records() {
+      if (rows == null) {
+        return source;
+      }
+      return new AbstractList<>() {
+        @Override
+        public Record get(int index) {
+          return source.get(rows[index]);
+        }
+
+        @Override
+        public int size() {
+          return rows.length;
+        }
+      };
+    }
+
+  }
+
+  /**
+   * Open addressing with linear probing. A slot holds the first build row of a key
+   * plus one, zero meaning empty, and rows with the same key follow through
+   * {@code next} in ascending order.
+   */
+  private static final class BuildTable {
+
+    private final Function<Record, String> key;
+    private final List<Record> records;
+    private final int[] slots;
+    private final int[] slotHashes;
+    private final int[] next;
+    private final int mask;
+
+    BuildTable(Function<Record, String> key, List<Record> records) {
+      this.key = key;
+      this.records = records;
+      int capacity = capacityFor(records.size());
+      this.slots = new int[capacity];
+      this.slotHashes = new int[capacity];
+      this.next = new int[records.size()];
+      this.mask = capacity - 1;
+      Arrays.fill(next, -1);
+
+      // Inserted backwards so each chain ends up in ascending row order
+      for (int row = records.size() - 1; row >= 0; row--) {
+        var value = key.apply(records.get(row));
+        if (value == null) {
+          continue;
+        }
+        int hash = hash(value);
+        int slot = hash & mask;
+        while (slots[slot] != 0) {
+          if (slotHashes[slot] == hash && value.equals(key.apply(records.get(slots[slot] - 1)))) {
+            next[row] = slots[slot] - 1;
+            break;
+          }
+          slot = (slot + 1) & mask;
+        }
+        slots[slot] = row + 1;
+        slotHashes[slot] = hash;
+      }
+    }
+
+    static int capacityFor(int rows) {
+      return Math.max(16, Integer.highestOneBit(Math.max(1, rows) * 2 - 1) << 1);
+    }
+
+    static int hash(String value) {
+      int hash = value.hashCode() * 0x9E3779B9;
+      return hash ^ (hash >>> 16);
+    }
+
+    int first(String value) {
+      if (value == null) {
+        return -1;
+      }
+      int hash = hash(value);
+      for (int slot = hash & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+        if (slotHashes[slot] == hash && value.equals(key.apply(records.get(slots[slot] - 1)))) {
+          return slots[slot] - 1;
+        }
+      }
+      return -1;
+    }
+
+    int next(int row) {
+      return next[row];
+    }
+
+    Record record(int row) {
+      return records.get(row);
+    }
+
+  }
+
+}
@@ -0,0 +1,97 @@
+package io.eldermael.java.libs;
+
+import com.google.common.base.Preconditions;
+
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Property extractors for {@link Record} looked up by field name.
+ * <p>
+ * LambdaJ's {@code on(Record.class).getCode()} records the call through a cglib
+ * proxy and replays it reflectively. Here every getter is spun once into a real
+ * {@link Function} with {@link LambdaMetafactory} the first time it is asked for, so
+ * after warm-up a call is as cheap as {@code Record::getCode} and start-up only pays
+ * for the properties actually used.
+ */
+public final class RecordProperties {
+
+  // Getters are only spun into functions when a property is first asked for
+  private static final Map<String, Method> GETTERS = Arrays
+      .stream(Record.class.getMethods())
+      .filter(RecordProperties::isGetter)
+      .collect(Collectors.toUnmodifiableMap(RecordProperties::propertyName, Function.identity()));
+
+  private static final Map<String, Property> PROPERTIES = new ConcurrentHashMap<>();
+
+  private RecordProperties() {
+  }
+
+  public static Property property(String name) {
+    var getter = GETTERS.get(name);
+    Preconditions.checkArgument(
+        getter != null,
+        "Record has no property '%s', known properties are %s",
+        name,
+        GETTERS.keySet());
+    return PROPERTIES.computeIfAbsent(name, property -> compile(getter));
+  }
+
+  public static Function<Record, Object> extractor(String name) {
+    return property(name).extractor();
+  }
+
+  public record Property(String name, Class<?> type, Function<Record, Object> extractor) {
+
+    public boolean isNumeric() {
+      return Number.class.isAssignableFrom(type);
+    }
+
+    public boolean isText() {
+      return type == String.class;
+    }
+
+  }
+
+  private static boolean isGetter(Method method) {
+    return method.getName().startsWith("get")
+        && method.getName().length() > 3
+        && method.getParameterCount() == 0
+        && !Modifier.isStatic(method.getModifiers())
+        && method.getDeclaringClass() == Record.class;
+  }
+
+  private static String propertyName(Method getter) {
+    return Character.toLowerCase(getter.getName().charAt(3)) + getter.getName().substring(4);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Property compile(Method getter) {
+    var name = propertyName(getter);
+    try {
+      var lookup = MethodHandles.lookup();
+      MethodHandle handle = lookup.unreflect(getter);
+      var site = LambdaMetafactory.metafactory(
+          lookup,
+          "apply",
+          MethodType.methodType(Function.class),
+          MethodType.methodType(Object.class, Object.class),
+          handle,
+          MethodType.methodType(getter.getReturnType(), Record.class));
+      var extractor = (Function<Record, Object>) site.getTarget().invoke();
+      return new Property(name, getter.getReturnType(), extractor);
+    } catch (Throwable e) {
+      throw new IllegalStateException("Cannot compile accessor for property '" + name + "'", e);
+    }
+  }
+
+}
@@ -0,0 +1,157 @@
+package io.eldermael.java.libs;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Compiles filter expressions such as {@code code contains SS and amount > 100}
+ * into {@link Predicate}s over {@link Record}.
+ * <p>
+ * Clauses are {@code <property> <operator> <value>} joined by {@code and}/{@code or},
+ * where {@code and} binds tighter. Text operators are {@code contains},
+ * {@code startsWith}, {@code endsWith}, {@code =} and {@code !=}; numeric ones are
+ * {@code =}, {@code !=}, {@code >}, {@code >=}, {@code <} and {@code <=}. A missing
+ * value only matches {@code !=}, for text and numbers alike. Values with spaces can
+ * be quoted. Compiled predicates are cached for about the {@value #CACHE_SIZE} most
+ * recently used expressions.
+ */
+public final class RecordQuery {
+
+  private static final Pattern TOKENS = Pattern.compile("\"([^\"]*)\"|'([^']*)'|(\\S+)");
+
+  static final int CACHE_SIZE = 1_000;
+
+  // Expressions come from users, so the cache must not grow with them
+  private static final Cache<String, Predicate<Record>> CACHE = CacheBuilder.newBuilder()
+      .maximumSize(CACHE_SIZE)
+      .build();
+
+  private RecordQuery() {
+  }
+
+  public static Predicate<Record> compile(String expression) {
+    Preconditions.checkNotNull(expression, "Query expression is null");
+    var key = expression.strip();
+    // not Cache.get, which would wrap the IllegalArgumentException of a bad query
+    var predicate = CACHE.getIfPresent(key);
+    if (predicate == null) {
+      predicate = parse(key);
+      CACHE.put(key, predicate);
+    }
+    return predicate;
+  }
+
+  public static List<Record> filter(String expression, List<Record> records) {
+    return records.stream()
+        .filter(compile(expression))
+        .toList();
+  }
+
+  private static Predicate<Record> parse(String expression) {
+    var tokens = tokenize(expression);
+    Preconditions.checkArgument(!tokens.isEmpty(), "Query expression is empty");
+
+    Predicate<Record> anyOf = null;
+    Predicate<Record> allOf = null;
+    int i = 0;
+    while (true) {
+      Preconditions.checkArgument(
+          i + 3 <= tokens.size(),
+          "Incomplete clause at token %s in '%s'",
+          i,
+          expression);
+      var clause = clause(tokens.get(i), tokens.get(i + 1), tokens.get(i + 2));
+      allOf = allOf == null ? clause : allOf.and(clause);
+      i += 3;
+
+      if (i == tokens.size()) {
+        break;
+      }
+
+      var connective = tokens.get(i++);
+      if (connective.equalsIgnoreCase("or")) {
+        anyOf = anyOf == null ? allOf : anyOf.or(allOf);
+        allOf = null;
+      } else {
+        Preconditions.checkArgument(
+            connective.equalsIgnoreCase("and"),
+            "Expected 'and' or 'or' but found '%s' in '%s'",
+            connective,
+            expression);
+      }
+    }
+
+    return anyOf == null ? allOf : anyOf.or(allOf);
+  }
+
+  private static Predicate<Record> clause(String name, String operator, String value) {
+    var property = RecordProperties.property(name);
+    var extractor = property.extractor();
+
+    if (property.isNumeric()) {
+      return numericClause(extractor, operator, parseNumber(name, value));
+    }
+
+    Preconditions.checkArgument(
+        property.isText(),
+        "Property '%s' of type %s cannot be queried",
+        name,
+        property.type().getSimpleName());
+
+    return textClause(extractor, operator, value);
+  }
+
+  private static Predicate<Record> numericClause(Function<Record, Object> extractor, String operator, double operand) {
+    return switch (operator) {
+      case "=", "==" -> r -> extractor.apply(r) instanceof Number n && n.doubleValue() == operand;
+      case "!=" -> r -> !(extractor.apply(r) instanceof Number n && n.doubleValue() == operand);
+      case ">" -> r -> extractor.apply(r) instanceof Number n && n.doubleValue() > operand;
+      case ">=" -> r -> extractor.apply(r) instanceof Number n && n.doubleValue() >= operand;
+      case "<" -> r -> extractor.apply(r) instanceof Number n && n.doubleValue() < operand;
+      case "<=" -> r -> extractor.apply(r) instanceof Number n && n.doubleValue() <= operand;
+      default -> throw new IllegalArgumentException("Unknown numeric operator '" + operator + "'");
+    };
+  }
+
+  private static Predicate<Record> textClause(Function<Record, Object> extractor, String operator, String operand) {
+    return switch (operator) {
+      case "contains" -> r -> extractor.apply(r) instanceof String s && s.contains(operand);
+      case "startsWith" -> r -> extractor.apply(r) instanceof String s && s.startsWith(operand);
+      case "endsWith" -> r -> extractor.apply(r) instanceof String s && s.endsWith(operand);
+      case "=", "==" -> r -> operand.equals(extractor.apply(r));
+      case "!=" -> r -> !operand.equals(extractor.apply(r));
+      default -> throw new IllegalArgumentException("Unknown text operator '" + operator + "'");
+    };
+  }
+
+  private static double parseNumber(String name, String value) {
+    try {
+      return Double.parseDouble(value);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Property '" + name + "' expects a number but got '" + value + "'", e);
+    }
+  }
+
+  private static List<String> tokenize(String expression) {
+    var tokens = new ArrayList<String>();
+    var matcher = TOKENS.matcher(expression);
+    while (matcher.find()) {
+      if (matcher.group(1) != null) {
+        tokens.add(matcher.group(1));
+      } else if (matcher.group(2) != null) {
+        tokens.add(matcher.group(2));
+      } else {
+        tokens.add(matcher.group(3));
+      }
+    }
+    return tokens;
+  }
+
+}
@@ -0,0 +1,56 @@
+package io.eldermael.java.libs;
+
+import io.vavr.collection.Vector;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * Versioned store of {@link Record}s backed by a persistent Vavr {@link Vector}.
+ * <p>
+ * Readers get the current {@link Snapshot} with a single volatile read and can
+ * keep using it while writers move on; nothing is ever mutated in place. Writers
+ * are serialized and each update shares structure with the previous version, so
+ * appending costs O(log32 n) instead of copying the whole list.
+ */
+public class RecordSnapshotStore {
+
+  private volatile Snapshot current = new Snapshot(0, Vector.empty());
+
+  public Snapshot snapshot() {
+    return current;
+  }
+
+  public Snapshot append(Record record) {
+    return update(records -> records.append(record));
+  }
+
+  public Snapshot appendAll(Iterable<? extends Record> records) {
+    return update(existing -> existing.appendAll(records));
+  }
+
+  public Snapshot set(int index, Record record) {
+    return update(records -> records.update(index, record));
+  }
+
+  /**
+   * Applies a batch of changes atomically: readers see either none or all of them.
+   */
+  public synchronized Snapshot update(UnaryOperator<Vector<Record>> batch) {
+    var previous = current;
+    var updated = batch.apply(previous.records());
+    if (updated == previous.records()) {
+      return previous;
+    }
+    current = new Snapshot(previous.version() + 1, updated);
+    return current;
+  }
+
+  public record Snapshot(long version, Vector<Record> records) {
+
+    public int size() {
+      return records.size();
+    }
+
+  }
+
+}
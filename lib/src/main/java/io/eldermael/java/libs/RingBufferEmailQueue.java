@@ -0,0 +1,229 @@
+package io.eldermael.java.libs;
+
+import com.google.common.base.Preconditions;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Bounded multi-producer, single-consumer {@link EmailQueue} on a preallocated ring.
+ * <p>
+ * Every slot carries a sequence number telling producers whether it is free and the
+ * consumer whether it is published (Vyukov's bounded queue). A producer claims a
+ * slot with one CAS on the tail and never blocks: when the ring is full
+ * {@link #persistEmailForLater(String)} returns {@link ProcessResult#ERROR}. The
+ * head, the tail and every slot are padded onto cache lines of their own.
+ * <p>
+ * Only one thread may call {@link #poll()}, {@link #take()} or {@link #drain}.
+ * How it waits for messages is chosen with a {@link WaitStrategy}.
+ */
+public class RingBufferEmailQueue implements EmailQueue {
+
+  private final Slot[] slots;
+  private final int mask;
+  private final WaitStrategy waitStrategy;
+  private final PaddedCursor tail = new PaddedCursor();
+  private final PaddedCursor head = new PaddedCursor();
+
+  public RingBufferEmailQueue(int capacity, WaitStrategy waitStrategy) {
+    Preconditions.checkArgument(
+        capacity > 1 && Integer.bitCount(capacity) == 1,
+        "Capacity must be a power of two, you passed: %s",
+        capacity);
+    this.slots = new Slot[capacity];
+    for (int i = 0; i < capacity; i++) {
+      slots[i] = new Slot(i);
+    }
+    this.mask = capacity - 1;
+    this.waitStrategy = waitStrategy;
+  }
+
+  public enum WaitStrategy {
+
+    // Lowest latency, burns a core while idle
+    BUSY_SPIN {
+      @Override
+      void idle(int attempt) {
+        Thread.onSpinWait();
+      }
+    },
+
+    // Spins briefly, then gives the core to other threads
+    YIELD {
+      @Override
+      void idle(int attempt) {
+        if (attempt < 100) {
+          Thread.onSpinWait();
+        } else {
+          Thread.yield();
+        }
+      }
+    },
+
+    // Spins and yields, then sleeps in short parks; producers never have to wake it
+    PARK {
+      @Override
+      void idle(int attempt) {
+        if (attempt < 100) {
+          Thread.onSpinWait();
+        } else if (attempt < 200) {
+          Thread.yield();
+        } else {
+          LockSupport.parkNanos(PARK_NANOS);
+        }
+      }
+    };
+
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    abstract void idle(int attempt);
+
+  }
+
+  @Override
+  public ProcessResult persistEmailForLater(String message) {
+    long position = tail.getAcquire();
+    while (true) {
+      var slot = slots[(int) position & mask];
+      long free = slot.sequence() - position;
+      if (free == 0) {
+        if (tail.compareAndSet(position, position + 1)) {
+          slot.message = message;
+          slot.publish(position + 1);
+          return ProcessResult.SUCCESS;
+        }
+        position = tail.getAcquire();
+      } else if (free < 0) {
+        // the consumer has not freed this slot since the last lap
+        return ProcessResult.ERROR;
+      } else {
+        position = tail.getAcquire();
+      }
+    }
+  }
+
+  /**
+   * Next message, or {@code null} when nothing is published yet.
+   */
+  public String poll() {
+    long position = head.getPlain();
+    var slot = slots[(int) position & mask];
+    if (slot.sequence() != position + 1) {
+      return null;
+    }
+    var message = slot.message;
+    slot.message = null;
+    slot.publish(position + slots.length);
+    head.setRelease(position + 1);
+    return message;
+  }
+
+  public String take() throws InterruptedException {
+    int attempt = 0;
+    String message;
+    while ((message = poll()) == null) {
+      if (Thread.interrupted()) {
+        throw new InterruptedException();
+      }
+      waitStrategy.idle(attempt++);
+    }
+    return message;
+  }
+
+  /**
+   * Hands up to {@code maxMessages} published messages to {@code consumer}.
+   */
+  public int drain(Consumer<String> consumer, int maxMessages) {
+    int drained = 0;
+    String message;
+    while (drained < maxMessages && (message = poll()) != null) {
+      consumer.accept(message);
+      drained++;
+    }
+    return drained;
+  }
+
+  public int capacity() {
+    return slots.length;
+  }
+
+  public int size() {
+    long consumed = head.getAcquire();
+    long claimed = tail.getAcquire();
+    return (int) Math.max(0, Math.min(slots.length, claimed - consumed));
+  }
+
+  // Padding fields keep neighbouring slots and cursors off each other's cache lines
+
+  @SuppressWarnings("unused")
+  private static class LeftPadding {
+    long p01, p02, p03, p04, p05, p06, p07;
+  }
+
+  private static class CursorValue extends LeftPadding {
+    volatile long value;
+  }
+
+  @SuppressWarnings("unused")
+  private static final class PaddedCursor extends CursorValue {
+
+    private static final VarHandle VALUE = handle(CursorValue.class, "value", long.class);
+
+    long p11, p12, p13, p14, p15, p16, p17;
+
+    long getPlain() {
+      return (long) VALUE.get(this);
+    }
+
+    long getAcquire() {
+      return (long) VALUE.getAcquire(this);
+    }
+
+    void setRelease(long newValue) {
+      VALUE.setRelease(this, newValue);
+    }
+
+    boolean compareAndSet(long expected, long newValue) {
+      return VALUE.compareAndSet(this, expected, newValue);
+    }
+
+  }
+
+  private static class SlotValue extends LeftPadding {
+    volatile long sequence;
+    String message;
+  }
+
+  @SuppressWarnings("unused")
+  private static final class Slot extends SlotValue {
+
+    private static final VarHandle SEQUENCE = handle(SlotValue.class, "sequence", long.class);
+
+    long p11, p12, p13, p14, p15, p16;
+
+    Slot(long sequence) {
+      this.sequence = sequence;
+    }
+
+    long sequence() {
+      return (long) SEQUENCE.getAcquire(this);
+    }
+
+    void publish(long newSequence) {
+      SEQUENCE.setRelease(this, newSequence);
+    }
+
+  }
+
+  private static VarHandle handle(Class<?> owner, String field, Class<?> type) {
+    try {
+      return MethodHandles.lookup().findVarHandle(owner, field, type);
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+}
@@ -1,17 +1,42 @@
 package io.eldermael.java.libs;
 
-import lombok.AllArgsConstructor;
+import com.google.common.util.concurrent.ListenableFuture;
 
 import java.net.http.HttpRequest;
+import java.util.List;
 import java.util.concurrent.Future;
 
-@AllArgsConstructor
 public class SomeController {
 
   AsyncService service;
 
+  // Submissions show up as JDK Flight Recorder events while a recording is running
+  public SomeController(AsyncService service) {
+    this.service = AsyncService.recordingEvents(service);
+  }
+
   public Future<?> processRequest(HttpRequest request) {
     return service.submitBusinessProcess(new BusinessModel());
   }
 
+  /**
+   * Runs every sub-process; the first failure cancels the rest, and so does
+   * cancelling the returned future.
+   */
+  public ListenableFuture<List<String>> processRequest(HttpRequest request, List<BusinessModel> subProcesses) {
+    var scope = FanOutScope.<String>joinAll();
+    subProcesses.forEach(model -> scope.fork(() -> service.submitBusinessProcess(model)));
+    return scope.join();
+  }
+
+  /**
+   * Runs alternative sub-processes and answers with the first that succeeds,
+   * cancelling the others.
+   */
+  public ListenableFuture<String> processRequestWithAnyOf(HttpRequest request, List<BusinessModel> alternatives) {
+    var scope = FanOutScope.<String>firstSuccess();
+    alternatives.forEach(model -> scope.fork(() -> service.submitBusinessProcess(model)));
+    return scope.join();
+  }
+
 }
@@ -0,0 +1,263 @@
+package io.eldermael.java.libs;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * Ingests batch files from a spool directory as they are appended to.
+ * <p>
+ * Instead of re-reading every file with {@code Files.readLines}, each file is read
+ * from its last checkpointed byte offset and only complete lines are handed to the
+ * sink; a trailing partial line waits until its newline arrives. Offsets are kept
+ * in {@value #CHECKPOINTS_FILE} inside the directory, so a restart resumes where the
+ * previous run stopped. A file that shrank below its offset, or whose identity no
+ * longer matches the checkpoint because it was replaced, is read from the start.
+ * Delivery is at-least-once: a crash between emitting lines and committing their
+ * offset replays them. When the sink throws, the file is checkpointed at the start
+ * of the failing line, which is retried on the next scan, and other files carry
+ * on. A file that cannot be read, e.g. because it was deleted while being listed,
+ * is skipped by scans and the watcher.
+ * <p>
+ * Changes are picked up through a {@link WatchService}. When none is available, or
+ * no event arrives within the poll interval, the whole directory is scanned.
+ */
+@Slf4j
+public class SpoolDirectoryIngestion implements AutoCloseable {
+
+  public static final String CHECKPOINTS_FILE = ".checkpoints";
+
+  private static final int CHUNK_SIZE = 64 * 1024;
+  private static final int HEAD_BYTES = 1024;
+
+  private final Path directory;
+  private final Consumer<BatchLine> sink;
+  private final Duration pollInterval;
+  private final IngestionCheckpoints checkpoints;
+  private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+    var thread = new Thread(runnable, "spool-ingestion");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private volatile boolean running;
+
+  public SpoolDirectoryIngestion(Path directory, Consumer<BatchLine> sink, Duration pollInterval) {
+    this.directory = directory;
+    this.sink = sink;
+    this.pollInterval = pollInterval;
+    this.checkpoints = new IngestionCheckpoints(directory.resolve(CHECKPOINTS_FILE));
+  }
+
+  public void start() {
+    running = true;
+    worker.submit(this::run);
+  }
+
+  @Override
+  public void close() {
+    running = false;
+    worker.shutdownNow();
+  }
+
+  /**
+   * Ingests whatever was appended to every file since the last checkpoint.
+   *
+   * @return the number of lines handed to the sink
+   */
+  public int scan() {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.mapToInt(this::ingestOrSkip).sum();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot list spool directory '" + directory + "'", e);
+    }
+  }
+
+  /**
+   * Ingests whatever was appended to a single file since the last checkpoint.
+   *
+   * @return the number of lines handed to the sink
+   */
+  public synchronized int ingest(Path file) {
+    if (!isBatchFile(file)) {
+      return 0;
+    }
+
+    var saved = checkpoints.checkpoint(file);
+    long offset = saved.offset();
+    try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      var fileKey = fileKey(file);
+      if (channel.size() < offset) {
+        log.warn("Batch file '{}' shrank below offset {}, reading it from the start", file, offset);
+        offset = 0;
+      } else if (offset > 0 && !isSameFile(saved, fileKey, channel)) {
+        log.warn("Batch file '{}' was replaced, reading it from the start", file);
+        offset = 0;
+      }
+      if (channel.size() == offset && offset == saved.offset()) {
+        return 0;
+      }
+
+      var buffer = ByteBuffer.allocate(CHUNK_SIZE);
+      var line = new ByteArrayOutputStream();
+      long position = offset;
+      long lineStart = offset;
+      int emitted = 0;
+
+      while (channel.read(buffer, position) > 0) {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+          byte current = buffer.get();
+          position++;
+          if (current == '\n') {
+            try {
+              sink.accept(new BatchLine(file, lineStart, decode(line)));
+            } catch (RuntimeException e) {
+              log.warn("Sink failed on '{}' at offset {}, retrying from there", file, lineStart, e);
+              commitIfMoved(file, channel, fileKey, saved, offset, lineStart);
+              return emitted;
+            }
+            line.reset();
+            lineStart = position;
+            emitted++;
+          } else {
+            line.write(current);
+          }
+        }
+        buffer.clear();
+      }
+
+      // Only complete lines are committed, a partial one is read again next time
+      commitIfMoved(file, channel, fileKey, saved, offset, lineStart);
+      return emitted;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot read batch file '" + file + "'", e);
+    }
+  }
+
+  // one unreadable file must not stop the others, nor the background thread
+  private int ingestOrSkip(Path file) {
+    try {
+      return ingest(file);
+    } catch (UncheckedIOException e) {
+      log.warn("Skipping batch file '{}'", file, e);
+      return 0;
+    }
+  }
+
+  private void commitIfMoved(Path file,
+                             FileChannel channel,
+                             String fileKey,
+                             IngestionCheckpoints.Checkpoint saved,
+                             long offset,
+                             long lineStart) throws IOException {
+    if (lineStart != saved.offset() || offset != saved.offset()) {
+      int headLength = (int) Math.min(lineStart, HEAD_BYTES);
+      long headChecksum = headChecksum(channel, headLength);
+      checkpoints.commit(file, new IngestionCheckpoints.Checkpoint(lineStart, fileKey, headLength, headChecksum));
+    }
+  }
+
+  private void run() {
+    try {
+      scan();
+      try (WatchService watcher = directory.getFileSystem().newWatchService()) {
+        directory.register(watcher, ENTRY_CREATE, ENTRY_MODIFY);
+        watch(watcher);
+      } catch (IOException | UnsupportedOperationException e) {
+        log.warn("Cannot watch '{}', polling every {} instead", directory, pollInterval, e);
+        poll();
+      }
+    } catch (InterruptedException | ClosedWatchServiceException e) {
+      Thread.currentThread().interrupt();
+    } catch (RuntimeException e) {
+      log.error("Ingestion of '{}' stopped", directory, e);
+    }
+  }
+
+  private void watch(WatchService watcher) throws InterruptedException {
+    while (running) {
+      var key = watcher.poll(pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+      if (key == null) {
+        scan();
+        continue;
+      }
+
+      for (var event : key.pollEvents()) {
+        if (event.kind() == OVERFLOW) {
+          scan();
+        } else {
+          ingestOrSkip(directory.resolve((Path) event.context()));
+        }
+      }
+
+      if (!key.reset()) {
+        log.warn("Watch on '{}' is no longer valid, polling every {} instead", directory, pollInterval);
+        poll();
+        return;
+      }
+    }
+  }
+
+  private void poll() throws InterruptedException {
+    while (running) {
+      scan();
+      Thread.sleep(pollInterval.toMillis());
+    }
+  }
+
+  private boolean isBatchFile(Path file) {
+    var name = file.getFileName().toString();
+    return !name.startsWith(".") && Files.isRegularFile(file);
+  }
+
+  private static boolean isSameFile(IngestionCheckpoints.Checkpoint saved, String fileKey, FileChannel channel) throws IOException {
+    if (saved.fileKey() == null) {
+      return true;
+    }
+    return saved.fileKey().equals(fileKey) && saved.headChecksum() == headChecksum(channel, saved.headLength());
+  }
+
+  private static String fileKey(Path file) throws IOException {
+    var key = Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+    return key == null ? "" : key.toString();
+  }
+
+  private static long headChecksum(FileChannel channel, int length) throws IOException {
+    var head = ByteBuffer.allocate(length);
+    while (head.hasRemaining() && channel.read(head, head.position()) > 0) {
+      // keep reading until the head is filled or the file ends
+    }
+    var checksum = new CRC32();
+    checksum.update(head.flip());
+    return checksum.getValue();
+  }
+
+  private String decode(ByteArrayOutputStream line) {
+    var text = line.toString(StandardCharsets.UTF_8);
+    return text.endsWith("\r") ? text.substring(0, text.length() - 1) : text;
+  }
+
+}
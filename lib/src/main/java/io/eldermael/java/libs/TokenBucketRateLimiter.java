@@ -0,0 +1,148 @@
+package io.eldermael.java.libs;
+
+import com.google.common.base.Preconditions;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets, e.g. a per-second and a per-minute quota, that must all grant a
+ * permit before a call goes out.
+ * <p>
+ * Each bucket keeps its whole state in one {@link AtomicLong}: the time at which it
+ * would be full again. Taking {@code n} tokens pushes that time forward by
+ * {@code n} emission intervals, and the bucket refuses when it would move further
+ * than {@code period} ahead of now. Tokens therefore come back as time passes with
+ * no refill thread and every update is a single CAS. A full bucket can be drained
+ * in one burst and then refills evenly over the period.
+ */
+public class TokenBucketRateLimiter {
+
+  private final Bucket[] buckets;
+  private final LongSupplier clock;
+
+  public TokenBucketRateLimiter(Quota... quotas) {
+    this(System::nanoTime, quotas);
+  }
+
+  public TokenBucketRateLimiter(LongSupplier clock, Quota... quotas) {
+    Preconditions.checkArgument(quotas.length > 0, "At least one quota is needed");
+    this.clock = clock;
+    long now = clock.getAsLong();
+    this.buckets = Arrays.stream(quotas)
+        .map(quota -> new Bucket(quota, now))
+        .toArray(Bucket[]::new);
+  }
+
+  public record Quota(long permits, Duration period) {
+
+    public Quota {
+      Preconditions.checkArgument(permits > 0, "Permits must be positive, you passed: %s", permits);
+      Preconditions.checkArgument(
+          !period.isNegative() && !period.isZero(),
+          "Period must be positive, you passed: %s",
+          period);
+    }
+
+    public static Quota perSecond(long permits) {
+      return new Quota(permits, Duration.ofSeconds(1));
+    }
+
+    public static Quota perMinute(long permits) {
+      return new Quota(permits, Duration.ofMinutes(1));
+    }
+
+  }
+
+  public boolean tryAcquire() {
+    return tryAcquire(1);
+  }
+
+  /**
+   * Takes {@code permits} from every bucket or from none of them.
+   */
+  public boolean tryAcquire(int permits) {
+    Preconditions.checkArgument(permits > 0, "Permits must be positive, you passed: %s", permits);
+    long now = clock.getAsLong();
+    for (int i = 0; i < buckets.length; i++) {
+      if (!buckets[i].tryTake(now, permits)) {
+        for (int j = 0; j < i; j++) {
+          buckets[j].giveBack(permits);
+        }
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public CompletableFuture<Void> acquire() {
+    return acquire(1);
+  }
+
+  /**
+   * Reserves {@code permits} in every bucket and completes once all of them would
+   * have granted it. Waiting callers are served in reservation order.
+   */
+  public CompletableFuture<Void> acquire(int permits) {
+    Preconditions.checkArgument(permits > 0, "Permits must be positive, you passed: %s", permits);
+    long now = clock.getAsLong();
+    long waitNanos = 0;
+    for (var bucket : buckets) {
+      waitNanos = Math.max(waitNanos, bucket.reserve(now, permits));
+    }
+    if (waitNanos == 0) {
+      return CompletableFuture.completedFuture(null);
+    }
+    return CompletableFuture.runAsync(() -> {
+    }, CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS));
+  }
+
+  private static final class Bucket {
+
+    final long intervalNanos;
+    final long toleranceNanos;
+    final AtomicLong fullAt;
+
+    Bucket(Quota quota, long now) {
+      // rounded up so the quota is never exceeded
+      this.intervalNanos = Math.max(1, -Math.floorDiv(-quota.period().toNanos(), quota.permits()));
+      this.toleranceNanos = intervalNanos * quota.permits();
+      this.fullAt = new AtomicLong(now);
+    }
+
+    boolean tryTake(long now, int permits) {
+      long cost = intervalNanos * permits;
+      while (true) {
+        long current = fullAt.get();
+        long next = Math.max(current, now) + cost;
+        if (next - now > toleranceNanos) {
+          return false;
+        }
+        if (fullAt.compareAndSet(current, next)) {
+          return true;
+        }
+      }
+    }
+
+    long reserve(long now, int permits) {
+      long cost = intervalNanos * permits;
+      while (true) {
+        long current = fullAt.get();
+        long next = Math.max(current, now) + cost;
+        if (fullAt.compareAndSet(current, next)) {
+          return Math.max(0, next - now - toleranceNanos);
+        }
+      }
+    }
+
+    void giveBack(int permits) {
+      fullAt.addAndGet(-intervalNanos * permits);
+    }
+
+  }
+
+}
@@ -0,0 +1,134 @@
+package io.eldermael.java.libs;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link CodeAggregates} over tumbling or sliding time windows of event time.
+ * <p>
+ * Time is cut into panes of one slide each, every pane being its own
+ * {@code CodeAggregates}, and a window is the merge of the panes it covers. A
+ * tumbling window is a sliding window whose slide equals its size. Queries merge
+ * {@code size / slide} panes whatever the number of records, and panes older than
+ * two windows behind the newest event are dropped, so records arriving later than
+ * that are rejected. That includes a record whose pane a newer event drops while it
+ * is being inserted: it fails rather than vanishing with the pane.
+ */
+public final class WindowedCodeAggregates {
+
+  private final long slideMillis;
+  private final int panesPerWindow;
+  private final int stripes;
+  private final ConcurrentSkipListMap<Long, CodeAggregates> panes = new ConcurrentSkipListMap<>();
+  private final AtomicLong newestPane = new AtomicLong(Long.MIN_VALUE);
+
+  private WindowedCodeAggregates(Duration size, Duration slide, int stripes) {
+    // panes are keyed by epoch millis
+    Preconditions.checkArgument(
+        slide.toMillis() > 0 && wholeMillis(slide),
+        "Slide must be a positive number of whole milliseconds, you passed: %s",
+        slide);
+    Preconditions.checkArgument(
+        wholeMillis(size) && size.toMillis() % slide.toMillis() == 0 && size.compareTo(slide) >= 0,
+        "Window size must be a multiple of the slide, you passed: %s and %s",
+        size,
+        slide);
+    this.slideMillis = slide.toMillis();
+    this.panesPerWindow = (int) (size.toMillis() / slideMillis);
+    this.stripes = stripes;
+  }
+
+  public static WindowedCodeAggregates tumbling(Duration size) {
+    return new WindowedCodeAggregates(size, size, CodeAggregates.DEFAULT_STRIPES);
+  }
+
+  public static WindowedCodeAggregates sliding(Duration size, Duration slide) {
+    return new WindowedCodeAggregates(size, slide, CodeAggregates.DEFAULT_STRIPES);
+  }
+
+  public void insert(Record record, Instant time) {
+    long start = paneStart(time);
+    var pane = paneFor(start, time);
+    pane.insert(record);
+    // a newer event may have dropped the pane before the record went in
+    checkRetained(start, pane, time);
+  }
+
+  public void retract(Record record, Instant time) {
+    var pane = panes.get(paneStart(time));
+    Preconditions.checkArgument(pane != null, "No records were inserted at %s or they have expired", time);
+    pane.retract(record);
+  }
+
+  /**
+   * Aggregates of the window ending with the pane that contains {@code time}. For
+   * tumbling windows that is the window containing {@code time}.
+   */
+  public Map<String, CodeAggregates.Aggregate> window(Instant time) {
+    long last = paneStart(time);
+    var merged = new HashMap<String, CodeAggregates.Aggregate>();
+    panes.subMap(last - (panesPerWindow - 1) * slideMillis, true, last, true)
+        .values()
+        .forEach(pane -> pane.snapshot().forEach((code, aggregate) -> merged.merge(code, aggregate, CodeAggregates.Aggregate::merge)));
+    return ImmutableMap.copyOf(merged);
+  }
+
+  /**
+   * Aggregate of one code over the window, see {@link #window(Instant)}.
+   */
+  public CodeAggregates.Aggregate window(String code, Instant time) {
+    long last = paneStart(time);
+    var aggregate = CodeAggregates.Aggregate.EMPTY;
+    for (var pane : panes.subMap(last - (panesPerWindow - 1) * slideMillis, true, last, true).values()) {
+      aggregate = aggregate.merge(pane.get(code));
+    }
+    return aggregate;
+  }
+
+  public int paneCount() {
+    return panes.size();
+  }
+
+  private CodeAggregates paneFor(long start, Instant time) {
+    long newest = newestPane.accumulateAndGet(start, Math::max);
+    Preconditions.checkArgument(
+        start >= oldestRetained(newest),
+        "Event at %s is older than the retained windows",
+        time);
+
+    var pane = panes.computeIfAbsent(start, ignored -> new CodeAggregates(stripes));
+    if (start == newest) {
+      panes.headMap(oldestRetained(newest)).clear();
+    }
+    return pane;
+  }
+
+  // the newest pane only moves forward, and it does so before older panes are cleared
+  private void checkRetained(long start, CodeAggregates pane, Instant time) {
+    if (start < oldestRetained(newestPane.get())) {
+      // computeIfAbsent may have created the pane again after it was cleared
+      panes.remove(start, pane);
+      throw new IllegalArgumentException("Event at " + time + " is older than the retained windows");
+    }
+  }
+
+  private long oldestRetained(long newest) {
+    return newest - (2L * panesPerWindow - 1) * slideMillis;
+  }
+
+  private static boolean wholeMillis(Duration duration) {
+    return duration.getNano() % 1_000_000 == 0;
+  }
+
+  private long paneStart(Instant time) {
+    return Math.floorDiv(time.toEpochMilli(), slideMillis) * slideMillis;
+  }
+
+}
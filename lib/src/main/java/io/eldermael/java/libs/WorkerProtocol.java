@@ -0,0 +1,104 @@
+package io.eldermael.java.libs;
+
+import com.google.common.base.Preconditions;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary framing between {@link DistributedAsyncService} and {@link BusinessProcessWorker}.
+ * <p>
+ * A request is {@code [long id][int length][UTF-8 data]} and a response is
+ * {@code [long id][byte status][int length][UTF-8 body]}; a length of {@code -1}
+ * encodes {@code null}. Ids let a connection carry many requests at once and take
+ * the responses back in any order. Strings over {@value #MAX_LENGTH} bytes are
+ * refused with an {@link IllegalArgumentException} before anything is written, so
+ * one oversized frame fails its own request and not the connection.
+ */
+final class WorkerProtocol {
+
+  static final byte OK = 0;
+  static final byte FAILED = 1;
+
+  static final int MAX_LENGTH = 16 * 1024 * 1024;
+
+  private WorkerProtocol() {
+  }
+
+  record Request(long id, String data) {
+  }
+
+  record Response(long id, boolean ok, String body) {
+  }
+
+  static void writeRequest(DataOutputStream out, long id, String data) throws IOException {
+    var bytes = encode(data);
+    out.writeLong(id);
+    writeBytes(out, bytes);
+  }
+
+  /**
+   * Next request, or {@code null} when the peer closed the connection between frames.
+   */
+  static Request readRequest(DataInputStream in) throws IOException {
+    long id;
+    try {
+      id = in.readLong();
+    } catch (EOFException e) {
+      return null;
+    }
+    return new Request(id, readString(in));
+  }
+
+  static void writeResponse(DataOutputStream out, long id, boolean ok, String body) throws IOException {
+    var bytes = encode(body);
+    out.writeLong(id);
+    out.writeByte(ok ? OK : FAILED);
+    writeBytes(out, bytes);
+  }
+
+  static Response readResponse(DataInputStream in) throws IOException {
+    long id = in.readLong();
+    boolean ok = in.readByte() == OK;
+    return new Response(id, ok, readString(in));
+  }
+
+  private static byte[] encode(String value) {
+    if (value == null) {
+      return null;
+    }
+    var bytes = value.getBytes(StandardCharsets.UTF_8);
+    Preconditions.checkArgument(
+        bytes.length <= MAX_LENGTH,
+        "Frame of %s bytes is over the %s bytes limit",
+        bytes.length,
+        MAX_LENGTH);
+    return bytes;
+  }
+
+  private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+    if (bytes == null) {
+      out.writeInt(-1);
+      return;
+    }
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length == -1) {
+      return null;
+    }
+    if (length < 0 || length > MAX_LENGTH) {
+      throw new IOException("Corrupt frame, length " + length);
+    }
+    var bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+}
@@ -0,0 +1,139 @@
+package io.eldermael.java.libs;
+
+import io.vavr.control.Either;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+
+@ExtendWith(MockitoExtension.class)
+public class AdaptiveConcurrencyLimiterTest extends BaseTestConfiguration {
+
+  private static final long MILLISECOND = TimeUnit.MILLISECONDS.toNanos(1);
+
+  @Mock
+  EmailQueue mailQueue;
+
+  @Test
+  void shouldGrowWhileLatencyStaysFlat() throws InterruptedException {
+    var limiter = new AdaptiveConcurrencyLimiter(4, 1, 100);
+
+    for (int i = 0; i < 20; i++) {
+      fill(limiter);
+      drain(limiter, 10 * MILLISECOND, false);
+    }
+
+    assertThat(limiter.limit())
+        .as("[Limiter] no queueing, limit grows")
+        .isGreaterThan(20);
+  }
+
+  @Test
+  void shouldShrinkWhenLatencyGrowsOrCallsFail() throws InterruptedException {
+    var limiter = new AdaptiveConcurrencyLimiter(20, 1, 100);
+    fill(limiter);
+    drain(limiter, 10 * MILLISECOND, false);
+
+    fill(limiter);
+    drain(limiter, 40 * MILLISECOND, false);
+
+    assertThat(limiter.limit())
+        .as("[Limiter] latency four times the minimum shrinks the limit")
+        .isLessThan(20);
+
+    int beforeFailure = limiter.limit();
+    limiter.tryAcquire(Duration.ZERO);
+    limiter.release(10 * MILLISECOND, true);
+
+    assertThat(limiter.limit())
+        .as("[Limiter] failures cut the limit")
+        .isLessThan(beforeFailure);
+  }
+
+  @Test
+  void shouldFallBackToQueueWhenNoSlotIsFree() throws InterruptedException {
+    given(mailQueue.persistEmailForLater(any())).willReturn(ProcessResult.SUCCESS);
+    var limiter = new AdaptiveConcurrencyLimiter(1, 1, 1);
+    var sender = new AdaptiveEmailSender(healthySender(), mailQueue, limiter, Duration.ofMillis(10));
+
+    limiter.tryAcquire(Duration.ZERO);
+
+    assertThat(sender.sendAlertEmail("Oopsie!"))
+        .isEqualTo(ProcessResult.SUCCESS);
+    then(mailQueue).should().persistEmailForLater("Oopsie!");
+  }
+
+  // Stand-in mail server that handles 8 sends in parallel, latency grows linearly past that
+  @Test
+  void shouldConvergeNearTheOptimalConcurrency() throws InterruptedException {
+    int capacity = 8;
+    var serverInFlight = new AtomicInteger();
+    var standIn = new EmailSender() {
+      @Override
+      protected Either<String, ProcessResult> deliver(String message) {
+        int load = serverInFlight.incrementAndGet();
+        try {
+          long until = System.nanoTime() + 2 * MILLISECOND * Math.max(capacity, load) / capacity;
+          while (System.nanoTime() < until) {
+            LockSupport.parkNanos(until - System.nanoTime());
+          }
+          return Either.right(ProcessResult.SUCCESS);
+        } finally {
+          serverInFlight.decrementAndGet();
+        }
+      }
+    };
+
+    var limiter = new AdaptiveConcurrencyLimiter(1, 1, 64);
+    var sender = new AdaptiveEmailSender(standIn, new InMemoryEmailQueue(), limiter, Duration.ofMillis(50));
+    var callers = Executors.newFixedThreadPool(64);
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+
+    for (int i = 0; i < 64; i++) {
+      callers.execute(() -> {
+        while (System.nanoTime() < deadline) {
+          sender.sendAlertEmail("Oopsie!");
+        }
+      });
+    }
+    callers.shutdown();
+    callers.awaitTermination(5, TimeUnit.SECONDS);
+
+    assertThat(limiter.limit())
+        .as("[Limiter] settles near the server capacity of 8, far from 64 callers")
+        .isBetween(capacity / 2, capacity * 3);
+  }
+
+  private EmailSender healthySender() {
+    return new EmailSender() {
+      @Override
+      protected Either<String, ProcessResult> deliver(String message) {
+        return Either.right(ProcessResult.SUCCESS);
+      }
+    };
+  }
+
+  private void fill(AdaptiveConcurrencyLimiter limiter) throws InterruptedException {
+    while (limiter.tryAcquire(Duration.ZERO)) {
+      // take every slot
+    }
+  }
+
+  private void drain(AdaptiveConcurrencyLimiter limiter, long rttNanos, boolean failed) {
+    while (limiter.inFlight() > 0) {
+      limiter.release(rttNanos, failed);
+    }
+  }
+
+}
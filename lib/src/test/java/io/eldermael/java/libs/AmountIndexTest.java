@@ -0,0 +1,126 @@
+package io.eldermael.java.libs;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class AmountIndexTest extends BaseTestConfiguration {
+
+  final List<Record> records = List.of(
+      record("A", 300.0),
+      record("B", 50.0),
+      record("C", null),
+      record("D", 150.0),
+      record("E", 150.0),
+      record("F", Double.NaN),
+      record("G", -10.0)
+  );
+
+  @Test
+  void shouldAnswerInclusiveRanges() {
+    var index = AmountIndex.build(records);
+
+    assertThat(index.size())
+        .as("[AmountIndex] records without an amount are not indexed")
+        .isEqualTo(5);
+
+    assertThat(index.range(50.0, 150.0))
+        .as("[AmountIndex] both bounds are inclusive, ties keep list order")
+        .extracting(Record::getName)
+        .containsExactly("B", "D", "E");
+
+    assertThat(index.range(151.0, 299.0))
+        .as("[AmountIndex] a range between keys is empty")
+        .isEmpty();
+
+    assertThat(index.range(400.0, 100.0))
+        .as("[AmountIndex] an inverted range is empty")
+        .isEmpty();
+
+    assertThat(index.countInRange(Double.NEGATIVE_INFINITY, 0.0))
+        .as("[AmountIndex] counting does not touch the records")
+        .isEqualTo(1);
+  }
+
+  @Test
+  void shouldReturnTopAndBottomK() {
+    var index = AmountIndex.build(records);
+
+    assertThat(index.topK(2))
+        .as("[AmountIndex] highest amounts first")
+        .extracting(Record::getName)
+        .containsExactly("A", "E");
+
+    assertThat(index.bottomK(2))
+        .as("[AmountIndex] lowest amounts first")
+        .extracting(Record::getName)
+        .containsExactly("G", "B");
+
+    assertThat(index.topK(100))
+        .as("[AmountIndex] k is capped at the index size")
+        .hasSize(5);
+  }
+
+  @Test
+  void shouldComputeNearestRankPercentiles() {
+    var index = AmountIndex.build(IntStream.rangeClosed(1, 100)
+        .mapToObj(i -> record("R" + i, (double) i))
+        .toList());
+
+    assertThat(index.percentile(50))
+        .as("[AmountIndex] median")
+        .isEqualTo(50.0);
+
+    assertThat(index.percentile(99.5))
+        .as("[AmountIndex] rank is rounded up")
+        .isEqualTo(100.0);
+
+    assertThat(index.percentile(0))
+        .as("[AmountIndex] p0 is the minimum")
+        .isEqualTo(1.0);
+
+    assertThatExceptionOfType(IllegalArgumentException.class)
+        .as("[AmountIndex] percentiles are between 0 and 100")
+        .isThrownBy(() -> index.percentile(101));
+
+    assertThatExceptionOfType(IllegalStateException.class)
+        .as("[AmountIndex] an empty index has no percentiles")
+        .isThrownBy(() -> AmountIndex.build(List.of()).percentile(50));
+  }
+
+  @Test
+  void shouldMatchStreamSortingOnLargeInput() {
+    var random = new Random(42);
+    var large = new ArrayList<Record>();
+    for (int i = 0; i < 200_000; i++) {
+      large.add(record("R" + i, (double) random.nextInt(10_000) / 100));
+    }
+
+    var index = AmountIndex.build(large);
+    var sorted = large.stream()
+        .sorted(Comparator.comparing(Record::getAmount))
+        .toList();
+
+    assertThat(index.bottomK(large.size()))
+        .as("[AmountIndex] the parallel build is a stable sort")
+        .containsExactlyElementsOf(sorted);
+
+    assertThat(index.range(10.0, 20.0))
+        .as("[AmountIndex] ranges match a filter over the sorted stream")
+        .containsExactlyElementsOf(sorted.stream()
+            .filter(record -> record.getAmount() >= 10.0 && record.getAmount() <= 20.0)
+            .toList());
+  }
+
+  private static Record record(String name, Double amount) {
+    return Record.builder().name(name).code("SSS").amount(amount).build();
+  }
+
+}
@@ -0,0 +1,136 @@
+package io.eldermael.java.libs;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.awaitility.Awaitility.await;
+
+public class AsyncBatchFileReaderTest extends BaseTestConfiguration {
+
+  @TempDir
+  Path directory;
+
+  final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+  @AfterEach
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void shouldReadLinesOfEveryFile() throws IOException {
+    var files = new ArrayList<Path>();
+    for (int i = 0; i < 50; i++) {
+      files.add(Files.writeString(directory.resolve("batch-" + i + ".txt"), i + "\n" + (i * 10) + "\n"));
+    }
+
+    var reader = new AsyncBatchFileReader(executor, 4);
+    var results = reader.readLines(files);
+
+    CompletableFuture.allOf(results.values().toArray(CompletableFuture[]::new)).join();
+
+    assertThat(results.get(files.get(7)).join())
+        .as("[AsyncIO] each future has the lines of its own file")
+        .containsExactly("7", "70");
+
+    // the slot is released by a completion callback that may run after join() returns
+    await().untilAsserted(() -> assertThat(reader.outstandingReads())
+        .as("[AsyncIO] every channel is released once done")
+        .isZero());
+  }
+
+  @Test
+  void shouldFailOnlyTheFutureOfTheMissingFile() throws IOException {
+    var existing = Files.writeString(directory.resolve("batchfile.txt"), "10\n");
+    var reader = new AsyncBatchFileReader(executor, 1);
+
+    var missing = reader.readLines(directory.resolve("does-not-exist.txt"));
+    var found = reader.readLines(existing);
+
+    assertThatExceptionOfType(Exception.class)
+        .as("[AsyncIO] missing file fails its future")
+        .isThrownBy(missing::join)
+        .withCauseInstanceOf(NoSuchFileException.class);
+
+    assertThat(found.join())
+        .as("[AsyncIO] a failure frees the slot for the next file")
+        .containsExactly("10");
+  }
+
+  @Test
+  void shouldNotReadFilesWhoseLinesWereCancelled() throws Exception {
+    var tasks = new AtomicInteger();
+    var counting = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>()) {
+      @Override
+      protected void beforeExecute(Thread thread, Runnable task) {
+        tasks.incrementAndGet();
+      }
+    };
+    try {
+      var unblock = new CountDownLatch(1);
+      counting.execute(() -> Uninterruptibles.awaitUninterruptibly(unblock));
+      var reader = new AsyncBatchFileReader(counting, 1);
+
+      var first = reader.readLines(Files.writeString(directory.resolve("first.txt"), "10\n"));
+      var cancelled = reader.readLines(Files.writeString(directory.resolve("second.txt"), "20\n"));
+      cancelled.cancel(true);
+      unblock.countDown();
+
+      assertThat(first.get(10, TimeUnit.SECONDS)).containsExactly("10");
+      await().untilAsserted(() -> assertThat(reader.outstandingReads()).isZero());
+      counting.submit(() -> {
+      }).get();
+
+      assertThat(tasks.get())
+          .as("[AsyncIO] cancelling the lines cancels the queued read, so only the first file is read")
+          .isEqualTo(3);
+    } finally {
+      counting.shutdownNow();
+    }
+  }
+
+  @Test
+  void shouldStartQueuedReadsWithoutGrowingTheStack() throws Exception {
+    var blocked = Executors.newSingleThreadExecutor();
+    try {
+      var unblock = new CountDownLatch(1);
+      blocked.execute(() -> Uninterruptibles.awaitUninterruptibly(unblock));
+      var reader = new AsyncBatchFileReader(blocked, 1);
+
+      // holds the only slot until the executor runs its completion
+      var first = reader.readLines(Files.writeString(directory.resolve("batchfile.txt"), "10\n"));
+      var files = new ArrayList<Path>();
+      for (int i = 0; i < 20_000; i++) {
+        files.add(directory.resolve("missing-" + i + ".txt"));
+      }
+      var queued = reader.readLines(files);
+      unblock.countDown();
+
+      assertThat(first.get(10, TimeUnit.SECONDS)).containsExactly("10");
+      await().untilAsserted(() -> assertThat(queued.values())
+          .as("[AsyncIO] reads failing on the draining thread start the next one in a loop")
+          .allMatch(CompletableFuture::isCompletedExceptionally));
+    } finally {
+      blocked.shutdownNow();
+    }
+  }
+
+}
@@ -0,0 +1,92 @@
+package io.eldermael.java.libs;
+
+import io.eldermael.java.libs.BatchLineParser.LineError;
+import io.eldermael.java.libs.BatchLineParser.Reason;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class BatchLineParserTest extends BaseTestConfiguration {
+
+  private static final byte[] CORRUPT = "10\nabc\n20\n\n99999999999\n-30\r\n".getBytes(StandardCharsets.UTF_8);
+
+  @Test
+  void shouldSkipAndReportEveryBadLine() {
+    var report = BatchLineParser.skipAndReport().parse("corrupt.txt", CORRUPT);
+
+    assertThat(report.values())
+        .as("[Parser] good lines are kept")
+        .containsExactly(10, 20, -30);
+
+    assertThat(report.errors())
+        .as("[Parser] bad lines are reported with line number, offset and reason")
+        .containsExactly(
+            new LineError(2, 3, Reason.NOT_A_NUMBER),
+            new LineError(4, 10, Reason.EMPTY_LINE),
+            new LineError(5, 11, Reason.OVERFLOW));
+
+    assertThat(report.toProcessResult())
+        .isEqualTo(ProcessResult.SUCCESS);
+  }
+
+  @Test
+  void shouldStopAtFirstBadLineWhenFailingFast() {
+    var report = BatchLineParser.failFast().parse("corrupt.txt", CORRUPT);
+
+    assertThat(report.aborted())
+        .as("[Parser] fail-fast aborts on the first error")
+        .isTrue();
+
+    assertThat(report.values()).containsExactly(10);
+    assertThat(report.errors()).hasSize(1);
+    assertThat(report.toProcessResult()).isEqualTo(ProcessResult.ERROR);
+  }
+
+  @Test
+  void shouldAbortOnceThresholdIsExceeded() {
+    assertThat(BatchLineParser.withErrorThreshold(3).parse("corrupt.txt", CORRUPT).aborted())
+        .as("[Parser] three errors are within a threshold of three")
+        .isFalse();
+
+    var report = BatchLineParser.withErrorThreshold(2).parse("corrupt.txt", CORRUPT);
+
+    assertThat(report.aborted())
+        .as("[Parser] a third error exceeds a threshold of two")
+        .isTrue();
+
+    assertThat(report.errors())
+        .last()
+        .isEqualTo(new LineError(5, 11, Reason.TOO_MANY_ERRORS));
+  }
+
+  @Test
+  void shouldReportFilesWithoutLines() {
+    var report = BatchLineParser.skipAndReport().requiringLines().parse("empty.txt", new byte[0]);
+
+    assertThat(report.errors())
+        .as("[Parser] empty files break the 'has no lines' rule")
+        .containsExactly(new LineError(0, 0, Reason.NO_LINES));
+
+    assertThatExceptionOfType(IllegalStateException.class)
+        .as("[Parser] callers can still fail at the edge")
+        .isThrownBy(report::valuesOrThrow)
+        .withMessageStartingWith("Batch file 'empty.txt' could not be parsed");
+
+    assertThat(BatchLineParser.skipAndReport().parse("empty.txt", new byte[0]).aborted())
+        .as("[Parser] empty files are fine unless lines are required")
+        .isFalse();
+  }
+
+  @Test
+  void shouldParseIntegerBounds() {
+    var content = "2147483647\n-2147483648\n2147483648\n".getBytes(StandardCharsets.UTF_8);
+    var report = BatchLineParser.skipAndReport().parse("bounds.txt", content);
+
+    assertThat(report.values()).containsExactly(Integer.MAX_VALUE, Integer.MIN_VALUE);
+    assertThat(report.errors()).extracting(LineError::reason).containsExactly(Reason.OVERFLOW);
+  }
+
+}
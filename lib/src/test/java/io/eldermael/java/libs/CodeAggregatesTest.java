@@ -0,0 +1,110 @@
+package io.eldermael.java.libs;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class CodeAggregatesTest extends BaseTestConfiguration {
+
+  final CodeAggregates aggregates = new CodeAggregates();
+
+  @Test
+  void shouldAggregateInsertedAmountsPerCode() {
+    aggregates.insert(record("SSS", 10.0));
+    aggregates.insert(record("SSS", 30.0));
+    aggregates.insert(record("SSA", 5.0));
+    aggregates.insert(record("SSA", null));
+
+    assertThat(aggregates.get("SSS"))
+        .as("[Aggregates] sum, count, min and max per code")
+        .isEqualTo(new CodeAggregates.Aggregate(2, 40.0, 10.0, 30.0));
+
+    assertThat(aggregates.snapshot())
+        .as("[Aggregates] records without an amount are ignored")
+        .containsOnlyKeys("SSS", "SSA")
+        .containsEntry("SSA", new CodeAggregates.Aggregate(1, 5.0, 5.0, 5.0));
+
+    assertThat(aggregates.get("SDB"))
+        .as("[Aggregates] unknown codes are empty")
+        .isEqualTo(CodeAggregates.Aggregate.EMPTY);
+  }
+
+  @Test
+  void shouldKeepMinAndMaxThroughRetractionsAndUpdates() {
+    aggregates.insert(record("SSS", 10.0));
+    aggregates.insert(record("SSS", 20.0));
+    aggregates.insert(record("SSS", 30.0));
+
+    aggregates.retract(record("SSS", 30.0));
+    assertThat(aggregates.get("SSS"))
+        .as("[Aggregates] max falls back to the next amount")
+        .isEqualTo(new CodeAggregates.Aggregate(2, 30.0, 10.0, 20.0));
+
+    aggregates.update(record("SSS", 10.0), record("SSA", 15.0));
+    assertThat(aggregates.snapshot())
+        .as("[Aggregates] an update may move a record to another code")
+        .containsEntry("SSS", new CodeAggregates.Aggregate(1, 20.0, 20.0, 20.0))
+        .containsEntry("SSA", new CodeAggregates.Aggregate(1, 15.0, 15.0, 15.0));
+
+    aggregates.retract(record("SSA", 15.0));
+    assertThat(aggregates.snapshot())
+        .as("[Aggregates] codes without records leave the snapshot")
+        .containsOnlyKeys("SSS");
+  }
+
+  @Test
+  void shouldRejectRetractingUnknownRecords() {
+    aggregates.insert(record("SSS", 10.0));
+
+    assertThatExceptionOfType(IllegalArgumentException.class)
+        .as("[Aggregates] only inserted amounts can be retracted")
+        .isThrownBy(() -> aggregates.update(record("SSS", 11.0), record("SSS", 12.0)))
+        .withMessageContaining("No record with amount 11.0");
+
+    assertThat(aggregates.get("SSS"))
+        .as("[Aggregates] a failed update changes nothing")
+        .isEqualTo(new CodeAggregates.Aggregate(1, 10.0, 10.0, 10.0));
+
+    assertThatExceptionOfType(IllegalArgumentException.class)
+        .as("[Aggregates] unknown codes cannot be retracted")
+        .isThrownBy(() -> aggregates.retract(record("XXX", 1.0)))
+        .withMessageContaining("for code 'XXX'");
+  }
+
+  @Test
+  void shouldNotLoseConcurrentUpdates() throws InterruptedException {
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    IntStream.range(0, 8).forEach(thread -> executor.execute(() -> {
+      for (int i = 1; i <= 10_000; i++) {
+        aggregates.insert(record("SSS", i));
+        aggregates.insert(record("C" + (i % 16), 1.0));
+        aggregates.retract(record("C" + (i % 16), 1.0));
+      }
+    }));
+    executor.shutdown();
+    assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+    assertThat(aggregates.get("SSS"))
+        .as("[Aggregates] striped writers on the same code do not lose updates")
+        .isEqualTo(new CodeAggregates.Aggregate(80_000, 8 * 50_005_000.0, 1.0, 10_000.0));
+
+    assertThat(aggregates.snapshot())
+        .as("[Aggregates] inserts and retractions cancel out")
+        .containsOnlyKeys("SSS");
+  }
+
+  private static Record record(String code, Double amount) {
+    return Record.builder().name("R").code(code).amount(amount).build();
+  }
+
+  private static Record record(String code, int amount) {
+    return record(code, (double) amount);
+  }
+
+}
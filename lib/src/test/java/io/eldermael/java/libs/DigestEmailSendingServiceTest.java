@@ -0,0 +1,171 @@
+package io.eldermael.java.libs;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.vavr.control.Either;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+
+@ExtendWith(MockitoExtension.class)
+public class DigestEmailSendingServiceTest extends BaseTestConfiguration {
+
+  @Mock
+  EmailQueue mailQueue;
+
+  final List<String> sent = new CopyOnWriteArrayList<>();
+  final AtomicBoolean mailServerUp = new AtomicBoolean(true);
+
+  final EmailSender standIn = new EmailSender() {
+    @Override
+    protected Either<String, ProcessResult> deliver(String message) {
+      if (!mailServerUp.get()) {
+        return Either.left("Mail server is down");
+      }
+      sent.add(message);
+      return Either.right(ProcessResult.SUCCESS);
+    }
+  };
+
+  final HashedWheelTimer timer = new HashedWheelTimer(Duration.ofMillis(5), 64);
+
+  @AfterEach
+  void stopTimer() {
+    timer.close();
+  }
+
+  @Test
+  void shouldSendOneDigestPerGroupWhenTheCountIsReached() throws Exception {
+    var service = service(Duration.ofMinutes(1), 3);
+
+    var first = service.sendEmail("db: disk full");
+    service.sendEmail("web: 500s");
+    service.sendEmail("db: replica lag");
+    var last = service.sendEmail("db: slow queries");
+
+    assertThat(last.get(1, TimeUnit.SECONDS))
+        .as("[Digest] full digest is sent right away")
+        .isEqualTo(ProcessResult.SUCCESS);
+    assertThat(first.get(1, TimeUnit.SECONDS))
+        .as("[Digest] every alert completes with its digest")
+        .isEqualTo(ProcessResult.SUCCESS);
+    assertThat(sent)
+        .as("[Digest] three db alerts in one email")
+        .containsExactly("3 alerts for db\n\n- db: disk full\n- db: replica lag\n- db: slow queries");
+    assertThat(service.digestCount())
+        .as("[Digest] web alert is still waiting")
+        .isEqualTo(1);
+  }
+
+  @Test
+  void shouldSendPartialDigestsOnceTheWindowCloses() throws Exception {
+    var service = service(Duration.ofMillis(50), 100);
+
+    service.sendEmail("db: disk full");
+    var alert = service.sendEmail("db: replica lag");
+
+    assertThat(alert.get(1, TimeUnit.SECONDS))
+        .as("[Digest] window bounds the wait")
+        .isEqualTo(ProcessResult.SUCCESS);
+    assertThat(sent)
+        .as("[Digest] both alerts in one email")
+        .containsExactly("2 alerts for db\n\n- db: disk full\n- db: replica lag");
+  }
+
+  @Test
+  void shouldPersistTheWholeDigestWhenSendingFails() throws Exception {
+    mailServerUp.set(false);
+    given(mailQueue.persistEmailForLater(anyString())).willReturn(ProcessResult.SUCCESS);
+    var service = service(Duration.ofMinutes(1), 2);
+
+    service.sendEmail("db: disk full");
+    var alert = service.sendEmail("db: replica lag");
+
+    assertThat(alert.get(1, TimeUnit.SECONDS))
+        .as("[Digest] fallback result is reported")
+        .isEqualTo(ProcessResult.SUCCESS);
+    then(mailQueue).should().persistEmailForLater("2 alerts for db\n\n- db: disk full\n- db: replica lag");
+    then(mailQueue).shouldHaveNoMoreInteractions();
+  }
+
+  @Test
+  void shouldFlushOpenDigestsOnDemand() throws InterruptedException, ExecutionException, TimeoutException {
+    var service = service(Duration.ofMinutes(1), 100);
+
+    var alert = service.sendEmail("db: disk full");
+    service.flushAll();
+
+    assertThat(alert.get(1, TimeUnit.SECONDS))
+        .as("[Digest] flushed without waiting for the window")
+        .isEqualTo(ProcessResult.SUCCESS);
+    assertThat(sent)
+        .as("[Digest] single alerts are sent unchanged")
+        .containsExactly("db: disk full");
+  }
+
+  @Test
+  void shouldStillSendTheDigestWhenOneCallerCancels() throws Exception {
+    var service = service(Duration.ofMinutes(1), 100);
+
+    var cancelled = service.sendEmail("db: disk full");
+    var alert = service.sendEmail("db: replica lag");
+    cancelled.cancel(true);
+    service.flushAll();
+
+    assertThat(alert.get(1, TimeUnit.SECONDS))
+        .as("[Digest] other callers still get the digest outcome")
+        .isEqualTo(ProcessResult.SUCCESS);
+    assertThat(sent)
+        .as("[Digest] the cancelled alert is still part of the digest")
+        .containsExactly("2 alerts for db\n\n- db: disk full\n- db: replica lag");
+  }
+
+  @Test
+  void shouldPersistTheDigestWhenTheExecutorRejectsIt() throws Exception {
+    given(mailQueue.persistEmailForLater(anyString())).willReturn(ProcessResult.SUCCESS);
+    var executor = MoreExecutors.newDirectExecutorService();
+    var service = service(executor, Duration.ofMillis(20), 100);
+
+    var alert = service.sendEmail("db: disk full");
+    executor.shutdown();
+
+    assertThat(alert.get(1, TimeUnit.SECONDS))
+        .as("[Digest] a rejected flush does not leave the futures hanging")
+        .isEqualTo(ProcessResult.SUCCESS);
+    then(mailQueue).should().persistEmailForLater("db: disk full");
+    assertThat(sent)
+        .as("[Digest] nothing was sent")
+        .isEmpty();
+  }
+
+  private DigestEmailSendingService service(Duration maxDelay, int maxAlerts) {
+    return service(MoreExecutors.newDirectExecutorService(), maxDelay, maxAlerts);
+  }
+
+  private DigestEmailSendingService service(ListeningExecutorService executor, Duration maxDelay, int maxAlerts) {
+    return new DigestEmailSendingService(
+        executor,
+        standIn,
+        mailQueue,
+        timer,
+        alert -> alert.substring(0, alert.indexOf(':')),
+        maxDelay,
+        maxAlerts);
+  }
+
+}
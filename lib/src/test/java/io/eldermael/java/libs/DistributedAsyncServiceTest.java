@@ -0,0 +1,233 @@
+package io.eldermael.java.libs;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class DistributedAsyncServiceTest extends BaseTestConfiguration {
+
+  final List<AutoCloseable> resources = new ArrayList<>();
+
+  @AfterEach
+  void closeAll() throws Exception {
+    for (var resource : resources) {
+      resource.close();
+    }
+  }
+
+  @Test
+  void shouldAnswerPipelinedRequestsFromWorkerProcesses() throws Exception {
+    var workers = List.of(launch(), launch());
+    var service = service(workers.stream().map(BusinessProcessWorker.LocalProcess::address).toList());
+
+    var results = submit(service, 2_000);
+
+    assertThat(Futures.allAsList(results).get(30, TimeUnit.SECONDS))
+        .as("[Distributed] every response is matched to its request")
+        .hasSize(2_000)
+        .allSatisfy(result -> assertThat(result).endsWith(":SUCCESS"))
+        .contains("model-0:SUCCESS", "model-1999:SUCCESS");
+  }
+
+  @Test
+  void shouldAnswerEveryRequestBeforeClosingAHalfClosedConnection() throws Exception {
+    var worker = BusinessProcessWorker.start(0, BusinessProcessWorker.simulatedProcess(2_000));
+    resources.add(worker);
+
+    try (var socket = new Socket(worker.address().getAddress(), worker.address().getPort())) {
+      var out = new DataOutputStream(socket.getOutputStream());
+      for (int id = 0; id < 20; id++) {
+        WorkerProtocol.writeRequest(out, id, "model-" + id);
+      }
+      out.flush();
+      socket.shutdownOutput();
+
+      var in = new DataInputStream(socket.getInputStream());
+      var answered = new HashSet<Long>();
+      for (int i = 0; i < 20; i++) {
+        answered.add(WorkerProtocol.readResponse(in).id());
+      }
+      assertThat(answered)
+          .as("[Distributed] requests still running at end of input are answered")
+          .hasSize(20);
+    }
+  }
+
+  @Test
+  void shouldRerouteWhenAWorkerProcessDies() throws Exception {
+    var survivor = launch();
+    var victim = launch();
+    var service = service(List.of(survivor.address(), victim.address()));
+    Futures.allAsList(submit(service, 100)).get(10, TimeUnit.SECONDS);
+
+    victim.process().destroyForcibly().waitFor();
+    var results = submit(service, 1_000);
+
+    assertThat(Futures.allAsList(results).get(30, TimeUnit.SECONDS))
+        .as("[Distributed] requests of the dead worker are answered by the survivor")
+        .hasSize(1_000);
+    assertThat(service.liveWorkers()).isEqualTo(1);
+    assertThat(service.workerFor("model-1"))
+        .as("[Distributed] survivor owns all data")
+        .isEqualTo(survivor.address());
+  }
+
+  @Test
+  void shouldRouteTheSameDataToTheSameWorker() throws IOException {
+    var service = service(List.of(inProcess().address(), inProcess().address(), inProcess().address()));
+
+    var owners = new HashSet<InetSocketAddress>();
+    for (int i = 0; i < 100; i++) {
+      var owner = service.workerFor("model-" + i);
+      assertThat(service.workerFor("model-" + i))
+          .as("[Distributed] routing is stable")
+          .isEqualTo(owner);
+      owners.add(owner);
+    }
+
+    assertThat(owners)
+        .as("[Distributed] data is spread over every worker")
+        .hasSize(3);
+  }
+
+  @Test
+  void shouldOnlyMoveTheDataOfADeadWorker() throws Exception {
+    var first = inProcess();
+    var second = inProcess();
+    var third = inProcess();
+    var service = service(List.of(first.address(), second.address(), third.address()));
+    var before = new ArrayList<InetSocketAddress>();
+    for (int i = 0; i < 300; i++) {
+      before.add(service.workerFor("model-" + i));
+    }
+
+    third.close();
+    submit(service, 300).forEach(Futures::getUnchecked);
+
+    for (int i = 0; i < 300; i++) {
+      if (!before.get(i).equals(third.address())) {
+        assertThat(service.workerFor("model-" + i))
+            .as("[Distributed] data of live workers does not move")
+            .isEqualTo(before.get(i));
+      }
+    }
+  }
+
+  @Test
+  void shouldReportProcessFailures() throws IOException {
+    var worker = BusinessProcessWorker.start(0, model -> {
+      throw new IllegalStateException("Process failed for " + model.getData());
+    });
+    resources.add(worker);
+    var service = service(List.of(worker.address()));
+
+    assertThatExceptionOfType(ExecutionException.class)
+        .isThrownBy(() -> submit(service, 1).get(0).get(10, TimeUnit.SECONDS))
+        .withCauseInstanceOf(DistributedAsyncService.RemoteProcessException.class)
+        .withMessageContaining("Process failed for model-0");
+  }
+
+  @Test
+  void shouldFailOnlyTheOversizedRequests() throws Exception {
+    var worker = BusinessProcessWorker.start(0, model -> {
+      var data = model.getData();
+      return data.length() > 10 ? data + data : "ok";
+    });
+    resources.add(worker);
+    var service = service(List.of(worker.address()));
+
+    var oversized = new BusinessModel();
+    oversized.setData("x".repeat(WorkerProtocol.MAX_LENGTH + 1));
+    assertThatExceptionOfType(ExecutionException.class)
+        .as("[Distributed] a request over the limit fails before it is sent")
+        .isThrownBy(() -> service.submitBusinessProcess(oversized).get(10, TimeUnit.SECONDS))
+        .withCauseInstanceOf(IllegalArgumentException.class);
+
+    var doubled = new BusinessModel();
+    doubled.setData("x".repeat(WorkerProtocol.MAX_LENGTH / 2 + 1));
+    assertThatExceptionOfType(ExecutionException.class)
+        .as("[Distributed] a response over the limit fails its request")
+        .isThrownBy(() -> service.submitBusinessProcess(doubled).get(10, TimeUnit.SECONDS))
+        .withCauseInstanceOf(DistributedAsyncService.RemoteProcessException.class)
+        .withMessageContaining("over the");
+
+    assertThat(Futures.allAsList(submit(service, 10)).get(10, TimeUnit.SECONDS))
+        .as("[Distributed] the connection survives oversized frames")
+        .containsOnly("ok");
+    assertThat(service.liveWorkers()).isEqualTo(1);
+  }
+
+  @Test
+  void shouldAnswerProcessesThatThrowErrors() throws IOException {
+    var worker = BusinessProcessWorker.start(0, model -> {
+      throw new AssertionError("Broken process");
+    });
+    resources.add(worker);
+    var service = service(List.of(worker.address()));
+
+    assertThatExceptionOfType(ExecutionException.class)
+        .as("[Distributed] an Error in the process is still answered")
+        .isThrownBy(() -> submit(service, 1).get(0).get(10, TimeUnit.SECONDS))
+        .withCauseInstanceOf(DistributedAsyncService.RemoteProcessException.class)
+        .withMessageContaining("Broken process");
+  }
+
+  @Test
+  void shouldFailWhenNoWorkerIsLeft() throws Exception {
+    var worker = inProcess();
+    var service = service(List.of(worker.address()));
+    worker.close();
+
+    var results = submit(service, 50);
+
+    assertThat(results)
+        .as("[Distributed] nothing hangs once every worker is gone")
+        .allSatisfy(result -> assertThatExceptionOfType(ExecutionException.class)
+            .isThrownBy(() -> result.get(10, TimeUnit.SECONDS))
+            .withMessageContaining("No live workers"));
+  }
+
+  private BusinessProcessWorker.LocalProcess launch() throws IOException {
+    var worker = BusinessProcessWorker.launch(0);
+    resources.add(worker);
+    return worker;
+  }
+
+  private BusinessProcessWorker inProcess() throws IOException {
+    var worker = BusinessProcessWorker.start(0, BusinessProcessWorker.simulatedProcess(0));
+    resources.add(worker);
+    return worker;
+  }
+
+  private DistributedAsyncService service(List<InetSocketAddress> workers) throws IOException {
+    var service = new DistributedAsyncService(workers);
+    resources.add(0, service);
+    return service;
+  }
+
+  private static List<ListenableFuture<String>> submit(AsyncService service, int count) {
+    var results = new ArrayList<ListenableFuture<String>>(count);
+    for (int i = 0; i < count; i++) {
+      var model = new BusinessModel();
+      model.setData("model-" + i);
+      results.add(service.submitBusinessProcess(model));
+    }
+    return results;
+  }
+
+}
@@ -0,0 +1,120 @@
+package io.eldermael.java.libs;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class DuplicateAlertFilterTest extends BaseTestConfiguration {
+
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  @Test
+  void shouldSuppressRepeatsWithinTheWindow() {
+    var clock = new AtomicLong();
+    var filter = new DuplicateAlertFilter(Duration.ofSeconds(60), 1_000, 0.001, 4, clock::get);
+
+    assertThat(filter.isDuplicate("disk full on db-1"))
+        .as("[Dedup] first copy goes through")
+        .isFalse();
+
+    clock.addAndGet(30 * SECOND);
+
+    assertThat(filter.isDuplicate("disk full on db-1"))
+        .as("[Dedup] repeat inside the window is suppressed")
+        .isTrue();
+    assertThat(filter.isDuplicate("disk full on db-2"))
+        .as("[Dedup] other alerts go through")
+        .isFalse();
+
+    assertThat(filter.suppressedCount())
+        .as("[Dedup] suppressed copies are counted")
+        .isEqualTo(1);
+    assertThat(filter.passedCount())
+        .as("[Dedup] distinct alerts are counted")
+        .isEqualTo(2);
+  }
+
+  @Test
+  void shouldForgetAlertsOnceTheWindowHasPassed() {
+    var clock = new AtomicLong();
+    var filter = new DuplicateAlertFilter(Duration.ofSeconds(60), 1_000, 0.001, 4, clock::get);
+
+    filter.isDuplicate("disk full on db-1");
+    clock.addAndGet(61 * SECOND);
+
+    assertThat(filter.isDuplicate("disk full on db-1"))
+        .as("[Dedup] alert is sent again after the window")
+        .isFalse();
+
+    clock.addAndGet(10 * 60 * SECOND);
+
+    assertThat(filter.isDuplicate("disk full on db-1"))
+        .as("[Dedup] long idle gaps clear every generation")
+        .isFalse();
+  }
+
+  @Test
+  void shouldKeepFalsePositivesNearTheConfiguredRate() {
+    var filter = new DuplicateAlertFilter(Duration.ofMinutes(5), 100_000, 0.01, 4, () -> 0L);
+
+    for (int i = 0; i < 100_000; i++) {
+      filter.isDuplicate("alert-" + i);
+    }
+
+    assertThat(filter.suppressedCount())
+        .as("[Dedup] about 1% of distinct alerts are wrongly suppressed")
+        .isLessThan(2_000);
+
+    long filled = filter.suppressedCount();
+    for (int i = 0; i < 5_000; i++) {
+      filter.isDuplicate("other-" + i);
+    }
+    assertThat(filter.suppressedCount() - filled)
+        .as("[Dedup] a full filter stays near the rate despite blocking")
+        .isLessThan(75);
+  }
+
+  @Test
+  void shouldUseConstantMemory() {
+    var filter = new DuplicateAlertFilter(Duration.ofMinutes(5), 10_000_000, 0.01);
+
+    assertThat(filter.memoryBytes())
+        .as("[Dedup] four generations of ~13MB for 10M alerts at 1%")
+        .isBetween(45_000_000L, 55_000_000L);
+  }
+
+  @Test
+  void shouldRejectInvalidSettings() {
+    assertThatExceptionOfType(IllegalArgumentException.class)
+        .as("[Dedup] rate must be a probability")
+        .isThrownBy(() -> new DuplicateAlertFilter(Duration.ofMinutes(1), 10, 1.5));
+
+    assertThatExceptionOfType(IllegalArgumentException.class)
+        .as("[Dedup] one generation cannot slide")
+        .isThrownBy(() -> new DuplicateAlertFilter(Duration.ofMinutes(1), 10, 0.01, 1, System::nanoTime));
+  }
+
+  @Test
+  void shouldSendOnlyTheFirstCopy() throws ExecutionException, InterruptedException {
+    var filter = new DuplicateAlertFilter(Duration.ofMinutes(1), 1_000, 0.001);
+    var service = new DeduplicatingEmailSendingService(MoreExecutors.newDirectExecutorService(), filter);
+
+    for (int i = 0; i < 5; i++) {
+      assertThat(service.sendEmail("disk full on db-1").get())
+          .as("[Dedup] callers always see success")
+          .isEqualTo(ProcessResult.SUCCESS);
+    }
+
+    assertThat(filter.suppressedCount())
+        .as("[Dedup] four copies never reached the sender")
+        .isEqualTo(4);
+  }
+
+}
@@ -0,0 +1,167 @@
+package io.eldermael.java.libs;
+
+import io.vavr.control.Either;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+public class EmailRetryDrainerTest extends BaseTestConfiguration {
+
+  final AtomicLong clock = new AtomicLong();
+  final AtomicBoolean mailServerUp = new AtomicBoolean(true);
+  final InMemoryEmailQueue queue = new InMemoryEmailQueue(clock::get);
+  final ExecutorService senders = Executors.newFixedThreadPool(4);
+
+  final EmailSender standIn = new EmailSender() {
+    @Override
+    protected Either<String, ProcessResult> deliver(String message) {
+      return mailServerUp.get() ? Either.right(ProcessResult.SUCCESS) : Either.left("Mail server is down");
+    }
+  };
+
+  final EmailRetryDrainer drainer = new EmailRetryDrainer(
+      queue, standIn, senders, 10, 4, Duration.ofSeconds(1), Duration.ofSeconds(30), clock::get);
+
+  @AfterEach
+  void shutdown() {
+    drainer.close();
+    senders.shutdownNow();
+  }
+
+  @Test
+  void shouldAcknowledgeDeliveredMessagesAndGrowConcurrency() {
+    for (int i = 0; i < 25; i++) {
+      queue.persistEmailForLater("Oopsie #" + i);
+    }
+
+    var first = drainer.drainOnce();
+    var second = drainer.drainOnce();
+    var third = drainer.drainOnce();
+
+    assertThat(first.sent() + second.sent() + third.sent())
+        .as("[Drain] every message is sent in batches")
+        .isEqualTo(25);
+
+    assertThat(third.concurrencyLimit())
+        .as("[Drain] concurrency grows by one per clean round")
+        .isEqualTo(4);
+
+    assertThat(queue.pendingCount() + queue.inFlightCount())
+        .as("[Drain] delivered messages are acknowledged")
+        .isZero();
+  }
+
+  @Test
+  void shouldRescheduleFailuresWithBackoffAndBackOffConcurrency() {
+    queue.persistEmailForLater("Oopsie!");
+    drainer.drainOnce();
+    drainer.drainOnce();
+    queue.persistEmailForLater("Oopsie again!");
+    mailServerUp.set(false);
+
+    var failedRound = drainer.drainOnce();
+
+    assertThat(failedRound.failed()).isEqualTo(1);
+    assertThat(failedRound.concurrencyLimit())
+        .as("[Drain] concurrency halves after failures")
+        .isEqualTo(1);
+
+    mailServerUp.set(true);
+    assertThat(drainer.drainOnce().sent())
+        .as("[Drain] failed message is not due before its backoff")
+        .isZero();
+
+    clock.addAndGet(Duration.ofSeconds(1).toNanos());
+    assertThat(drainer.drainOnce().sent())
+        .as("[Drain] failed message is re-sent after its backoff")
+        .isEqualTo(1);
+  }
+
+  @Test
+  void shouldRescheduleTheLanesARejectingPoolDidNotRun() {
+    for (int i = 0; i < 3; i++) {
+      queue.persistEmailForLater("Warm-up #" + i);
+      drainer.drainOnce();
+    }
+    assertThat(drainer.concurrencyLimit()).isEqualTo(4);
+    for (int i = 0; i < 10; i++) {
+      queue.persistEmailForLater("Oopsie #" + i);
+    }
+    senders.shutdown();
+
+    var rejectedRound = drainer.drainOnce();
+
+    assertThat(rejectedRound.sent() + rejectedRound.failed())
+        .as("[Drain] nothing is attempted on a shut-down pool")
+        .isZero();
+    assertThat(queue.inFlightCount())
+        .as("[Drain] rejected emails do not stay in flight")
+        .isZero();
+    assertThat(queue.pendingCount())
+        .as("[Drain] rejected emails are due again straight away")
+        .isEqualTo(10);
+    assertThat(queue.pollDue(10, clock.get())).hasSize(10);
+    assertThat(rejectedRound.concurrencyLimit())
+        .as("[Drain] a rejected round backs off like a failed one")
+        .isEqualTo(2);
+  }
+
+  @Test
+  void shouldGrowBackoffExponentiallyUpToTheMaximum() {
+    assertThat(drainer.backoffNanos(0))
+        .as("[Drain] first retry waits between half and the whole base backoff")
+        .isBetween(Duration.ofMillis(500).toNanos(), Duration.ofSeconds(1).toNanos());
+
+    assertThat(drainer.backoffNanos(3))
+        .isBetween(Duration.ofSeconds(4).toNanos(), Duration.ofSeconds(8).toNanos());
+
+    assertThat(drainer.backoffNanos(50))
+        .as("[Drain] backoff is capped")
+        .isBetween(Duration.ofSeconds(15).toNanos(), Duration.ofSeconds(30).toNanos());
+
+    // 2^34 + 1 ns shifted by 30 wraps around to about a second
+    try (var slowBase = new EmailRetryDrainer(
+        queue, standIn, senders, 10, 4, Duration.ofNanos((1L << 34) + 1), Duration.ofHours(1), clock::get)) {
+      assertThat(slowBase.backoffNanos(30))
+          .as("[Drain] large bases saturate instead of overflowing")
+          .isBetween(Duration.ofMinutes(30).toNanos(), Duration.ofHours(1).toNanos());
+    }
+  }
+
+  @Test
+  void shouldOrderDueTimesAcrossNanoTimeWrapAround() {
+    clock.set(Long.MAX_VALUE - 10);
+    queue.persistEmailForLater("Oopsie!");
+    var retried = queue.pollDue(1, clock.get()).get(0);
+    queue.reschedule(retried, clock.get() + 100);
+    queue.persistEmailForLater("Oopsie again!");
+
+    assertThat(queue.pollDue(10, clock.get()))
+        .as("[Drain] a retry due after the wrap does not block messages due now")
+        .extracting(QueuedEmail::message)
+        .containsExactly("Oopsie again!");
+  }
+
+  @Test
+  void shouldDrainInTheBackgroundOnceStarted() {
+    for (int i = 0; i < 100; i++) {
+      queue.persistEmailForLater("Oopsie #" + i);
+    }
+
+    drainer.start(Duration.ofMillis(50));
+
+    await()
+        .untilAsserted(() -> assertThat(queue.pendingCount() + queue.inFlightCount())
+            .as("[Drain] background drainer clears the queue")
+            .isZero());
+  }
+
+}
@@ -0,0 +1,64 @@
+package io.eldermael.java.libs;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+public class EmailSenderTest extends BaseTestConfiguration {
+
+  @Test
+  void shouldReturnFailureReasonInsteadOfThrowing() {
+    var result = new EmailSender().trySendAlertEmail("Oopsie!");
+
+    assertThat(result.isLeft())
+        .as("[Mail] failed send is a Left")
+        .isTrue();
+
+    assertThat(result.getLeft())
+        .as("[Mail] Left carries the failure reason")
+        .isEqualTo("Error");
+  }
+
+  @Test
+  void shouldKeepThrowingWithStackTraceByDefault() {
+    var exception = catchThrowableOfType(() -> new EmailSender().sendAlertEmail("Oopsie!"), MailException.class);
+
+    assertThat(exception.getStackTrace())
+        .as("[Mail] default exceptions still have a stack trace")
+        .isNotEmpty();
+  }
+
+  @Test
+  void shouldThrowStacklessExceptions() {
+    var exception = catchThrowableOfType(
+        () -> EmailSender.withStacklessFailures().sendAlertEmail("Oopsie!"),
+        MailException.class);
+
+    assertThat(exception)
+        .as("[Mail] stackless exceptions keep the message")
+        .hasMessage("Error");
+
+    assertThat(exception.getStackTrace())
+        .as("[Mail] stackless exceptions have no stack trace")
+        .isEmpty();
+  }
+
+  @Test
+  void shouldReusePreallocatedExceptions() {
+    var sender = EmailSender.withPreallocatedFailures();
+
+    var first = catchThrowableOfType(() -> sender.sendAlertEmail("Oopsie!"), MailException.class);
+    var second = catchThrowableOfType(() -> sender.sendAlertEmail("Again!"), MailException.class);
+
+    assertThat(first)
+        .as("[Mail] same reason throws the same instance")
+        .isSameAs(second);
+
+    assertThatExceptionOfType(MailException.class)
+        .isThrownBy(() -> sender.sendAlertEmail("Oopsie!"))
+        .withMessage("Error");
+  }
+
+}
@@ -0,0 +1,176 @@
+package io.eldermael.java.libs;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.awaitility.Awaitility.await;
+
+public class FanOutScopeTest extends BaseTestConfiguration {
+
+  final ListeningExecutorService executor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(4));
+
+  @AfterEach
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void shouldJoinAllValuesInForkOrder() throws Exception {
+    var second = SettableFuture.<String>create();
+    var scope = FanOutScope.<String>joinAll();
+    scope.fork(() -> second);
+    scope.fork(() -> Futures.immediateFuture("first"));
+    var result = scope.join();
+
+    assertThat(result.isDone())
+        .as("[FanOut] waits for every sub-task")
+        .isFalse();
+
+    second.set("second");
+
+    assertThat(result.get())
+        .as("[FanOut] values come in fork order, not completion order")
+        .containsExactly("second", "first");
+  }
+
+  @Test
+  void shouldCancelAndInterruptSiblingsOnTheFirstFailure() throws Exception {
+    var interrupted = new AtomicBoolean();
+    var started = new CountDownLatch(1);
+    var scope = FanOutScope.<String>joinAll();
+
+    var slow = scope.fork(() -> executor.submit(() -> blockUntilInterrupted(started, interrupted)));
+    var failing = SettableFuture.<String>create();
+    scope.fork(() -> failing);
+    var result = scope.join();
+    started.await();
+
+    failing.setException(new IllegalStateException("Process failed"));
+
+    assertThatExceptionOfType(ExecutionException.class)
+        .isThrownBy(result::get)
+        .withCauseInstanceOf(IllegalStateException.class);
+    assertThat(slow.isCancelled())
+        .as("[FanOut] sibling future is cancelled")
+        .isTrue();
+    await().untilTrue(interrupted);
+  }
+
+  @Test
+  void shouldAnswerWithTheFirstSuccessAndCancelTheRest() throws Exception {
+    var slow = SettableFuture.<String>create();
+    var scope = FanOutScope.<String>firstSuccess();
+    scope.fork(() -> Futures.immediateFailedFuture(new IllegalStateException("Replica down")));
+    scope.fork(() -> slow);
+    scope.fork(() -> Futures.immediateFuture("fast"));
+
+    assertThat(scope.join().get())
+        .as("[FanOut] failures are skipped, first value wins")
+        .isEqualTo("fast");
+    assertThat(slow.isCancelled()).isTrue();
+  }
+
+  @Test
+  void shouldFailFirstSuccessOnlyWhenEverySubTaskFailed() {
+    var scope = FanOutScope.<String>firstSuccess();
+    scope.fork(() -> Futures.immediateFailedFuture(new IllegalStateException("Replica 1 down")));
+    scope.fork(() -> {
+      throw new IllegalStateException("Replica 2 down");
+    });
+
+    assertThatExceptionOfType(ExecutionException.class)
+        .isThrownBy(() -> scope.join().get())
+        .havingCause()
+        .withMessage("All 2 sub-tasks failed")
+        .satisfies(failure -> assertThat(failure.getSuppressed()).hasSize(2));
+  }
+
+  @Test
+  void shouldCancelSubTasksWhenTheCallerGivesUp() {
+    var first = SettableFuture.<String>create();
+    var second = SettableFuture.<String>create();
+    var scope = FanOutScope.<String>joinAll();
+    scope.fork(() -> first);
+    scope.fork(() -> second);
+
+    scope.join().cancel(true);
+
+    assertThat(List.of(first, second))
+        .as("[FanOut] client disconnect reaches every sub-task")
+        .allMatch(ListenableFuture::isCancelled);
+  }
+
+  @Test
+  void shouldNotStartSubTasksOnceDecided() {
+    var scope = FanOutScope.<String>firstSuccess();
+    scope.fork(() -> Futures.immediateFuture("done"));
+    var started = new AtomicBoolean();
+
+    var late = scope.fork(() -> {
+      started.set(true);
+      return Futures.immediateFuture("late");
+    });
+
+    assertThat(started).isFalse();
+    assertThat(late.isCancelled()).isTrue();
+  }
+
+  @Test
+  void shouldCancelEverythingLeftOnClose() {
+    var pending = SettableFuture.<String>create();
+    try (var scope = FanOutScope.<String>joinAll()) {
+      scope.fork(() -> pending);
+    }
+
+    assertThat(pending.isCancelled())
+        .as("[FanOut] nothing outlives the scope")
+        .isTrue();
+  }
+
+  @Test
+  void shouldFanOutControllerRequests() throws Exception {
+    AsyncService service = model -> model.getData().startsWith("bad")
+        ? Futures.immediateFailedFuture(new IllegalStateException("Process failed"))
+        : Futures.immediateFuture(model.getData().toUpperCase());
+    var controller = new SomeController(service);
+    var request = HttpRequest.newBuilder(URI.create("http://localhost/process")).build();
+
+    assertThat(controller.processRequest(request, List.of(model("a"), model("b"))).get())
+        .containsExactly("A", "B");
+    assertThat(controller.processRequestWithAnyOf(request, List.of(model("bad"), model("c"))).get())
+        .isEqualTo("C");
+  }
+
+  private static String blockUntilInterrupted(CountDownLatch started, AtomicBoolean interrupted) {
+    started.countDown();
+    try {
+      TimeUnit.MINUTES.sleep(1);
+    } catch (InterruptedException e) {
+      interrupted.set(true);
+    }
+    return "slow";
+  }
+
+  private static BusinessModel model(String data) {
+    var model = new BusinessModel();
+    model.setData(data);
+    return model;
+  }
+
+}
@@ -0,0 +1,157 @@
+package io.eldermael.java.libs;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.vavr.control.Either;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class FlightRecorderEventsTest extends BaseTestConfiguration {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void shouldRecordAlertEmailSends() throws IOException {
+    var sender = new EmailSender() {
+      @Override
+      protected Either<String, ProcessResult> deliver(String message) {
+        return message.contains("ok") ? Either.right(ProcessResult.SUCCESS) : Either.left("Mail server is down");
+      }
+    };
+
+    var events = record("io.eldermael.SendAlertEmail", () -> {
+      sender.trySendAlertEmail("ok: disk full");
+      assertThatExceptionOfType(MailException.class).isThrownBy(() -> sender.sendAlertEmail("disk full"));
+    });
+
+    assertThat(events)
+        .as("[JFR] one event per send")
+        .hasSize(2);
+    assertThat(events.get(0).getString("outcome")).isEqualTo("SUCCESS");
+    assertThat(events.get(0).getInt("messageSize")).isEqualTo(13);
+    assertThat(events.get(1).getString("outcome"))
+        .as("[JFR] MailException fallbacks show up as errors")
+        .isEqualTo("ERROR");
+    assertThat(events.get(1).getString("failure")).isEqualTo("Mail server is down");
+  }
+
+  @Test
+  void shouldRecordRateLimitedSendsOnce() throws IOException {
+    var provider = new EmailSender() {
+      @Override
+      protected Either<String, ProcessResult> deliver(String message) {
+        return Either.right(ProcessResult.SUCCESS);
+      }
+    };
+    var sender = new RateLimitedEmailSender(provider, new TokenBucketRateLimiter(TokenBucketRateLimiter.Quota.perMinute(1)));
+
+    var events = record("io.eldermael.SendAlertEmail", () -> {
+      sender.trySendAlertEmail("disk full");
+      sender.trySendAlertEmail(null);
+    });
+
+    assertThat(events).extracting(event -> event.getString("outcome"))
+        .as("[JFR] the delegate does not record the send a second time")
+        .containsExactly("SUCCESS", "ERROR");
+    assertThat(events.get(1).getInt("messageSize"))
+        .as("[JFR] a null message is recorded as empty")
+        .isZero();
+  }
+
+  @Test
+  void shouldRecordPersistedEmails() throws IOException {
+    var queue = EmailQueue.recordingEvents(new InMemoryEmailQueue());
+
+    var events = record("io.eldermael.PersistEmail", () -> queue.persistEmailForLater("disk full"));
+
+    assertThat(events).hasSize(1);
+    assertThat(events.get(0).getString("outcome")).isEqualTo("SUCCESS");
+    assertThat(events.get(0).getInt("messageSize")).isEqualTo(9);
+    assertThat(events.get(0).getClass("queue").getName())
+        .as("[JFR] event names the queue implementation")
+        .isEqualTo(InMemoryEmailQueue.class.getName());
+  }
+
+  @Test
+  void shouldRecordAsyncEmailSendsUntilTheyComplete() throws IOException {
+    var service = new AsyncEmailSendingService(MoreExecutors.newDirectExecutorService());
+
+    var events = record("io.eldermael.SendEmail", () -> {
+      Futures.getUnchecked(service.sendEmail("disk full"));
+      Futures.getUnchecked(service.sendEmail(null));
+    });
+
+    assertThat(events)
+        .as("[JFR] a null email is recorded like any other")
+        .hasSize(2);
+    assertThat(events.get(1).getInt("messageSize")).isZero();
+    assertThat(events.get(0).getString("outcome")).isEqualTo("SUCCESS");
+    assertThat(events.get(0).getInt("messageSize")).isEqualTo(9);
+    assertThat(events.get(0).getDuration())
+        .as("[JFR] duration is measured")
+        .isGreaterThanOrEqualTo(Duration.ZERO);
+  }
+
+  @Test
+  void shouldRecordBusinessProcessSubmissions() throws IOException {
+    AsyncService failing = model -> Futures.immediateFailedFuture(new IllegalStateException("Process failed"));
+    AsyncService succeeding = model -> Futures.immediateFuture("done");
+    var model = new BusinessModel();
+    model.setData("payload");
+
+    var events = record("io.eldermael.SubmitBusinessProcess", () -> {
+      AsyncService.recordingEvents(succeeding).submitBusinessProcess(model);
+      AsyncService.recordingEvents(failing).submitBusinessProcess(model);
+    });
+
+    assertThat(events).extracting(event -> event.getString("outcome"))
+        .containsExactly("SUCCESS", "ERROR");
+    assertThat(events).extracting(event -> event.getInt("dataSize"))
+        .containsOnly(7);
+  }
+
+  @Test
+  void shouldRecordNothingWhenDisabled() throws IOException {
+    var service = new AsyncEmailSendingService(MoreExecutors.newDirectExecutorService());
+
+    try (var recording = new Recording()) {
+      recording.disable("io.eldermael.SendEmail");
+      recording.start();
+      Futures.getUnchecked(service.sendEmail("disk full"));
+      recording.stop();
+      var file = directory.resolve("disabled.jfr");
+      recording.dump(file);
+
+      assertThat(RecordingFile.readAllEvents(file))
+          .as("[JFR] disabled events are not recorded")
+          .noneMatch(event -> event.getEventType().getName().startsWith("io.eldermael."));
+    }
+  }
+
+  private List<RecordedEvent> record(String eventName, Runnable operations) throws IOException {
+    try (var recording = new Recording()) {
+      recording.enable(eventName).withThreshold(Duration.ZERO);
+      recording.start();
+      operations.run();
+      recording.stop();
+      var file = directory.resolve(eventName + ".jfr");
+      recording.dump(file);
+      return RecordingFile.readAllEvents(file).stream()
+          .filter(event -> event.getEventType().getName().equals(eventName))
+          .toList();
+    }
+  }
+
+}
@@ -0,0 +1,106 @@
+package io.eldermael.java.libs;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.SettableFuture;
+import io.vavr.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class FutureAdaptersTest extends BaseTestConfiguration {
+
+  @Test
+  void shouldCompleteCompletableFutureOnTheCompletingThread() {
+    SettableFuture<Integer> listenable = SettableFuture.create();
+    var completingThread = new AtomicReference<Thread>();
+
+    var completable = FutureAdapters.toCompletableFuture(listenable)
+        .thenApply(exitCode -> {
+          completingThread.set(Thread.currentThread());
+          return ProcessResult.fromExitCode(exitCode);
+        });
+
+    listenable.set(0);
+
+    assertThat(completable)
+        .as("[Adapters] ListenableFuture result reaches the CompletableFuture")
+        .isCompletedWithValue(ProcessResult.SUCCESS);
+
+    assertThat(completingThread.get())
+        .as("[Adapters] no executor hop")
+        .isEqualTo(Thread.currentThread());
+  }
+
+  @Test
+  void shouldPreserveExceptionTypes() {
+    SettableFuture<ProcessResult> listenable = SettableFuture.create();
+    listenable.setException(new MailException("Error"));
+
+    assertThat(FutureAdapters.toCompletableFuture(listenable).handle((result, error) -> error).join())
+        .as("[Adapters] CompletableFuture fails with the MailException itself")
+        .isInstanceOf(MailException.class);
+
+    var completable = CompletableFuture.<ProcessResult>supplyAsync(() -> {
+      throw new MailException("Error");
+    });
+
+    assertThatExceptionOfType(ExecutionException.class)
+        .as("[Adapters] CompletionException is unwrapped for Guava")
+        .isThrownBy(() -> FutureAdapters.toListenableFuture(completable).get())
+        .withCauseExactlyInstanceOf(MailException.class);
+
+    var vavr = FutureAdapters.toVavrFuture(completable).await();
+
+    assertThat(vavr.getValue().get().getCause())
+        .as("[Adapters] CompletionException is unwrapped for Vavr")
+        .isExactlyInstanceOf(MailException.class);
+  }
+
+  @Test
+  void shouldPropagateCancellationBothWays() {
+    SettableFuture<String> listenable = SettableFuture.create();
+    FutureAdapters.toCompletableFuture(listenable).cancel(true);
+
+    assertThat(listenable)
+        .as("[Adapters] cancelling the CompletableFuture cancels the ListenableFuture")
+        .isCancelled();
+
+    var completable = new CompletableFuture<String>();
+    var converted = FutureAdapters.toListenableFuture(completable);
+    completable.cancel(true);
+
+    assertThat(converted)
+        .as("[Adapters] cancelling the CompletableFuture cancels the ListenableFuture")
+        .isCancelled();
+
+    var source = new CompletableFuture<String>();
+    FutureAdapters.toVavrFuture(source).cancel();
+
+    assertThat(source)
+        .as("[Adapters] cancelling the Vavr Future cancels the CompletableFuture")
+        .isCancelled();
+  }
+
+  @Test
+  void shouldConvertVavrFutures() throws Exception {
+    var vavr = Future.of(MockProcesses::successfulProcess).map(ProcessResult::fromExitCode);
+
+    assertThat(FutureAdapters.toCompletableFuture(vavr).get())
+        .as("[Adapters] Vavr Future converts to CompletableFuture")
+        .isEqualTo(ProcessResult.SUCCESS);
+
+    assertThat(FutureAdapters.toListenableFuture(Future.successful("Finished")).get())
+        .as("[Adapters] Vavr Future converts to ListenableFuture")
+        .isEqualTo("Finished");
+
+    assertThat(FutureAdapters.toVavrFuture(Futures.immediateFuture("Finished")).get())
+        .as("[Adapters] ListenableFuture converts to Vavr Future")
+        .isEqualTo("Finished");
+  }
+
+}
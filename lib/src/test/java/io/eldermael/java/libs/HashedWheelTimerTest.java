@@ -0,0 +1,148 @@
+package io.eldermael.java.libs;
+
+import com.google.common.util.concurrent.SettableFuture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.awaitility.Awaitility.await;
+
+public class HashedWheelTimerTest extends BaseTestConfiguration {
+
+  final HashedWheelTimer timer = new HashedWheelTimer(Duration.ofMillis(5), 8);
+
+  @AfterEach
+  void stopTimer() {
+    timer.close();
+  }
+
+  @Test
+  void shouldRunTasksAfterTheirDelayEvenPastOneRound() {
+    var fired = new AtomicInteger();
+    long start = System.nanoTime();
+
+    // 8 ticks of 5ms make a 40ms wheel, 100ms needs more than two rounds
+    var timeout = timer.newTimeout(fired::incrementAndGet, 100, TimeUnit.MILLISECONDS);
+
+    await().untilAsserted(() -> assertThat(timeout.isExpired()).isTrue());
+
+    assertThat(fired.get())
+        .as("[Timer] task runs exactly once")
+        .isEqualTo(1);
+
+    assertThat(System.nanoTime() - start)
+        .as("[Timer] task does not run before its delay")
+        .isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+  }
+
+  @Test
+  void shouldNotRunCancelledTasks() throws InterruptedException {
+    var fired = new AtomicInteger();
+    var timeout = timer.newTimeout(fired::incrementAndGet, 20, TimeUnit.MILLISECONDS);
+
+    assertThat(timeout.cancel()).isTrue();
+    Thread.sleep(60);
+
+    assertThat(fired.get())
+        .as("[Timer] cancelled task never runs")
+        .isZero();
+
+    assertThat(timer.pendingTimeouts()).isZero();
+  }
+
+  @Test
+  void shouldFailCompletableFutureOnTimeout() {
+    var future = timer.orTimeout(new CompletableFuture<ProcessResult>(), Duration.ofMillis(20));
+
+    assertThatExceptionOfType(ExecutionException.class)
+        .as("[Timer] CompletableFuture fails with TimeoutException")
+        .isThrownBy(() -> future.get(1, TimeUnit.SECONDS))
+        .withCauseInstanceOf(TimeoutException.class);
+
+    var fallback = timer.completeOnTimeout(new CompletableFuture<>(), ProcessResult.ERROR, Duration.ofMillis(20));
+
+    assertThat(fallback.join())
+        .as("[Timer] CompletableFuture completes with the fallback value")
+        .isEqualTo(ProcessResult.ERROR);
+  }
+
+  @Test
+  void shouldCancelTimeoutWhenFutureCompletesFirst() {
+    var future = timer.orTimeout(new CompletableFuture<ProcessResult>(), Duration.ofMinutes(1));
+
+    assertThat(timer.pendingTimeouts()).isEqualTo(1);
+
+    future.complete(ProcessResult.SUCCESS);
+
+    assertThat(timer.pendingTimeouts())
+        .as("[Timer] completing the future cancels its timeout")
+        .isZero();
+  }
+
+  @Test
+  void shouldFailAndCancelListenableFutureOnTimeout() {
+    SettableFuture<String> businessProcess = SettableFuture.create();
+    var withDeadline = timer.withTimeout(businessProcess, Duration.ofMillis(20));
+
+    assertThatExceptionOfType(ExecutionException.class)
+        .as("[Timer] ListenableFuture fails with TimeoutException")
+        .isThrownBy(() -> withDeadline.get(1, TimeUnit.SECONDS))
+        .withCauseInstanceOf(TimeoutException.class);
+
+    await()
+        .untilAsserted(() -> assertThat(businessProcess)
+            .as("[Timer] the input future is cancelled")
+            .isCancelled());
+  }
+
+  @Test
+  void shouldPassThroughListenableFutureResults() throws Exception {
+    SettableFuture<String> businessProcess = SettableFuture.create();
+    var withDeadline = timer.withTimeout(businessProcess, Duration.ofMinutes(1));
+
+    businessProcess.set("Finished");
+
+    assertThat(withDeadline.get())
+        .isEqualTo("Finished");
+
+    assertThat(timer.pendingTimeouts())
+        .as("[Timer] completing the future cancels its timeout")
+        .isZero();
+  }
+
+  @Test
+  void shouldFailPendingFuturesWhenClosed() throws InterruptedException {
+    var inWheel = timer.orTimeout(new CompletableFuture<ProcessResult>(), Duration.ofMinutes(1));
+    Thread.sleep(20);
+    var justScheduled = timer.completeOnTimeout(new CompletableFuture<>(), ProcessResult.ERROR, Duration.ofMinutes(1));
+    var listenable = timer.withTimeout(SettableFuture.<String>create(), Duration.ofMinutes(1));
+    var fired = new AtomicInteger();
+    var raw = timer.newTimeout(fired::incrementAndGet, 1, TimeUnit.MINUTES);
+
+    timer.close();
+
+    assertThat(List.of(inWheel, justScheduled))
+        .as("[Timer] futures do not wait forever on a closed timer")
+        .allSatisfy(future -> assertThatExceptionOfType(ExecutionException.class)
+            .isThrownBy(() -> future.get(1, TimeUnit.SECONDS))
+            .withCauseInstanceOf(IllegalStateException.class));
+    assertThatExceptionOfType(ExecutionException.class)
+        .isThrownBy(() -> listenable.get(1, TimeUnit.SECONDS))
+        .withCauseInstanceOf(IllegalStateException.class);
+    assertThat(raw.isCancelled())
+        .as("[Timer] plain tasks are cancelled, not run early")
+        .isTrue();
+    assertThat(fired.get()).isZero();
+    assertThat(timer.pendingTimeouts()).isZero();
+  }
+
+}
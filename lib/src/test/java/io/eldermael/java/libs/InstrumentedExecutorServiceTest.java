@@ -0,0 +1,142 @@
+package io.eldermael.java.libs;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.awaitility.Awaitility.await;
+
+public class InstrumentedExecutorServiceTest extends BaseTestConfiguration {
+
+  final InstrumentedExecutorService executor = new InstrumentedExecutorService(Executors.newFixedThreadPool(1));
+
+  @AfterEach
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void shouldSeparateQueueWaitFromRunTime() throws Exception {
+    var release = new CountDownLatch(1);
+    var blocker = executor.submit(() -> {
+      release.await();
+      return ProcessResult.SUCCESS;
+    });
+    var queued = new AsyncEmailSendingService(executor).sendEmail("Hello!");
+
+    await().untilAsserted(() -> assertThat(executor.metrics().active()).isEqualTo(1));
+
+    assertThat(executor.metrics().queued())
+        .as("[Executor] second task waits in the queue")
+        .isEqualTo(1);
+
+    Thread.sleep(50);
+    release.countDown();
+    blocker.get();
+    queued.get();
+
+    await().untilAsserted(() -> assertThat(executor.metrics().completed()).isEqualTo(2));
+    var metrics = executor.metrics();
+
+    assertThat(metrics.maxQueueWaitNanos())
+        .as("[Executor] queued task waited for the blocker")
+        .isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+
+    assertThat(metrics.maxRunNanos())
+        .as("[Executor] blocker ran while the other task waited")
+        .isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+
+    assertThat(metrics.threads()).isEqualTo(1);
+    assertThat(metrics.active()).isZero();
+    assertThat(metrics.queued()).isZero();
+  }
+
+  @Test
+  void shouldCountFailedTasks() {
+    executor.submit(MockProcesses::failedProcess);
+    executor.submit(MockProcesses::successfulProcess);
+
+    await().untilAsserted(() -> assertThat(executor.metrics().completed()).isEqualTo(2));
+
+    assertThat(executor.metrics().failed())
+        .as("[Executor] exceptions swallowed by submit() still count as failures")
+        .isEqualTo(1);
+  }
+
+  @Test
+  void shouldCountRejections() {
+    var pool = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<>(1));
+    var bounded = new InstrumentedExecutorService(pool);
+    var release = new CountDownLatch(1);
+
+    try {
+      bounded.execute(() -> awaitQuietly(release));
+      bounded.execute(() -> awaitQuietly(release));
+
+      assertThatExceptionOfType(RejectedExecutionException.class)
+          .isThrownBy(() -> bounded.execute(() -> awaitQuietly(release)));
+
+      assertThat(bounded.metrics().rejected())
+          .as("[Executor] rejected tasks are counted, not submitted")
+          .isEqualTo(1);
+      assertThat(bounded.metrics().submitted()).isEqualTo(2);
+    } finally {
+      release.countDown();
+      bounded.shutdown();
+    }
+  }
+
+  @Test
+  void shouldReportUtilisationOfCachedPools() throws Exception {
+    var cached = new InstrumentedExecutorService(Executors.newCachedThreadPool());
+    try {
+      var before = cached.metrics();
+      cached.submit(() -> {
+        Thread.sleep(100);
+        return ProcessResult.SUCCESS;
+      }).get();
+      await().untilAsserted(() -> assertThat(cached.metrics().completed()).isEqualTo(1));
+      var after = cached.metrics();
+
+      assertThat(after.threads())
+          .as("[Executor] threads of a cached pool are the ones it started")
+          .isEqualTo(1);
+      assertThat(after.utilisationSince(before))
+          .as("[Executor] the busy thread is not lost among Integer.MAX_VALUE possible ones")
+          .isGreaterThan(0.1);
+    } finally {
+      cached.shutdownNow();
+    }
+  }
+
+  @Test
+  void shouldReturnTheSubmittedTasksOnShutdownNow() {
+    var release = new CountDownLatch(1);
+    Runnable waiting = () -> awaitQuietly(release);
+    executor.execute(() -> awaitQuietly(release));
+    executor.execute(waiting);
+
+    await().untilAsserted(() -> assertThat(executor.metrics().active()).isEqualTo(1));
+
+    assertThat(executor.shutdownNow())
+        .as("[Executor] callers get back their own tasks, not the instrumentation")
+        .containsExactly(waiting);
+  }
+
+  private void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+}
@@ -0,0 +1,89 @@
+package io.eldermael.java.libs;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MainTest extends BaseTestConfiguration {
+
+  @TempDir
+  Path directory;
+
+  final ByteArrayOutputStream output = new ByteArrayOutputStream();
+  final PrintStream out = new PrintStream(output, true, StandardCharsets.UTF_8);
+
+  @Test
+  void shouldQuerySampleRecords() {
+    assertThat(Main.run(out, "query", "code contains SS"))
+        .as("[Main] query succeeds")
+        .isEqualTo(Main.OK);
+    assertThat(output.toString(StandardCharsets.UTF_8))
+        .as("[Main] names of the matching records")
+        .isEqualToIgnoringNewLines("XLD,SLD");
+  }
+
+  @Test
+  void shouldSumBatchFilesAndReportBadLines() throws IOException {
+    var file = Files.writeString(directory.resolve("batch.txt"), "1\n2\noops\n3\n");
+
+    assertThat(Main.run(out, "parse", file.toString()))
+        .as("[Main] bad lines fail the run")
+        .isEqualTo(Main.FAILED);
+    assertThat(output.toString(StandardCharsets.UTF_8).lines())
+        .containsExactly("6", "line 3: NOT_A_NUMBER");
+  }
+
+  @Test
+  void shouldWarmUpBeforeRunning() {
+    assertThat(Main.run(out, "--warm-up=50", "query", "amount > 100"))
+        .as("[Main] warm-up does not change the result")
+        .isEqualTo(Main.OK);
+    assertThat(output.toString(StandardCharsets.UTF_8))
+        .isEqualToIgnoringNewLines("XLD,SLD,ALD,ZLD");
+  }
+
+  @Test
+  void shouldPrintUsageForUnknownCommands() {
+    assertThat(Main.run(out, "compress", "everything"))
+        .isEqualTo(Main.USAGE);
+    assertThat(Main.run(out))
+        .isEqualTo(Main.USAGE);
+    assertThat(output.toString(StandardCharsets.UTF_8))
+        .startsWith("Usage: Main");
+  }
+
+  @Test
+  void shouldRejectMalformedWarmUpOptions() {
+    assertThat(Main.run(out, "--warm-up=abc", "query", "amount > 100"))
+        .as("[Main] warm-up iterations must be a number")
+        .isEqualTo(Main.USAGE);
+    assertThat(Main.run(out, "--warm-upX", "query", "amount > 100"))
+        .as("[Main] unknown options are not taken for warm-up")
+        .isEqualTo(Main.USAGE);
+    assertThat(output.toString(StandardCharsets.UTF_8))
+        .startsWith("Usage: Main");
+  }
+
+  @Test
+  void shouldReportInvalidQueriesAndMissingFiles() {
+    assertThat(Main.run(out, "query", "price > 1"))
+        .as("[Main] a malformed query is a usage error")
+        .isEqualTo(Main.USAGE);
+    assertThat(Main.run(out, "parse", directory.resolve("missing.txt").toString()))
+        .as("[Main] an unreadable file fails the run")
+        .isEqualTo(Main.FAILED);
+    assertThat(output.toString(StandardCharsets.UTF_8).lines())
+        .hasSize(2)
+        .satisfies(lines -> assertThat(lines.get(0)).startsWith("Invalid query: Record has no property 'price'"))
+        .satisfies(lines -> assertThat(lines.get(1)).startsWith("Cannot read batch file: "));
+  }
+
+}
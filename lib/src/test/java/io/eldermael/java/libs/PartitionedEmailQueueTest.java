@@ -0,0 +1,220 @@
+package io.eldermael.java.libs;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.awaitility.Awaitility.await;
+
+public class PartitionedEmailQueueTest extends BaseTestConfiguration {
+
+  // messages look like "<recipient>:<sequence>"
+  private static String recipient(String message) {
+    return message.substring(0, message.indexOf(':'));
+  }
+
+  private static int sequence(String message) {
+    return Integer.parseInt(message.substring(message.indexOf(':') + 1));
+  }
+
+  @Test
+  void shouldConsumeEachRecipientInOrder() throws InterruptedException {
+    int recipients = 16;
+    int perRecipient = 500;
+    var consumed = new ConcurrentHashMap<String, List<Integer>>();
+    var done = new CountDownLatch(recipients * perRecipient);
+
+    try (var queue = new PartitionedEmailQueue(4, PartitionedEmailQueueTest::recipient, message -> {
+      consumed.computeIfAbsent(recipient(message), r -> new CopyOnWriteArrayList<>()).add(sequence(message));
+      done.countDown();
+    })) {
+      queue.start();
+      produce(queue, recipients, perRecipient, 0);
+
+      assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    assertThat(consumed)
+        .as("[Partitioned] every recipient was seen")
+        .hasSize(recipients);
+    consumed.values().forEach(sequences -> assertThat(sequences)
+        .as("[Partitioned] per-recipient order is kept")
+        .isSorted()
+        .hasSize(perRecipient));
+  }
+
+  @Test
+  void shouldKeepOrderAndMessagesAcrossResizes() throws InterruptedException {
+    int recipients = 32;
+    int perRecipient = 400;
+    Map<String, List<Integer>> consumed = new ConcurrentHashMap<>();
+    var done = new CountDownLatch(recipients * perRecipient);
+
+    try (var queue = new PartitionedEmailQueue(2, PartitionedEmailQueueTest::recipient, message -> {
+      consumed.computeIfAbsent(recipient(message), r -> new CopyOnWriteArrayList<>()).add(sequence(message));
+      done.countDown();
+    })) {
+      queue.start();
+      ExecutorService producers = Executors.newFixedThreadPool(4);
+      for (int half = 0; half < 2; half++) {
+        int from = half * perRecipient / 2;
+        producers.execute(() -> produce(queue, recipients, perRecipient / 2, from));
+      }
+      queue.resize(8);
+      queue.resize(3);
+      queue.resize(5);
+      producers.shutdown();
+      producers.awaitTermination(10, TimeUnit.SECONDS);
+
+      assertThat(done.await(10, TimeUnit.SECONDS))
+          .as("[Partitioned] nothing is lost while repartitioning")
+          .isTrue();
+      assertThat(queue.partitionCount()).isEqualTo(5);
+    }
+
+    consumed.values().forEach(sequences -> {
+      var first = sequences.stream().filter(s -> s < perRecipient / 2).collect(Collectors.toList());
+      var second = sequences.stream().filter(s -> s >= perRecipient / 2).collect(Collectors.toList());
+      assertThat(first).as("[Partitioned] order survives resizes").isSorted();
+      assertThat(second).as("[Partitioned] order survives resizes").isSorted();
+    });
+  }
+
+  @Test
+  void shouldOnlyMoveSomeKeysWhenGrowing() {
+    var queue = new PartitionedEmailQueue(8, PartitionedEmailQueueTest::recipient, message -> {
+    });
+    var keys = IntStream.range(0, 1_000).mapToObj(i -> "user" + i).collect(Collectors.toList());
+    var before = keys.stream().map(queue::partitionOf).collect(Collectors.toList());
+
+    queue.resize(9);
+
+    long moved = IntStream.range(0, keys.size())
+        .filter(i -> queue.partitionOf(keys.get(i)) != before.get(i))
+        .count();
+    assertThat(moved)
+        .as("[Partitioned] consistent hashing moves about 1/9 of the keys")
+        .isLessThan(200);
+  }
+
+  @Test
+  void shouldKeepConsumingAfterAFailureAndHoldMessagesWhenClosed() throws InterruptedException {
+    var consumed = new CopyOnWriteArrayList<String>();
+    var done = new CountDownLatch(2);
+    var queue = new PartitionedEmailQueue(1, PartitionedEmailQueueTest::recipient, message -> {
+      done.countDown();
+      if (message.endsWith(":0")) {
+        throw new IllegalStateException("Mail server is down");
+      }
+      consumed.add(message);
+    });
+    queue.start();
+
+    queue.persistEmailForLater("ops:0");
+    queue.persistEmailForLater("ops:1");
+    assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+    queue.close();
+
+    assertThat(queue.persistEmailForLater("ops:2"))
+        .as("[Partitioned] closed queue still stores messages")
+        .isEqualTo(ProcessResult.SUCCESS);
+    assertThat(queue.pendingCount()).isEqualTo(1);
+    assertThat(consumed).containsExactly("ops:1");
+  }
+
+  @Test
+  void shouldRejectInvalidPartitionCounts() {
+    assertThatExceptionOfType(IllegalArgumentException.class)
+        .isThrownBy(() -> new PartitionedEmailQueue(0, PartitionedEmailQueueTest::recipient, message -> {
+        }));
+  }
+
+  @Test
+  void shouldBufferWritesWhileResizeWaitsForSlowConsumers() throws InterruptedException {
+    var consuming = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    var consumed = new CopyOnWriteArrayList<String>();
+    try (var queue = new PartitionedEmailQueue(1, PartitionedEmailQueueTest::recipient, message -> {
+      consuming.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      consumed.add(message);
+    })) {
+      queue.start();
+      queue.persistEmailForLater("ops:0");
+      assertThat(consuming.await(5, TimeUnit.SECONDS)).isTrue();
+
+      var resizer = new Thread(() -> queue.resize(2));
+      resizer.start();
+      await().until(() -> resizer.getState() == Thread.State.WAITING);
+
+      assertThat(queue.persistEmailForLater("ops:1"))
+          .as("[Partitioned] producers do not wait for the slow consumer")
+          .isEqualTo(ProcessResult.SUCCESS);
+      assertThat(consumed).isEmpty();
+
+      release.countDown();
+      resizer.join(5_000);
+      await().untilAsserted(() -> assertThat(consumed)
+          .as("[Partitioned] the buffered message is delivered after the resize")
+          .containsExactly("ops:0", "ops:1"));
+    }
+  }
+
+  @Test
+  void shouldResizeWhileConsumersPersistRetriesOnTheSameQueue() throws InterruptedException {
+    var attempts = new ConcurrentHashMap<String, Integer>();
+    var delivered = new CopyOnWriteArrayList<String>();
+    var queue = new PartitionedEmailQueue[1];
+    queue[0] = new PartitionedEmailQueue(2, PartitionedEmailQueueTest::recipient, message -> {
+      // every message fails once and is persisted again for a retry
+      if (attempts.merge(message, 1, Integer::sum) == 1) {
+        queue[0].persistEmailForLater(message);
+      } else {
+        delivered.add(message);
+      }
+    });
+    try (var retrying = queue[0]) {
+      retrying.start();
+      produce(retrying, 8, 200, 0);
+
+      var resizer = new Thread(() -> {
+        retrying.resize(5);
+        retrying.resize(3);
+      });
+      resizer.start();
+      resizer.join(10_000);
+
+      assertThat(resizer.isAlive())
+          .as("[Partitioned] consumers re-persisting on a sealed partition do not deadlock the resize")
+          .isFalse();
+      await().untilAsserted(() -> assertThat(delivered).hasSize(8 * 200));
+    }
+  }
+
+  private static void produce(EmailQueue queue, int recipients, int perRecipient, int from) {
+    var messages = new ArrayList<String>();
+    for (int i = from; i < from + perRecipient; i++) {
+      for (int r = 0; r < recipients; r++) {
+        messages.add("user" + r + ":" + i);
+      }
+    }
+    messages.forEach(queue::persistEmailForLater);
+  }
+
+}
@@ -0,0 +1,80 @@
+package io.eldermael.java.libs;
+
+import io.vavr.Tuple;
+import io.vavr.Tuple2;
+import org.javatuples.Pair;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static io.eldermael.java.libs.Record.sampleData;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PrimitiveTuplesTest extends BaseTestConfiguration {
+
+  @Test
+  void shouldConvertBetweenVavrJavaTuplesAndPrimitiveTuples() {
+    Tuple2<String, Double> vavr = Tuple.of("SSS", 200.0);
+    Pair<String, Double> javaTuples = Pair.with("SSS", 200.0);
+
+    assertThat(ObjDoubleTuple.of(vavr))
+        .as("[Tuples] Vavr and javatuples convert to the same primitive tuple")
+        .isEqualTo(ObjDoubleTuple.of(javaTuples))
+        .isEqualTo(ObjDoubleTuple.of("SSS", 200.0));
+
+    assertThat(ObjDoubleTuple.of(vavr).toTuple2()).isEqualTo(vavr);
+    assertThat(ObjDoubleTuple.of(vavr).toPair().equals(javaTuples)).isTrue();
+
+    assertThat(IntIntTuple.of(Tuple.of(1, 2)).toPair().equals(Pair.with(1, 2)))
+        .as("[Tuples] int-int round trips through javatuples")
+        .isTrue();
+
+    assertThat(LongDoubleTuple.of(Pair.with(3L, 1.5)).toTuple2())
+        .as("[Tuples] long-double round trips through Vavr")
+        .isEqualTo(Tuple.of(3L, 1.5));
+  }
+
+  @Test
+  void shouldAggregateCodeAndAmountWithoutBoxing() {
+    var amounts = new ObjDoubleTupleList<String>(2);
+    sampleData().forEach(r -> amounts.add(r.getCode(), r.getAmount()));
+
+    assertThat(amounts.size())
+        .as("[Tuples] list grows past its initial capacity")
+        .isEqualTo(4);
+
+    assertThat(amounts.sumOfSeconds())
+        .as("[Tuples] amounts are summed from the primitive array")
+        .isEqualTo(800.0);
+
+    assertThat(amounts.get(1))
+        .isEqualTo(ObjDoubleTuple.of("SSA", 200.0));
+
+    assertThat(amounts.toTuples())
+        .as("[Tuples] list converts back to Vavr tuples")
+        .hasSize(4)
+        .startsWith(Tuple.of("SSS", 200.0));
+  }
+
+  @Test
+  void shouldStoreIntAndLongPairsFlat() {
+    var counts = IntIntTupleList.fromTuples(List.of(Tuple.of(1, 10), Tuple.of(2, 20)));
+    counts.add(IntIntTuple.of(3, 30));
+
+    var seconds = new StringBuilder();
+    counts.forEach((first, second) -> seconds.append(second).append(','));
+
+    assertThat(seconds.toString()).isEqualTo("10,20,30,");
+    assertThat(counts.sumOfSeconds()).isEqualTo(60);
+    assertThat(counts.get(2)).isEqualTo(IntIntTuple.of(3, 30));
+
+    var sums = new LongDoubleTupleList(0);
+    sums.add(7L, 0.5);
+    sums.add(LongDoubleTuple.of(8L, 1.5));
+
+    assertThat(sums.toTuples())
+        .as("[Tuples] long-double list converts back to Vavr tuples")
+        .containsExactly(Tuple.of(7L, 0.5), Tuple.of(8L, 1.5));
+  }
+
+}
@@ -0,0 +1,174 @@
+package io.eldermael.java.libs;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class RecordCsvImporterTest extends BaseTestConfiguration {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void shouldImportRecordsWithQuotedAndEmptyFields() throws IOException {
+    var file = Files.writeString(directory.resolve("records.csv"), String.join("\n",
+        "name,code,amount,description",
+        "XLD,SSS,200.00,Amount for X",
+        "SLD,SSA,-12.5,\"Amount, with \"\"quotes\"\"\"\r",
+        "ALD,SDB,,",
+        "ZLD,SCD,1e3,Amount for D"));
+
+    var records = RecordCsvImporter.create().skippingHeader().importAll(file);
+
+    assertThat(records)
+        .as("[CsvImport] every field is parsed like Record.builder() would set it")
+        .containsExactly(
+            Record.builder().name("XLD").code("SSS").amount(200.00).description("Amount for X").build(),
+            Record.builder().name("SLD").code("SSA").amount(-12.5).description("Amount, with \"quotes\"").build(),
+            Record.builder().name("ALD").code("SDB").description("").build(),
+            Record.builder().name("ZLD").code("SCD").amount(1000.0).description("Amount for D").build());
+  }
+
+  @Test
+  void shouldKeepFileOrderAcrossChunks() throws IOException {
+    var file = writeRows(5_000);
+    var importer = RecordCsvImporter.create().withChunkBytes(256);
+
+    assertThat(importer.importAll(file))
+        .as("[CsvImport] ordered import matches a single-chunk import")
+        .containsExactlyElementsOf(importer.withChunkBytes(Integer.MAX_VALUE).importAll(file));
+
+    var chunks = Collections.synchronizedList(new ArrayList<List<Record>>());
+    long imported = importer.importTo(file, chunks::add, false);
+
+    assertThat(imported)
+        .as("[CsvImport] unordered import counts every row")
+        .isEqualTo(5_000);
+
+    assertThat(chunks.stream().flatMap(List::stream).map(Record::getName))
+        .as("[CsvImport] unordered import delivers every row once")
+        .containsExactlyInAnyOrderElementsOf(IntStream.range(0, 5_000).mapToObj(i -> "R" + i).toList());
+  }
+
+  @Test
+  void shouldShareRepeatedValues() throws IOException {
+    var records = RecordCsvImporter.create().importAll(writeRows(1_000));
+
+    assertThat(records.stream().map(Record::getCode).distinct().count())
+        .as("[CsvImport] there are only a few distinct codes")
+        .isEqualTo(4);
+
+    assertThat(records.stream()
+        .map(Record::getCode)
+        .map(System::identityHashCode)
+        .collect(Collectors.toSet()))
+        .as("[CsvImport] equal codes are the same String instance")
+        .hasSize(4);
+
+    var withoutInterning = RecordCsvImporter.create().withInternTable(0, 0).importAll(writeRows(1_000));
+    assertThat(withoutInterning.get(0).getCode())
+        .as("[CsvImport] interning can be turned off")
+        .isNotSameAs(withoutInterning.get(4).getCode())
+        .isEqualTo(withoutInterning.get(4).getCode());
+  }
+
+  @Test
+  void shouldRejectMalformedLines() throws IOException {
+    var importer = RecordCsvImporter.create();
+
+    assertThatExceptionOfType(IllegalArgumentException.class)
+        .as("[CsvImport] amounts must be numbers")
+        .isThrownBy(() -> importer.importAll(Files.writeString(directory.resolve("amount.csv"), "XLD,SSS,lots,x\n")))
+        .withMessageContaining("Invalid amount 'lots'");
+
+    assertThatExceptionOfType(IllegalArgumentException.class)
+        .as("[CsvImport] quotes must be closed on the same line")
+        .isThrownBy(() -> importer.importAll(Files.writeString(directory.resolve("quote.csv"), "XLD,SSS,1,\"x\n")))
+        .withMessageContaining("Unterminated quote");
+
+    assertThatExceptionOfType(IllegalArgumentException.class)
+        .as("[CsvImport] lines have at most four fields")
+        .isThrownBy(() -> importer.importAll(Files.writeString(directory.resolve("fields.csv"), "a,b,1,d,e\n")))
+        .withMessageContaining("more than 4 fields");
+  }
+
+  @Test
+  void shouldReportTheOffsetOfMalformedLinesOrSkipThem() throws IOException {
+    var file = Files.writeString(directory.resolve("mixed.csv"), String.join("\n",
+        "XLD,SSS,1,x",
+        "SLD,SSA,lots,y",
+        "ALD,SDB,\"z",
+        "ZLD,SCD,4,w",
+        ""));
+
+    assertThatExceptionOfType(IllegalArgumentException.class)
+        .as("[CsvImport] the failure names the line")
+        .isThrownBy(() -> RecordCsvImporter.create().importAll(file))
+        .withMessageContaining("in line at byte offset 12");
+
+    var skipped = new CopyOnWriteArrayList<RecordCsvImporter.MalformedLine>();
+    var records = RecordCsvImporter.create()
+        .withChunkBytes(16)
+        .skippingMalformedLines(skipped::add)
+        .importAll(file);
+
+    assertThat(records)
+        .as("[CsvImport] well-formed lines are still imported")
+        .extracting(Record::getName)
+        .containsExactly("XLD", "ZLD");
+    assertThat(skipped)
+        .as("[CsvImport] skipped lines are reported with their offset")
+        .extracting(RecordCsvImporter.MalformedLine::offset)
+        .containsExactlyInAnyOrder(12L, 27L);
+  }
+
+  @Test
+  void shouldFeedTheSinkNothingMoreOnceAnUnorderedImportFailed() throws Exception {
+    var rows = new ArrayList<>(Files.readAllLines(writeRows(2_000)));
+    rows.set(10, "BAD,SSS,lots,x");
+    var file = Files.write(directory.resolve("failing.csv"), rows);
+    var executor = Executors.newSingleThreadExecutor();
+    var delivered = new AtomicInteger();
+
+    try {
+      assertThatExceptionOfType(IllegalArgumentException.class)
+          .isThrownBy(() -> RecordCsvImporter.create()
+              .withChunkBytes(64)
+              .on(executor)
+              .importTo(file, chunk -> delivered.addAndGet(chunk.size()), false));
+      int afterFailure = delivered.get();
+      executor.submit(() -> {
+      }).get();
+
+      assertThat(delivered.get())
+          .as("[CsvImport] queued chunks are dropped once the import has thrown")
+          .isEqualTo(afterFailure)
+          .isLessThan(2_000);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private Path writeRows(int rows) throws IOException {
+    var codes = List.of("SSS", "SSA", "SDB", "SCD");
+    var lines = IntStream.range(0, rows)
+        .mapToObj(i -> "R" + i + "," + codes.get(i % codes.size()) + "," + i + ".25,Amount " + i)
+        .toList();
+    return Files.write(Files.createTempFile(directory, "rows", ".csv"), lines);
+  }
+
+}
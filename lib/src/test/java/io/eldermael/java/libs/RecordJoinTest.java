@@ -0,0 +1,161 @@
+package io.eldermael.java.libs;
+
+import com.google.common.collect.HashMultiset;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class RecordJoinTest extends BaseTestConfiguration {
+
+  @TempDir
+  Path directory;
+
+  final List<Record> left = List.of(
+      record("L1", "SSS"),
+      record("L2", "SSA"),
+      record("L3", null),
+      record("L4", "SDB")
+  );
+
+  final List<Record> right = List.of(
+      record("R1", "SSA"),
+      record("R2", "SSS"),
+      record("R3", "SSA"),
+      record("R4", null)
+  );
+
+  @Test
+  void shouldInnerJoinInLeftThenRightOrder() {
+    var matches = RecordJoin.on(Record::getCode).join(left, right, RecordJoin.Type.INNER);
+
+    assertThat(matches)
+        .as("[Join] every right row with the same key, null keys never match")
+        .extracting(match -> match.left().getName() + "-" + match.right().getName())
+        .containsExactly("L1-R2", "L2-R1", "L2-R3");
+  }
+
+  @Test
+  void shouldKeepUnmatchedRowsInLeftAndAntiJoins() {
+    var join = RecordJoin.on(Record::getCode);
+
+    assertThat(join.join(left, right, RecordJoin.Type.LEFT))
+        .as("[Join] unmatched left rows have no right side")
+        .extracting(match -> match.left().getName() + "-" + (match.right() == null ? "" : match.right().getName()))
+        .containsExactly("L1-R2", "L2-R1", "L2-R3", "L3-", "L4-");
+
+    assertThat(join.join(left, right, RecordJoin.Type.ANTI))
+        .as("[Join] anti join keeps only left rows without a match")
+        .extracting(match -> match.left().getName())
+        .containsExactly("L3", "L4");
+
+    assertThat(join.count(left, right, RecordJoin.Type.LEFT))
+        .as("[Join] count agrees with the materialized join")
+        .isEqualTo(5);
+  }
+
+  @Test
+  void shouldSpillPartitionsWhenBuildSideExceedsBudget() throws IOException {
+    var random = new Random(42);
+    var bigLeft = new ArrayList<Record>();
+    var bigRight = new ArrayList<Record>();
+    for (int i = 0; i < 20_000; i++) {
+      bigLeft.add(record("L" + i, "C" + random.nextInt(15_000)));
+      bigRight.add(record("R" + i, "C" + random.nextInt(15_000)));
+    }
+
+    var inMemory = RecordJoin.on(Record::getCode);
+    var spilling = inMemory.spillingOver(100_000, directory);
+
+    assertThat(spilling.partitionsFor(bigRight.size()))
+        .as("[Join] build side is split so each partition fits the budget")
+        .isEqualTo(16);
+
+    for (var type : RecordJoin.Type.values()) {
+      assertThat(spilling.join(bigLeft, bigRight, type))
+          .as("[Join] grace hash %s join returns the same rows", type)
+          .containsExactlyInAnyOrderElementsOf(inMemory.join(bigLeft, bigRight, type));
+    }
+
+    try (var files = Files.list(directory)) {
+      assertThat(files)
+          .as("[Join] spill files are removed")
+          .isEmpty();
+    }
+  }
+
+  @Test
+  void shouldReturnTheOriginalRecordsAndSplitSkewedPartitions() {
+    var random = new Random(7);
+    var bigLeft = new ArrayList<Record>();
+    var bigRight = new ArrayList<Record>();
+    for (int i = 0; i < 5_000; i++) {
+      bigLeft.add(record("L" + i, i % 50 == 0 ? "HOT" : "C" + random.nextInt(5_000)));
+      // half of the build side shares one key, the rest is spread
+      bigRight.add(record("R" + i, i % 2 == 0 ? "HOT" : "C" + random.nextInt(5_000)));
+    }
+
+    var inMemory = RecordJoin.on(Record::getCode);
+    var spilling = inMemory.spillingOver(20_000, directory);
+    var expected = inMemory.join(bigLeft, bigRight, RecordJoin.Type.LEFT);
+    var spilled = spilling.join(bigLeft, bigRight, RecordJoin.Type.LEFT);
+
+    assertThat(HashMultiset.create(spilled))
+        .as("[Join] partitions over the budget are split again, a hot key is joined whole")
+        .isEqualTo(HashMultiset.create(expected));
+    assertThat(spilled)
+        .as("[Join] spilled matches hold the records that were passed in")
+        .allSatisfy(match -> assertThat(bigLeft.get(Integer.parseInt(match.left().getName().substring(1))))
+            .isSameAs(match.left()))
+        .filteredOn(match -> match.right() != null)
+        .allSatisfy(match -> assertThat(bigRight.get(Integer.parseInt(match.right().getName().substring(1))))
+            .isSameAs(match.right()));
+  }
+
+  @Test
+  void shouldSplitInSeveralLevelsWhenOneWouldOpenTooManyFiles() throws IOException {
+    var random = new Random(11);
+    var bigLeft = new ArrayList<Record>();
+    var bigRight = new ArrayList<Record>();
+    for (int i = 0; i < 20_000; i++) {
+      bigLeft.add(record("L" + i, "C" + random.nextInt(15_000)));
+      bigRight.add(record("R" + i, "C" + random.nextInt(15_000)));
+    }
+
+    var inMemory = RecordJoin.on(Record::getCode);
+    var spilling = inMemory.spillingOver(1_000, directory);
+
+    assertThat(spilling.partitionsFor(bigRight.size()))
+        .as("[Join] the budget needs more partitions than one split writes")
+        .isGreaterThan(RecordJoin.MAX_FAN_OUT);
+    assertThat(spilling.count(bigLeft, bigRight, RecordJoin.Type.LEFT))
+        .as("[Join] partitions are split again up to the needed count")
+        .isEqualTo(inMemory.count(bigLeft, bigRight, RecordJoin.Type.LEFT));
+
+    try (var files = Files.list(directory)) {
+      assertThat(files).isEmpty();
+    }
+  }
+
+  @Test
+  void shouldRequireSpillDirectoryOverBudget() {
+    assertThatExceptionOfType(IllegalStateException.class)
+        .as("[Join] no silent spill without a directory")
+        .isThrownBy(() -> RecordJoin.on(Record::getCode)
+            .spillingOver(1, null)
+            .join(left, right, RecordJoin.Type.INNER));
+  }
+
+  private static Record record(String name, String code) {
+    return Record.builder().name(name).code(code).amount(1.0).description("d").build();
+  }
+
+}
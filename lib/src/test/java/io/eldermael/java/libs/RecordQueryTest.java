@@ -0,0 +1,104 @@
+package io.eldermael.java.libs;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static ch.lambdaj.Lambda.filter;
+import static ch.lambdaj.Lambda.having;
+import static ch.lambdaj.Lambda.on;
+import static io.eldermael.java.libs.Record.sampleData;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.hamcrest.Matchers.containsString;
+
+public class RecordQueryTest extends BaseTestConfiguration {
+
+  @Test
+  void shouldFilterLikeLambdaJHaving() {
+    List<Record> lambdaJ = filter(
+        having(on(Record.class).getCode(), containsString("SS")),
+        sampleData()
+    );
+
+    assertThat(RecordQuery.filter("code contains SS", sampleData()))
+        .as("[Query] should match the same records as LambdaJ")
+        .containsExactlyElementsOf(lambdaJ);
+  }
+
+  @Test
+  void shouldCombineTextAndNumericClauses() {
+    var records = List.of(
+        Record.builder().name("XLD").code("SSS").amount(50.00).build(),
+        Record.builder().name("SLD").code("SSA").amount(150.00).build(),
+        Record.builder().name("ALD").code("SDB").amount(300.00).build()
+    );
+
+    assertThat(RecordQuery.filter("code contains SS and amount > 100", records))
+        .as("[Query] 'and' requires both clauses")
+        .extracting(Record::getName)
+        .containsExactly("SLD");
+
+    assertThat(RecordQuery.filter("code = SSS or amount >= 300 and name startsWith A", records))
+        .as("[Query] 'and' binds tighter than 'or'")
+        .extracting(Record::getName)
+        .containsExactly("XLD", "ALD");
+  }
+
+  @Test
+  void shouldMatchQuotedValues() {
+    assertThat(RecordQuery.filter("description = 'Amount for A'", sampleData()))
+        .as("[Query] quoted values may contain spaces")
+        .extracting(Record::getCode)
+        .containsExactly("SSA");
+  }
+
+  @Test
+  void shouldCacheCompiledExpressions() {
+    assertThat(RecordQuery.compile("amount > 100"))
+        .as("[Query] same expression returns the same predicate")
+        .isSameAs(RecordQuery.compile(" amount > 100 "));
+  }
+
+  @Test
+  void shouldTreatMissingValuesAsNotEqualForTextAndNumbers() {
+    var missing = Record.builder().name("N").code("NUL").build();
+    var records = List.of(missing, sampleData().get(0));
+
+    assertThat(RecordQuery.filter("amount != 1", records))
+        .as("[Query] a missing amount is not equal to a number")
+        .contains(missing);
+    assertThat(RecordQuery.filter("description != 'Amount for A'", records))
+        .as("[Query] a missing text is not equal to a string")
+        .contains(missing);
+    assertThat(RecordQuery.filter("amount = 1 or amount > 0 or amount < 0", records))
+        .as("[Query] other operators never match a missing value")
+        .doesNotContain(missing);
+  }
+
+  @Test
+  void shouldExtractPropertiesByName() {
+    var record = sampleData().get(0);
+
+    assertThat(RecordProperties.extractor("amount").apply(record))
+        .as("[Query] extractor returns the getter value")
+        .isEqualTo(record.getAmount());
+  }
+
+  @Test
+  void shouldRejectInvalidExpressions() {
+    assertThatExceptionOfType(IllegalArgumentException.class)
+        .as("[Query] unknown properties are rejected")
+        .isThrownBy(() -> RecordQuery.compile("price > 1"))
+        .withMessageContaining("Record has no property 'price'");
+
+    assertThatExceptionOfType(IllegalArgumentException.class)
+        .as("[Query] numeric properties need numbers")
+        .isThrownBy(() -> RecordQuery.compile("amount > lots"));
+
+    assertThatExceptionOfType(IllegalArgumentException.class)
+        .as("[Query] clauses need three tokens")
+        .isThrownBy(() -> RecordQuery.compile("code contains"));
+  }
+
+}
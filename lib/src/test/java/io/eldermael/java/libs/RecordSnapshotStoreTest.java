@@ -0,0 +1,78 @@
+package io.eldermael.java.libs;
+
+import io.vavr.collection.Vector;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static io.eldermael.java.libs.Record.sampleData;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RecordSnapshotStoreTest extends BaseTestConfiguration {
+
+  @Test
+  void shouldKeepOldSnapshotsUnchangedAfterWrites() {
+    var store = new RecordSnapshotStore();
+    var empty = store.snapshot();
+
+    store.appendAll(sampleData());
+    var full = store.snapshot();
+    store.set(0, Record.builder().code("NEW").build());
+
+    assertThat(empty.records())
+        .as("[Snapshot] first version is still empty")
+        .isEmpty();
+
+    assertThat(full.records())
+        .as("[Snapshot] second version still has the sample data")
+        .containsExactlyElementsOf(sampleData());
+
+    assertThat(store.snapshot().version())
+        .as("[Snapshot] every write bumps the version")
+        .isEqualTo(2);
+  }
+
+  @Test
+  void shouldApplyBatchesAtomically() {
+    var store = new RecordSnapshotStore();
+    var executor = Executors.newFixedThreadPool(4);
+
+    var writers = IntStream.range(0, 100)
+        .mapToObj(i -> CompletableFuture.runAsync(() -> store.appendAll(sampleData()), executor))
+        .toArray(CompletableFuture[]::new);
+
+    var observedSizes = CompletableFuture.supplyAsync(() -> IntStream.range(0, 1_000)
+        .map(i -> store.snapshot().size())
+        .boxed()
+        .toList(), executor);
+
+    CompletableFuture.allOf(writers).join();
+    executor.shutdown();
+
+    assertThat(observedSizes.join())
+        .as("[Snapshot] readers never see half a batch")
+        .allMatch(size -> size % sampleData().size() == 0);
+
+    assertThat(store.snapshot().size())
+        .as("[Snapshot] no batch is lost")
+        .isEqualTo(100 * sampleData().size());
+  }
+
+  @Test
+  void shouldNotBumpVersionWhenNothingChanges() {
+    var store = new RecordSnapshotStore();
+    store.append(sampleData().get(0));
+
+    var unchanged = store.update(records -> records);
+
+    assertThat(unchanged.version())
+        .as("[Snapshot] identity updates keep the version")
+        .isEqualTo(1);
+
+    assertThat(unchanged.records())
+        .isInstanceOf(Vector.class);
+  }
+
+}
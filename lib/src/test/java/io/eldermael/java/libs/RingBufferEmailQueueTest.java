@@ -0,0 +1,100 @@
+package io.eldermael.java.libs;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class RingBufferEmailQueueTest extends BaseTestConfiguration {
+
+  @Test
+  void shouldReturnErrorInsteadOfBlockingWhenFull() {
+    var queue = new RingBufferEmailQueue(4, RingBufferEmailQueue.WaitStrategy.BUSY_SPIN);
+
+    for (int i = 0; i < 4; i++) {
+      assertThat(queue.persistEmailForLater("alert " + i)).isEqualTo(ProcessResult.SUCCESS);
+    }
+
+    assertThat(queue.persistEmailForLater("one too many"))
+        .as("[RingBuffer] full ring rejects")
+        .isEqualTo(ProcessResult.ERROR);
+    assertThat(queue.size()).isEqualTo(4);
+
+    assertThat(queue.poll()).isEqualTo("alert 0");
+    assertThat(queue.persistEmailForLater("fits again"))
+        .as("[RingBuffer] consumed slot is reused")
+        .isEqualTo(ProcessResult.SUCCESS);
+
+    var drained = new ArrayList<String>();
+    assertThat(queue.drain(drained::add, 10)).isEqualTo(4);
+    assertThat(drained)
+        .as("[RingBuffer] messages come out in order")
+        .containsExactly("alert 1", "alert 2", "alert 3", "fits again");
+    assertThat(queue.poll())
+        .as("[RingBuffer] empty ring polls null")
+        .isNull();
+  }
+
+  @ParameterizedTest
+  @EnumSource(RingBufferEmailQueue.WaitStrategy.class)
+  void shouldDeliverEveryMessageFromManyProducers(RingBufferEmailQueue.WaitStrategy waitStrategy)
+      throws InterruptedException {
+    int producers = 4;
+    int perProducer = 20_000;
+    var queue = new RingBufferEmailQueue(1024, waitStrategy);
+    ExecutorService threads = Executors.newFixedThreadPool(producers);
+
+    for (int p = 0; p < producers; p++) {
+      int producer = p;
+      threads.execute(() -> {
+        for (int i = 0; i < perProducer; i++) {
+          while (queue.persistEmailForLater(producer + ":" + i) != ProcessResult.SUCCESS) {
+            Thread.yield();
+          }
+        }
+      });
+    }
+
+    Map<String, Integer> lastSeen = new HashMap<>();
+    for (int i = 0; i < producers * perProducer; i++) {
+      var message = queue.take();
+      var producer = message.substring(0, message.indexOf(':'));
+      int sequence = Integer.parseInt(message.substring(message.indexOf(':') + 1));
+      assertThat(sequence)
+          .as("[RingBuffer] each producer's messages keep their order")
+          .isEqualTo(lastSeen.getOrDefault(producer, -1) + 1);
+      lastSeen.put(producer, sequence);
+    }
+    threads.shutdown();
+    assertThat(threads.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+
+    assertThat(queue.poll())
+        .as("[RingBuffer] nothing is duplicated")
+        .isNull();
+  }
+
+  @Test
+  void shouldStopWaitingWhenInterrupted() {
+    var queue = new RingBufferEmailQueue(4, RingBufferEmailQueue.WaitStrategy.PARK);
+    Thread.currentThread().interrupt();
+
+    assertThatExceptionOfType(InterruptedException.class)
+        .isThrownBy(queue::take);
+  }
+
+  @Test
+  void shouldRequirePowerOfTwoCapacity() {
+    assertThatExceptionOfType(IllegalArgumentException.class)
+        .isThrownBy(() -> new RingBufferEmailQueue(1000, RingBufferEmailQueue.WaitStrategy.YIELD));
+  }
+
+}
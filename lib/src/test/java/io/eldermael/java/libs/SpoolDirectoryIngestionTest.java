@@ -0,0 +1,142 @@
+package io.eldermael.java.libs;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+public class SpoolDirectoryIngestionTest extends BaseTestConfiguration {
+
+  @TempDir
+  Path spool;
+
+  final List<BatchLine> received = new CopyOnWriteArrayList<>();
+
+  @Test
+  void shouldOnlyEmitCompleteLinesAppendedSinceLastScan() throws IOException {
+    var batchFile = spool.resolve("batchfile.txt");
+    append(batchFile, "10\n20\n3");
+
+    var ingestion = new SpoolDirectoryIngestion(spool, received::add, Duration.ofSeconds(1));
+
+    assertThat(ingestion.scan())
+        .as("[Spool] partial last line is not emitted")
+        .isEqualTo(2);
+
+    append(batchFile, "0\n");
+    ingestion.scan();
+
+    assertThat(received)
+        .as("[Spool] partial line is emitted once completed")
+        .extracting(BatchLine::text)
+        .containsExactly("10", "20", "30");
+
+    assertThat(received)
+        .as("[Spool] offsets point at the start of each line")
+        .extracting(BatchLine::offset)
+        .containsExactly(0L, 3L, 6L);
+  }
+
+  @Test
+  void shouldResumeFromCheckpointsAfterRestart() throws IOException {
+    var batchFile = spool.resolve("batchfile.txt");
+    append(batchFile, "10\n20\n");
+    new SpoolDirectoryIngestion(spool, received::add, Duration.ofSeconds(1)).scan();
+
+    append(batchFile, "30\n");
+    received.clear();
+    new SpoolDirectoryIngestion(spool, received::add, Duration.ofSeconds(1)).scan();
+
+    assertThat(received)
+        .as("[Spool] restarted ingestion does not reprocess lines")
+        .extracting(BatchLine::text)
+        .containsExactly("30");
+  }
+
+  @Test
+  void shouldPickUpNewAndAppendedFilesWhileWatching() throws IOException {
+    try (var ingestion = new SpoolDirectoryIngestion(spool, received::add, Duration.ofMillis(200))) {
+      ingestion.start();
+
+      append(spool.resolve("first.txt"), "10\n");
+      append(spool.resolve("second.txt"), "20\r\n");
+
+      await()
+          .untilAsserted(() -> assertThat(received)
+              .as("[Spool] watcher ingests new files")
+              .extracting(BatchLine::text)
+              .containsExactlyInAnyOrder("10", "20"));
+
+      append(spool.resolve("first.txt"), "30\n");
+
+      await()
+          .untilAsserted(() -> assertThat(received)
+              .as("[Spool] watcher ingests appended lines")
+              .extracting(BatchLine::text)
+              .containsExactlyInAnyOrder("10", "20", "30"));
+    }
+  }
+
+  @Test
+  void shouldReadReplacedFilesFromTheStart() throws IOException {
+    var batchFile = spool.resolve("batchfile.txt");
+    append(batchFile, "10\n20\n");
+    var ingestion = new SpoolDirectoryIngestion(spool, received::add, Duration.ofSeconds(1));
+    ingestion.scan();
+
+    Files.delete(batchFile);
+    append(batchFile, "30\n40\n50\n");
+    received.clear();
+    new SpoolDirectoryIngestion(spool, received::add, Duration.ofSeconds(1)).scan();
+
+    assertThat(received)
+        .as("[Spool] a recreated file longer than the old offset is read from the start")
+        .extracting(BatchLine::text)
+        .containsExactly("30", "40", "50");
+  }
+
+  @Test
+  void shouldCheckpointFailedFilesAtTheLineTheSinkFailedOn() throws IOException {
+    append(spool.resolve("failing.txt"), "10\n20\n");
+    append(spool.resolve("working.txt"), "30\n");
+    var failing = new AtomicBoolean(true);
+    var ingestion = new SpoolDirectoryIngestion(spool, line -> {
+      if (failing.get() && line.text().equals("20")) {
+        throw new IllegalStateException("Sink is down");
+      }
+      received.add(line);
+    }, Duration.ofSeconds(1));
+
+    ingestion.scan();
+
+    assertThat(received)
+        .as("[Spool] other files are still ingested")
+        .extracting(BatchLine::text)
+        .containsExactlyInAnyOrder("10", "30");
+
+    failing.set(false);
+    received.clear();
+    ingestion.scan();
+
+    assertThat(received)
+        .as("[Spool] only the failed line is read again, not the lines before it")
+        .extracting(BatchLine::text)
+        .containsExactly("20");
+  }
+
+  private void append(Path file, String content) throws IOException {
+    Files.writeString(file, content, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+  }
+
+}
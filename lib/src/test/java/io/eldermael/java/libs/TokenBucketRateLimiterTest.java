@@ -0,0 +1,143 @@
+package io.eldermael.java.libs;
+
+import io.vavr.control.Either;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.eldermael.java.libs.TokenBucketRateLimiter.Quota.perMinute;
+import static io.eldermael.java.libs.TokenBucketRateLimiter.Quota.perSecond;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class TokenBucketRateLimiterTest extends BaseTestConfiguration {
+
+  private static final long MILLISECOND = TimeUnit.MILLISECONDS.toNanos(1);
+
+  @Test
+  void shouldAllowABurstThenRefillOverThePeriod() {
+    var clock = new AtomicLong();
+    var limiter = new TokenBucketRateLimiter(clock::get, perSecond(10));
+
+    assertThat(acquired(limiter, 20))
+        .as("[RateLimit] a full bucket grants one period's worth")
+        .isEqualTo(10);
+
+    clock.addAndGet(300 * MILLISECOND);
+
+    assertThat(acquired(limiter, 20))
+        .as("[RateLimit] tokens come back with time")
+        .isEqualTo(3);
+  }
+
+  @Test
+  void shouldRequireEveryBucket() {
+    var clock = new AtomicLong();
+    var limiter = new TokenBucketRateLimiter(clock::get, perSecond(10), perMinute(15));
+
+    assertThat(acquired(limiter, 20))
+        .as("[RateLimit] per-second bucket limits the first burst")
+        .isEqualTo(10);
+
+    clock.addAndGet(1_000 * MILLISECOND);
+
+    assertThat(acquired(limiter, 20))
+        .as("[RateLimit] per-minute bucket limits the second one")
+        .isEqualTo(5);
+  }
+
+  @Test
+  void shouldNotConsumeTokensWhenAnyBucketRefuses() {
+    var clock = new AtomicLong();
+    var limiter = new TokenBucketRateLimiter(clock::get, perSecond(10), perMinute(100));
+
+    assertThat(limiter.tryAcquire(10)).isTrue();
+    assertThat(limiter.tryAcquire(1))
+        .as("[RateLimit] per-second bucket is empty")
+        .isFalse();
+
+    clock.addAndGet(1_000 * MILLISECOND);
+
+    assertThat(acquired(limiter, 200))
+        .as("[RateLimit] refused calls left the per-minute bucket alone")
+        .isEqualTo(10);
+  }
+
+  @Test
+  void shouldCompleteAsyncAcquiresOnceTokensAreBack() throws Exception {
+    var limiter = new TokenBucketRateLimiter(perSecond(100));
+    limiter.tryAcquire(100);
+
+    long start = System.nanoTime();
+    limiter.acquire(5).get(1, TimeUnit.SECONDS);
+
+    assertThat(System.nanoTime() - start)
+        .as("[RateLimit] five permits at 100/s take about 50ms")
+        .isGreaterThanOrEqualTo(40 * MILLISECOND);
+  }
+
+  @Test
+  void shouldNeverGrantMoreThanTheQuotaUnderContention() throws InterruptedException {
+    var clock = new AtomicLong();
+    var limiter = new TokenBucketRateLimiter(clock::get, perSecond(1_000));
+    var granted = new AtomicInteger();
+    ExecutorService threads = Executors.newFixedThreadPool(8);
+
+    for (int t = 0; t < 8; t++) {
+      threads.execute(() -> granted.addAndGet(acquired(limiter, 10_000)));
+    }
+    threads.shutdown();
+    threads.awaitTermination(10, TimeUnit.SECONDS);
+
+    assertThat(granted.get())
+        .as("[RateLimit] CAS never hands out the same token twice")
+        .isEqualTo(1_000);
+  }
+
+  @Test
+  void shouldNotCallTheProviderWhenRateLimited() {
+    var calls = new AtomicInteger();
+    var provider = new EmailSender() {
+      @Override
+      protected Either<String, ProcessResult> deliver(String message) {
+        calls.incrementAndGet();
+        return Either.right(ProcessResult.SUCCESS);
+      }
+    };
+    var sender = new RateLimitedEmailSender(provider, new TokenBucketRateLimiter(() -> 0L, perSecond(1)));
+
+    assertThat(sender.trySendAlertEmail("first").isRight()).isTrue();
+    assertThat(sender.trySendAlertEmail("second").getLeft())
+        .as("[RateLimit] over quota fails locally")
+        .isEqualTo(RateLimitedEmailSender.RATE_LIMITED);
+    assertThatExceptionOfType(MailException.class)
+        .isThrownBy(() -> sender.sendAlertEmail("third"));
+    assertThat(calls.get())
+        .as("[RateLimit] provider saw only the permitted call")
+        .isEqualTo(1);
+  }
+
+  @Test
+  void shouldRejectInvalidQuotas() {
+    assertThatExceptionOfType(IllegalArgumentException.class)
+        .isThrownBy(() -> perSecond(0));
+    assertThatExceptionOfType(IllegalArgumentException.class)
+        .isThrownBy(() -> new TokenBucketRateLimiter.Quota(1, Duration.ZERO));
+  }
+
+  private static int acquired(TokenBucketRateLimiter limiter, int attempts) {
+    int acquired = 0;
+    for (int i = 0; i < attempts; i++) {
+      if (limiter.tryAcquire()) {
+        acquired++;
+      }
+    }
+    return acquired;
+  }
+
+}
@@ -0,0 +1,79 @@
+package io.eldermael.java.libs;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class WindowedCodeAggregatesTest extends BaseTestConfiguration {
+
+  static final Instant START = Instant.parse("2021-10-01T10:00:00Z");
+
+  @Test
+  void shouldAggregateTumblingWindowsSeparately() {
+    var windows = WindowedCodeAggregates.tumbling(Duration.ofMinutes(1));
+    windows.insert(record(10.0), START);
+    windows.insert(record(20.0), START.plusSeconds(59));
+    windows.insert(record(5.0), START.plusSeconds(60));
+
+    assertThat(windows.window("SSS", START.plusSeconds(30)))
+        .as("[Windows] a tumbling window covers its own minute")
+        .isEqualTo(new CodeAggregates.Aggregate(2, 30.0, 10.0, 20.0));
+
+    assertThat(windows.window(START.plusSeconds(61)))
+        .as("[Windows] the next minute starts empty")
+        .containsEntry("SSS", new CodeAggregates.Aggregate(1, 5.0, 5.0, 5.0));
+
+    windows.retract(record(20.0), START.plusSeconds(59));
+    assertThat(windows.window("SSS", START))
+        .as("[Windows] retractions go to the pane of their event time")
+        .isEqualTo(new CodeAggregates.Aggregate(1, 10.0, 10.0, 10.0));
+  }
+
+  @Test
+  void shouldMergePanesOfSlidingWindows() {
+    var windows = WindowedCodeAggregates.sliding(Duration.ofMinutes(3), Duration.ofMinutes(1));
+    for (int minute = 0; minute < 5; minute++) {
+      windows.insert(record(minute), START.plus(Duration.ofMinutes(minute)));
+    }
+
+    assertThat(windows.window("SSS", START.plus(Duration.ofMinutes(4))))
+        .as("[Windows] a sliding window merges the last size / slide panes")
+        .isEqualTo(new CodeAggregates.Aggregate(3, 2.0 + 3.0 + 4.0, 2.0, 4.0));
+
+    assertThat(windows.window("SSS", START.plus(Duration.ofMinutes(1))))
+        .as("[Windows] windows can be asked for any retained time")
+        .isEqualTo(new CodeAggregates.Aggregate(2, 1.0, 0.0, 1.0));
+  }
+
+  @Test
+  void shouldExpireOldPanes() {
+    var windows = WindowedCodeAggregates.tumbling(Duration.ofMinutes(1));
+    for (int minute = 0; minute < 10; minute++) {
+      windows.insert(record(minute), START.plus(Duration.ofMinutes(minute)));
+    }
+
+    assertThat(windows.paneCount())
+        .as("[Windows] only two windows are retained")
+        .isEqualTo(2);
+
+    assertThatExceptionOfType(IllegalArgumentException.class)
+        .as("[Windows] events older than the retained windows are rejected")
+        .isThrownBy(() -> windows.insert(record(1.0), START));
+
+    assertThatExceptionOfType(IllegalArgumentException.class)
+        .as("[Windows] the size must be a multiple of the slide")
+        .isThrownBy(() -> WindowedCodeAggregates.sliding(Duration.ofSeconds(90), Duration.ofMinutes(1)));
+    assertThatExceptionOfType(IllegalArgumentException.class)
+        .as("[Windows] panes are whole milliseconds")
+        .isThrownBy(() -> WindowedCodeAggregates.sliding(Duration.ofSeconds(1), Duration.ofNanos(500)));
+  }
+
+  private static Record record(double amount) {
+    return Record.builder().name("R").code("SSS").amount(amount).build();
+  }
+
+}